@@ -1,10 +1,17 @@
 package com.muiyurocodes.ecommerc.advice;
 
 import com.muiyurocodes.ecommerc.exception.EmailAlreadyExistsException;
+import com.muiyurocodes.ecommerc.exception.GuestCartNotFoundException;
 import com.muiyurocodes.ecommerc.exception.InsufficientStockException;
+import com.muiyurocodes.ecommerc.exception.InvalidCartQuantityException;
+import com.muiyurocodes.ecommerc.exception.InvalidImportException;
+import com.muiyurocodes.ecommerc.exception.InvalidPageRequestException;
 import com.muiyurocodes.ecommerc.exception.ProductNotFoundException;
 import com.muiyurocodes.ecommerc.exception.UserNotFoundException;
 import io.jsonwebtoken.JwtException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.AuthenticationException;
@@ -43,6 +50,19 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(GuestCartNotFoundException.class)
+    public ResponseEntity<ApiError> handleGuestCartNotFoundException(GuestCartNotFoundException exception) {
+        ApiError apiError = new ApiError(exception.getLocalizedMessage(), HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND);
+    }
+
+    // Still conflicting after the retries of @RetryOnConflict, or not retried at all
+    @ExceptionHandler({OptimisticLockingFailureException.class, PessimisticLockingFailureException.class})
+    public ResponseEntity<ApiError> handleConcurrencyFailureException(ConcurrencyFailureException exception) {
+        ApiError apiError = new ApiError("The resource was modified concurrently, please retry", HttpStatus.CONFLICT);
+        return new ResponseEntity<>(apiError, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(EmailAlreadyExistsException.class)
     public ResponseEntity<ApiError> handleEmailAlreadyExistsException(EmailAlreadyExistsException exception) {
         ApiError apiError = new ApiError(exception.getLocalizedMessage(), HttpStatus.CONFLICT);
@@ -55,6 +75,24 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InvalidCartQuantityException.class)
+    public ResponseEntity<ApiError> handleInvalidCartQuantityException(InvalidCartQuantityException exception) {
+        ApiError apiError = new ApiError(exception.getLocalizedMessage(), HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public ResponseEntity<ApiError> handleInvalidPageRequestException(InvalidPageRequestException exception) {
+        ApiError apiError = new ApiError(exception.getLocalizedMessage(), HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<ApiError> handleInvalidImportException(InvalidImportException exception) {
+        ApiError apiError = new ApiError(exception.getLocalizedMessage(), HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<ApiError> handleAuthenticationException(AuthenticationException ex) {
         ApiError apiError = new ApiError(ex.getLocalizedMessage(), HttpStatus.UNAUTHORIZED);
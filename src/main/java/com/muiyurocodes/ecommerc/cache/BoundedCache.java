@@ -0,0 +1,201 @@
+package com.muiyurocodes.ecommerc.cache;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe LRU cache bounded by the total estimated weight of its values, with a fixed
+ * time-to-live per entry and hit/miss/eviction counters. Loads run outside the lock; a load
+ * that overlaps an invalidation of its key (or of the whole cache) is handed to its caller but
+ * not stored, so a value read before a write cannot outlive the invalidation that write triggered.
+ */
+public class BoundedCache<K, V> {
+
+    private final String name;
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final ToLongFunction<V> weigher;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    // Bumped by invalidateAll and invalidateIf; loads started under an older generation are not stored
+    private long generation;
+    // Stamps of single-key invalidations made while loads were running; cleared once none are
+    private long invalidations;
+    private final Map<K, Long> invalidatedAt = new HashMap<>();
+    private int loading;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public BoundedCache(String name, long maxWeight, long ttlMillis, ToLongFunction<V> weigher) {
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.weigher = weigher;
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long loadGeneration;
+        long loadStamp;
+        synchronized (this) {
+            V cached = lookup(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+            loadStamp = invalidations;
+            loading++;
+        }
+        V value = null;
+        try {
+            value = loader.apply(key);
+            return value;
+        } finally {
+            synchronized (this) {
+                if (value != null && isCurrent(key, loadGeneration, loadStamp)) {
+                    store(key, value);
+                }
+                loadFinished();
+            }
+        }
+    }
+
+    /**
+     * Looks up several keys at once and loads all misses with one call to {@code bulkLoader}.
+     * Keys the loader does not return are absent from the result.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> bulkLoader) {
+        Map<K, V> result = new HashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        long loadGeneration;
+        long loadStamp;
+        synchronized (this) {
+            for (K key : keys) {
+                V cached = lookup(key);
+                if (cached != null) {
+                    result.put(key, cached);
+                } else {
+                    missing.add(key);
+                }
+            }
+            if (missing.isEmpty()) {
+                return result;
+            }
+            loadGeneration = generation;
+            loadStamp = invalidations;
+            loading++;
+        }
+        Map<K, V> loaded = null;
+        try {
+            loaded = bulkLoader.apply(missing);
+            result.putAll(loaded);
+            return result;
+        } finally {
+            synchronized (this) {
+                if (loaded != null) {
+                    loaded.forEach((key, value) -> {
+                        if (isCurrent(key, loadGeneration, loadStamp)) {
+                            store(key, value);
+                        }
+                    });
+                }
+                loadFinished();
+            }
+        }
+    }
+
+    // Only loads that started before this call can hold an older value of the key
+    public synchronized void invalidate(K key) {
+        if (loading > 0) {
+            invalidatedAt.put(key, ++invalidations);
+        }
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.weight();
+        }
+    }
+
+    public synchronized void invalidateIf(Predicate<V> predicate) {
+        generation++;
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry<V> entry = iterator.next();
+            if (predicate.test(entry.value())) {
+                iterator.remove();
+                weight -= entry.weight();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(name, entries.size(), weight, maxWeight,
+                hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+    }
+
+    // Caller holds the lock
+    private boolean isCurrent(K key, long loadGeneration, long loadStamp) {
+        Long invalidated = invalidatedAt.get(key);
+        return generation == loadGeneration && (invalidated == null || invalidated <= loadStamp);
+    }
+
+    // Caller holds the lock
+    private void loadFinished() {
+        if (--loading == 0) {
+            invalidatedAt.clear();
+        }
+    }
+
+    // Caller holds the lock
+    private V lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            if (System.nanoTime() - entry.expiresAt() < 0) {
+                hits.increment();
+                return entry.value();
+            }
+            entries.remove(key);
+            weight -= entry.weight();
+            expirations.increment();
+        }
+        misses.increment();
+        return null;
+    }
+
+    // Caller holds the lock
+    private void store(K key, V value) {
+        long valueWeight = weigher.applyAsLong(value);
+        if (valueWeight > maxWeight) {
+            return;
+        }
+        Entry<V> previous = entries.put(key, new Entry<>(value, valueWeight, System.nanoTime() + ttlNanos));
+        weight += valueWeight - (previous == null ? 0 : previous.weight());
+
+        // Evict least recently used entries until the cache fits its budget again
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (weight > maxWeight && iterator.hasNext()) {
+            Entry<V> eldest = iterator.next();
+            iterator.remove();
+            weight -= eldest.weight();
+            evictions.increment();
+        }
+    }
+
+    private record Entry<V>(V value, long weight, long expiresAt) {
+    }
+
+    public record Stats(String name, int entries, long weight, long maxWeight,
+                        long hits, long misses, long evictions, long expirations) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.muiyurocodes.ecommerc.cache;
+
+import com.muiyurocodes.ecommerc.dto.CacheStatsDTO;
+import com.muiyurocodes.ecommerc.dto.CategoryDTO;
+import com.muiyurocodes.ecommerc.dto.ProductResponseDTO;
+import com.muiyurocodes.ecommerc.event.CatalogImportedEvent;
+import com.muiyurocodes.ecommerc.event.CategoryChangedEvent;
+import com.muiyurocodes.ecommerc.event.ProductChangedEvent;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Ready-to-serve catalog DTOs for the anonymous product and category reads. Entries are
+ * dropped precisely by the catalog change events once the changing transaction commits, and
+ * expire after a TTL as a safety net. Callers always get copies, since the DTOs are mutable.
+ */
+@Component
+public class CatalogCache {
+
+    private static final String ALL_CATEGORIES = "all";
+
+    @Value("${catalog.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${catalog.cache.products.max-bytes:33554432}")
+    private long productsMaxBytes;
+
+    @Value("${catalog.cache.categories.max-bytes:4194304}")
+    private long categoriesMaxBytes;
+
+    private BoundedCache<Long, ProductResponseDTO> products;
+    private BoundedCache<Long, CategoryDTO> categories;
+    private BoundedCache<String, List<CategoryDTO>> categoryLists;
+    private BoundedCache<String, String> versions;
+
+    @PostConstruct
+    void init() {
+        long ttlMillis = ttlSeconds * 1000;
+        products = new BoundedCache<>("products", productsMaxBytes, ttlMillis, CatalogCache::weigh);
+        categories = new BoundedCache<>("categories", categoriesMaxBytes, ttlMillis, CatalogCache::weigh);
+        categoryLists = new BoundedCache<>("categoryLists", categoriesMaxBytes, ttlMillis,
+                list -> 64 + list.stream().mapToLong(CatalogCache::weigh).sum());
+        versions = new BoundedCache<>("versions", categoriesMaxBytes, ttlMillis, version -> 96 + chars(version));
+    }
+
+    public ProductResponseDTO product(Long productId, Function<Long, ProductResponseDTO> loader) {
+        ProductResponseDTO product = products.get(productId, loader);
+        return product == null ? null : copyOf(product);
+    }
+
+    public Map<Long, ProductResponseDTO> products(Collection<Long> productIds,
+                                                  Function<Set<Long>, Map<Long, ProductResponseDTO>> loader) {
+        Map<Long, ProductResponseDTO> copies = new HashMap<>();
+        products.getAll(productIds, loader).forEach((id, product) -> copies.put(id, copyOf(product)));
+        return copies;
+    }
+
+    // Applies tagger to the cached entry itself, sparing the copy; null when the product does not exist
+    public String productETag(Long productId, Function<Long, ProductResponseDTO> loader,
+                              Function<ProductResponseDTO, String> tagger) {
+        ProductResponseDTO product = products.get(productId, loader);
+        return product == null ? null : tagger.apply(product);
+    }
+
+    public CategoryDTO category(Long categoryId, Function<Long, CategoryDTO> loader) {
+        CategoryDTO category = categories.get(categoryId, loader);
+        return category == null ? null : copyOf(category);
+    }
+
+    public String categoryETag(Long categoryId, Function<Long, CategoryDTO> loader) {
+        CategoryDTO category = categories.get(categoryId, loader);
+        return category == null ? null : CatalogETags.category(category);
+    }
+
+    public List<CategoryDTO> allCategories(Supplier<List<CategoryDTO>> loader) {
+        return categoryLists.get(ALL_CATEGORIES, key -> List.copyOf(loader.get())).stream()
+                .map(CatalogCache::copyOf)
+                .toList();
+    }
+
+    /**
+     * Listing validator (see {@link CatalogETags}) under {@code key}. Dropped on every catalog
+     * change, so the aggregate query behind it runs once per change rather than once per request.
+     */
+    public String version(String key, Function<String, String> loader) {
+        return versions.get(key, loader);
+    }
+
+    public List<CacheStatsDTO> stats() {
+        return List.of(toDTO(products.stats()), toDTO(categories.stats()), toDTO(categoryLists.stats()),
+                toDTO(versions.stats()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        products.invalidate(event.productId());
+        versions.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (!event.rowsChanged()) {
+            return; // Cached DTOs hold row stock; hot counters are swapped in when serving
+        }
+        event.productIds().forEach(products::invalidate);
+        versions.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        products.invalidateAll();
+        versions.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Long categoryId = event.categoryId();
+        categories.invalidate(categoryId);
+        categoryLists.invalidateAll();
+        versions.invalidateAll();
+        // Product DTOs embed their category
+        products.invalidateIf(product -> product.getCategory() != null
+                && categoryId.equals(product.getCategory().getId()));
+    }
+
+    private static CacheStatsDTO toDTO(BoundedCache.Stats stats) {
+        long requests = stats.hits() + stats.misses();
+        return new CacheStatsDTO(stats.name(), stats.entries(), stats.weight(), stats.maxWeight(),
+                stats.hits(), stats.misses(), stats.evictions(), stats.expirations(),
+                requests == 0 ? 0.0 : (double) stats.hits() / requests);
+    }
+
+    // Rough heap footprint: object headers and fields plus two bytes per character
+    private static long weigh(ProductResponseDTO product) {
+        return 184 + chars(product.getName()) + chars(product.getDescription()) + chars(product.getImageUrl())
+                + (product.getCategory() == null ? 0 : weigh(product.getCategory()));
+    }
+
+    private static long weigh(CategoryDTO category) {
+        return 72 + chars(category.getName());
+    }
+
+    private static long chars(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+
+    private static ProductResponseDTO copyOf(ProductResponseDTO source) {
+        ProductResponseDTO copy = new ProductResponseDTO();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setDescription(source.getDescription());
+        copy.setPrice(source.getPrice());
+        copy.setStockQuantity(source.getStockQuantity());
+        copy.setCategory(source.getCategory() == null ? null : copyOf(source.getCategory()));
+        copy.setImageUrl(source.getImageUrl());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        copy.setVersion(source.getVersion());
+        return copy;
+    }
+
+    private static CategoryDTO copyOf(CategoryDTO source) {
+        CategoryDTO copy = new CategoryDTO();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        copy.setLowStockThreshold(source.getLowStockThreshold());
+        return copy;
+    }
+}
@@ -0,0 +1,49 @@
+package com.muiyurocodes.ecommerc.cache;
+
+import com.muiyurocodes.ecommerc.dto.CategoryDTO;
+import com.muiyurocodes.ecommerc.dto.ProductResponseDTO;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Strong entity tags for catalog responses, built from update timestamps rather than by hashing
+ * response bodies. Timestamps are taken at microsecond precision, which is what the database
+ * stores, so a freshly saved entity and its reloaded copy produce the same tag.
+ */
+public final class CatalogETags {
+
+    private CatalogETags() {
+    }
+
+    // Stock is part of the tag because hot-inventory stock changes without touching updated_at
+    public static String product(ProductResponseDTO product) {
+        return product(product, product.getStockQuantity());
+    }
+
+    // For a cached DTO, which holds row stock, and the product's live stock
+    public static String product(ProductResponseDTO product, Integer stockQuantity) {
+        return "\"p" + product.getId() + "-" + micros(product.getUpdatedAt())
+                + "-" + (product.getCategory() == null ? "0" : micros(product.getCategory().getUpdatedAt()))
+                + "-" + stockQuantity + "\"";
+    }
+
+    public static String category(CategoryDTO category) {
+        return "\"c" + category.getId() + "-" + micros(category.getUpdatedAt()) + "\"";
+    }
+
+    /**
+     * Tag part for a collection from its newest update time and row count. An insert or update
+     * moves the maximum and a delete lowers the count, so any change alters one of them.
+     */
+    public static String version(LocalDateTime lastModified, long count) {
+        return micros(lastModified) + "-" + Long.toHexString(count);
+    }
+
+    private static String micros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return "0";
+        }
+        return Long.toHexString(timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000);
+    }
+}
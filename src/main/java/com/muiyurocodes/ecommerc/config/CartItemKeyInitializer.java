@@ -0,0 +1,52 @@
+package com.muiyurocodes.ecommerc.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Adds the unique (cart_id, product_id) key to databases created before it existed. ddl-auto
+ * cannot add it while duplicate lines are present, so they are merged first: the oldest line
+ * keeps the summed quantity (and its locked-in price), the others are deleted.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CartItemKeyInitializer implements CommandLineRunner {
+
+    private static final String KEY_EXISTS_SQL =
+            "SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() "
+                    + "AND table_name = 'cart_items' AND index_name = 'uk_cart_items_cart_product'";
+
+    private static final String MERGE_DUPLICATES_SQL =
+            "UPDATE cart_items ci JOIN (SELECT MIN(id) AS keep_id, SUM(quantity) AS total FROM cart_items "
+                    + "GROUP BY cart_id, product_id HAVING COUNT(*) > 1) d ON ci.id = d.keep_id "
+                    + "SET ci.quantity = d.total";
+
+    private static final String DELETE_DUPLICATES_SQL =
+            "DELETE ci FROM cart_items ci JOIN (SELECT cart_id, product_id, MIN(id) AS keep_id FROM cart_items "
+                    + "GROUP BY cart_id, product_id HAVING COUNT(*) > 1) d "
+                    + "ON ci.cart_id = d.cart_id AND ci.product_id = d.product_id AND ci.id <> d.keep_id";
+
+    private static final String ADD_KEY_SQL =
+            "ALTER TABLE cart_items ADD CONSTRAINT uk_cart_items_cart_product UNIQUE (cart_id, product_id)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void run(String... args) {
+        Integer keys = jdbcTemplate.queryForObject(KEY_EXISTS_SQL, Integer.class);
+        if (keys != null && keys > 0) {
+            return;
+        }
+        jdbcTemplate.update(MERGE_DUPLICATES_SQL);
+        int removed = jdbcTemplate.update(DELETE_DUPLICATES_SQL);
+        // DDL commits the merge above along with it
+        jdbcTemplate.execute(ADD_KEY_SQL);
+        log.info("Merged {} duplicate cart lines and added the unique (cart_id, product_id) key", removed);
+    }
+}
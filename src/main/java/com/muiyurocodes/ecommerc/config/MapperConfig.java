@@ -1,5 +1,7 @@
 package com.muiyurocodes.ecommerc.config;
 
+import com.muiyurocodes.ecommerc.dto.ProductDTO;
+import com.muiyurocodes.ecommerc.model.Product;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,5 +9,11 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class MapperConfig {
     @Bean
-    public ModelMapper getModelMapper() {return new ModelMapper();}
+    public ModelMapper getModelMapper() {
+        ModelMapper modelMapper = new ModelMapper();
+        // The version a client sends is checked by the service, never copied over the entity's own
+        modelMapper.typeMap(ProductDTO.class, Product.class)
+                .addMappings(mapper -> mapper.skip(Product::setVersion));
+        return modelMapper;
+    }
 }
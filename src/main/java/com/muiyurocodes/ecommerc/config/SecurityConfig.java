@@ -1,11 +1,12 @@
 package com.muiyurocodes.ecommerc.config;
 
+import com.muiyurocodes.ecommerc.mapper.UserMapper;
 import com.muiyurocodes.ecommerc.security.JwtAuthenticationFilter;
 import com.muiyurocodes.ecommerc.security.JwtAuthorizationFilter;
 import com.muiyurocodes.ecommerc.security.JwtTokenProvider;
+import com.muiyurocodes.ecommerc.service.GuestCartService;
 import com.muiyurocodes.ecommerc.service.SessionService;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpMethod;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -27,7 +28,8 @@ public class SecurityConfig {
     private final JwtAuthorizationFilter jwtAuthorizationFilter;
     private final JwtTokenProvider jwtTokenProvider;
     private final SessionService sessionService;
-    private final ModelMapper modelMapper;
+    private final GuestCartService guestCartService;
+    private final UserMapper userMapper;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -44,7 +46,7 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationManager authenticationManager)
             throws Exception {
         JwtAuthenticationFilter jwtAuthenticationFilter = new JwtAuthenticationFilter(authenticationManager,
-                jwtTokenProvider, sessionService, modelMapper);
+                jwtTokenProvider, sessionService, guestCartService, userMapper);
         jwtAuthenticationFilter.setFilterProcessesUrl("/api/users/login");
 
         http
@@ -55,6 +57,8 @@ public class SecurityConfig {
                         // Public product endpoints (GET methods)
                         .requestMatchers(HttpMethod.GET, "/api/products/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/categories/**").permitAll()
+                        // Anonymous carts, addressed by their opaque token
+                        .requestMatchers("/api/cart/guest", "/api/cart/guest/**").permitAll()
                         // Stripe webhook endpoint (must be public for Stripe to call it)
                         .requestMatchers("/api/webhooks/stripe/**").permitAll()
                         // Admin-only endpoints
@@ -1,21 +1,40 @@
 package com.muiyurocodes.ecommerc.controller;
 
+import com.muiyurocodes.ecommerc.cache.CatalogCache;
 import com.muiyurocodes.ecommerc.dto.*;
+import com.muiyurocodes.ecommerc.inventory.InventoryEventLog;
+import com.muiyurocodes.ecommerc.retry.ConflictRetryAspect;
+import com.muiyurocodes.ecommerc.search.ProductSearchIndex;
+import com.muiyurocodes.ecommerc.service.CartReaperService;
+import com.muiyurocodes.ecommerc.service.CatalogFormat;
+import com.muiyurocodes.ecommerc.service.CategoryDeletionService;
+import com.muiyurocodes.ecommerc.service.HotInventoryService;
 import com.muiyurocodes.ecommerc.service.OrderService;
+import com.muiyurocodes.ecommerc.service.ProductExportService;
+import com.muiyurocodes.ecommerc.service.ProductImportService;
 import com.muiyurocodes.ecommerc.service.ProductService;
+import com.muiyurocodes.ecommerc.service.SalesRollupService;
+import com.muiyurocodes.ecommerc.service.ShardedInventoryService;
+import com.muiyurocodes.ecommerc.service.StockUpdateService;
 import com.muiyurocodes.ecommerc.service.UserService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controller for admin-specific operations including dashboard, sales reporting,
@@ -29,11 +48,42 @@ public class AdminController {
     private final OrderService orderService;
     private final UserService userService;
     private final ProductService productService;
+    private final SalesRollupService salesRollupService;
+    private final HotInventoryService hotInventoryService;
+    private final ShardedInventoryService shardedInventoryService;
+    private final CartReaperService cartReaperService;
+    private final CatalogCache catalogCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+    private final CategoryDeletionService categoryDeletionService;
+    private final StockUpdateService stockUpdateService;
+    private final InventoryEventLog inventoryEventLog;
+    private final ConflictRetryAspect conflictRetryAspect;
 
-    public AdminController(OrderService orderService, UserService userService, ProductService productService) {
+    public AdminController(OrderService orderService, UserService userService, ProductService productService,
+                           SalesRollupService salesRollupService, HotInventoryService hotInventoryService,
+                           ShardedInventoryService shardedInventoryService,
+                           CartReaperService cartReaperService, CatalogCache catalogCache,
+                           ProductSearchIndex productSearchIndex, ProductImportService productImportService,
+                           ProductExportService productExportService, CategoryDeletionService categoryDeletionService,
+                           StockUpdateService stockUpdateService,
+                           InventoryEventLog inventoryEventLog, ConflictRetryAspect conflictRetryAspect) {
         this.orderService = orderService;
         this.userService = userService;
         this.productService = productService;
+        this.salesRollupService = salesRollupService;
+        this.hotInventoryService = hotInventoryService;
+        this.shardedInventoryService = shardedInventoryService;
+        this.cartReaperService = cartReaperService;
+        this.catalogCache = catalogCache;
+        this.productSearchIndex = productSearchIndex;
+        this.productImportService = productImportService;
+        this.productExportService = productExportService;
+        this.categoryDeletionService = categoryDeletionService;
+        this.stockUpdateService = stockUpdateService;
+        this.inventoryEventLog = inventoryEventLog;
+        this.conflictRetryAspect = conflictRetryAspect;
     }
 
     /**
@@ -60,6 +110,19 @@ public class AdminController {
         return ResponseEntity.ok(salesReport);
     }
 
+    /**
+     * Recomputes the daily sales rollups for a date range from the orders table.
+     * Used to backfill history or repair the rollups after manual data fixes.
+     */
+    @PostMapping("/sales/rollups/rebuild")
+    public ResponseEntity<Void> rebuildSalesRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        salesRollupService.rebuild(startDate, endDate);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * User management endpoint that provides a paginated list of all users.
      * Can be sorted by various fields and filtered by role.
@@ -105,25 +168,188 @@ public class AdminController {
     }
 
     /**
-     * Inventory management endpoint that provides a list of products with low stock.
+     * Inventory management endpoint that provides a list of products with low stock, lowest stock first.
+     * Without a threshold, each product is compared against its category's own low-stock threshold.
      */
     @GetMapping("/inventory/low-stock")
     public ResponseEntity<List<ProductResponseDTO>> getLowStockProducts(
-            @RequestParam(defaultValue = "5") int threshold) {
+            @RequestParam(required = false) Integer threshold) {
         
         List<ProductResponseDTO> lowStockProducts = productService.getLowStockProducts(threshold);
         return ResponseEntity.ok(lowStockProducts);
     }
 
     /**
-     * Inventory management endpoint that updates stock quantities for multiple products.
+     * Sets the stock level at or below which a category's products count as low; omit it to use the default.
      */
-    @PutMapping("/inventory/stock")
-    public ResponseEntity<List<ProductResponseDTO>> updateProductStock(
-            @RequestBody List<ProductStockUpdateDTO> stockUpdates) {
-        
-        List<ProductResponseDTO> updatedProducts = productService.updateProductStock(stockUpdates);
-        return ResponseEntity.ok(updatedProducts);
+    @PutMapping("/categories/{categoryId}/low-stock-threshold")
+    public ResponseEntity<CategoryDTO> updateLowStockThreshold(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) Integer threshold) {
+        return ResponseEntity.ok(productService.updateLowStockThreshold(categoryId, threshold));
+    }
+
+    /**
+     * Inventory management endpoint that updates stock quantities for multiple products, from a JSON
+     * array or NDJSON stream of {@code {productId, stockQuantity}} (absolute) or {@code {productId, delta}}
+     * updates. The body is streamed and applied in batches; the response lists updates that were not applied.
+     */
+    @PutMapping(value = "/inventory/stock", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<StockUpdateResultDTO> updateProductStock(InputStream body) {
+        return ResponseEntity.ok(stockUpdateService.updateStock(body));
+    }
+
+    /**
+     * Streams the whole catalog as NDJSON (default) or CSV, in the bulk import format. The body is
+     * gzip-compressed when the client sends {@code Accept-Encoding: gzip}.
+     */
+    @GetMapping("/products/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        CatalogFormat catalogFormat = "csv".equalsIgnoreCase(format) ? CatalogFormat.CSV : CatalogFormat.NDJSON;
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 1 << 16);
+                productExportService.exportProducts(compressed, catalogFormat);
+                compressed.finish();
+            } else {
+                productExportService.exportProducts(out, catalogFormat);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(catalogFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"products." + catalogFormat.name().toLowerCase() + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Bulk product import from a CSV (with header row) or NDJSON body. Rows with an id update that
+     * product and are rejected when it does not exist; the response lists rejected rows and rows
+     * whose stock was left alone because hot or sharded inventory manages it.
+     */
+    @PostMapping(value = "/products/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ProductImportResultDTO> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+
+        CatalogFormat format = contentType.isCompatibleWith(CatalogFormat.CSV.mediaType())
+                ? CatalogFormat.CSV
+                : CatalogFormat.NDJSON;
+        return ResponseEntity.ok(productImportService.importProducts(body, format));
+    }
+
+    /**
+     * Server-Sent Events stream of stock changes (checkouts, stock updates, product edits), pushed as
+     * they commit. Each event's id is its feed offset: reconnecting with {@code Last-Event-ID}, or
+     * passing {@code after}, resumes after that offset; otherwise only new changes are sent.
+     */
+    @GetMapping(value = "/inventory/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamInventoryEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Long after) {
+        return inventoryEventLog.subscribe(lastEventId != null ? lastEventId : after);
+    }
+
+    /**
+     * Progress of a category deletion started with {@code DELETE /api/categories/{id}}.
+     */
+    @GetMapping("/category-deletions/{jobId}")
+    public ResponseEntity<CategoryDeletionJobDTO> getCategoryDeletion(@PathVariable String jobId) {
+        return ResponseEntity.ok(categoryDeletionService.getJob(jobId));
+    }
+
+    /**
+     * Inventory management endpoint that lists products in hot (flash-sale) inventory mode.
+     */
+    @GetMapping("/inventory/hot")
+    public ResponseEntity<List<HotInventoryStatusDTO>> getHotProducts() {
+        return ResponseEntity.ok(hotInventoryService.getHotProducts());
+    }
+
+    /**
+     * Inventory management endpoint that moves a product's stock into striped in-memory counters
+     * with write-behind to the database, for SKUs under heavy checkout contention.
+     */
+    @PutMapping("/inventory/hot/{productId}")
+    public ResponseEntity<HotInventoryStatusDTO> enableHotInventory(@PathVariable Long productId) {
+        return ResponseEntity.ok(hotInventoryService.enable(productId));
+    }
+
+    /**
+     * Inventory management endpoint that flushes a hot product's counter and returns it to row-based stock.
+     */
+    @DeleteMapping("/inventory/hot/{productId}")
+    public ResponseEntity<HotInventoryStatusDTO> disableHotInventory(@PathVariable Long productId) {
+        return ResponseEntity.ok(hotInventoryService.disable(productId));
+    }
+
+    /**
+     * Inventory management endpoint that lists products whose stock is split over stock shards.
+     */
+    @GetMapping("/inventory/sharded")
+    public ResponseEntity<List<ShardedInventoryStatusDTO>> getShardedProducts() {
+        return ResponseEntity.ok(shardedInventoryService.getShardedProducts());
+    }
+
+    /**
+     * Inventory management endpoint that splits a product's stock over {@code shards} rows, or
+     * redistributes it when already sharded, so concurrent checkouts of one SKU lock different rows.
+     */
+    @PutMapping("/inventory/sharded/{productId}")
+    public ResponseEntity<ShardedInventoryStatusDTO> enableShardedInventory(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "8") int shards) {
+        return ResponseEntity.ok(shardedInventoryService.enable(productId, shards));
+    }
+
+    /**
+     * Inventory management endpoint that merges a sharded product's stock back into its row.
+     */
+    @DeleteMapping("/inventory/sharded/{productId}")
+    public ResponseEntity<ShardedInventoryStatusDTO> disableShardedInventory(@PathVariable Long productId) {
+        return ResponseEntity.ok(shardedInventoryService.disable(productId));
+    }
+
+    /**
+     * Runs the abandoned-cart purge now instead of waiting for its nightly schedule.
+     */
+    @PostMapping("/carts/purge")
+    public ResponseEntity<CartPurgeResultDTO> purgeAbandonedCarts() {
+        return ResponseEntity.ok(cartReaperService.purgeAbandonedCarts());
+    }
+
+    /**
+     * Hit, miss and eviction counters of the catalog read cache, for sizing it.
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(catalogCache.stats());
+    }
+
+    /**
+     * Optimistic-lock conflict and retry counters per service operation.
+     */
+    @GetMapping("/concurrency/conflicts")
+    public ResponseEntity<List<ConflictStatsDTO>> getConflictStats() {
+        return ResponseEntity.ok(conflictRetryAspect.stats());
+    }
+
+    /**
+     * Queues a full rebuild of the product search index; the current index keeps serving until it is swapped.
+     */
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Void> rebuildSearchIndex() {
+        productSearchIndex.rebuildAsync();
+        return ResponseEntity.accepted().build();
     }
 
     /**
@@ -1,7 +1,9 @@
 package com.muiyurocodes.ecommerc.controller;
 
+import com.muiyurocodes.ecommerc.dto.CartBatchRequestDTO;
 import com.muiyurocodes.ecommerc.dto.CartDTO;
 import com.muiyurocodes.ecommerc.service.CartService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +25,11 @@ public class CartController {
         return ResponseEntity.ok(cartService.addProductToCart(userId, productId, quantity));
     }
 
+    @PostMapping("/{userId}/items:batch")
+    public ResponseEntity<CartDTO> applyCartOperations(@PathVariable Long userId, @Valid @RequestBody CartBatchRequestDTO request) {
+        return ResponseEntity.ok(cartService.applyOperations(userId, request.getOperations()));
+    }
+
     @PutMapping("/{userId}/items/{productId}")
     public ResponseEntity<CartDTO> updateCartItem(@PathVariable Long userId, @PathVariable Long productId, @RequestParam int quantity) {
         return ResponseEntity.ok(cartService.updateCartItem(userId, productId, quantity));
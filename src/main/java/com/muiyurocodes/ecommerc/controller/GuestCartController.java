@@ -0,0 +1,51 @@
+package com.muiyurocodes.ecommerc.controller;
+
+import com.muiyurocodes.ecommerc.dto.CartDTO;
+import com.muiyurocodes.ecommerc.service.GuestCartService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/cart/guest")
+@RequiredArgsConstructor
+public class GuestCartController {
+
+    private final GuestCartService guestCartService;
+
+    // The token is returned in a header; clients send it back in the path and on login
+    @PostMapping
+    public ResponseEntity<CartDTO> createCart() {
+        String token = guestCartService.createCart();
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(GuestCartService.TOKEN_HEADER, token)
+                .body(guestCartService.getCart(token));
+    }
+
+    @GetMapping("/{token}")
+    public ResponseEntity<CartDTO> getCart(@PathVariable String token) {
+        return ResponseEntity.ok(guestCartService.getCart(token));
+    }
+
+    @PostMapping("/{token}/items")
+    public ResponseEntity<CartDTO> addProductToCart(@PathVariable String token, @RequestParam Long productId, @RequestParam int quantity) {
+        return ResponseEntity.ok(guestCartService.addProduct(token, productId, quantity));
+    }
+
+    @PutMapping("/{token}/items/{productId}")
+    public ResponseEntity<CartDTO> updateCartItem(@PathVariable String token, @PathVariable Long productId, @RequestParam int quantity) {
+        return ResponseEntity.ok(guestCartService.updateItem(token, productId, quantity));
+    }
+
+    @DeleteMapping("/{token}/items/{productId}")
+    public ResponseEntity<CartDTO> removeProductFromCart(@PathVariable String token, @PathVariable Long productId) {
+        return ResponseEntity.ok(guestCartService.removeProduct(token, productId));
+    }
+
+    @DeleteMapping("/{token}")
+    public ResponseEntity<Void> clearCart(@PathVariable String token) {
+        guestCartService.clearCart(token);
+        return ResponseEntity.ok().build();
+    }
+}
@@ -1,8 +1,13 @@
 package com.muiyurocodes.ecommerc.controller;
 
 import com.muiyurocodes.ecommerc.dto.CategoryDTO;
+import com.muiyurocodes.ecommerc.dto.CategoryDeletionJobDTO;
+import com.muiyurocodes.ecommerc.dto.CursorPageDTO;
 import com.muiyurocodes.ecommerc.dto.ProductDTO;
 import com.muiyurocodes.ecommerc.dto.ProductResponseDTO;
+import com.muiyurocodes.ecommerc.dto.ProductSearchResultDTO;
+import com.muiyurocodes.ecommerc.dto.ProductSuggestionDTO;
+import com.muiyurocodes.ecommerc.service.CategoryDeletionService;
 import com.muiyurocodes.ecommerc.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
@@ -12,8 +17,10 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -21,10 +28,12 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final CategoryDeletionService categoryDeletionService;
     
     // Explicit constructor
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, CategoryDeletionService categoryDeletionService) {
         this.productService = productService;
+        this.categoryDeletionService = categoryDeletionService;
     }
 
     // Category Endpoints
@@ -34,20 +43,35 @@ public class ProductController {
         return new ResponseEntity<>(createdCategory, HttpStatus.CREATED);
     }
 
+    // Conditional GET: an unchanged list is answered with 304 before it is loaded
     @GetMapping("/categories")
-    public ResponseEntity<List<CategoryDTO>> getAllCategories() {
-        return ResponseEntity.ok(productService.getAllCategories());
+    public ResponseEntity<List<CategoryDTO>> getAllCategories(WebRequest request) {
+        String eTag = productService.getCategoriesETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(productService.getAllCategories());
     }
 
+    // Conditional GET: the tag comes from the cached entry, so a 304 builds no response
     @GetMapping("/categories/{id}")
-    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable("id") Long categoryId) {
-        return ResponseEntity.ok(productService.getCategoryById(categoryId));
+    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable("id") Long categoryId, WebRequest request) {
+        String eTag = productService.getCategoryETag(categoryId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(productService.getCategoryById(categoryId));
     }
 
+    // Runs in the background; poll the job at the Location returned with the 202
     @DeleteMapping("/categories/{id}")
-    public ResponseEntity<Void> deleteCategory(@PathVariable("id") Long categoryId) {
-        productService.deleteCategory(categoryId);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<CategoryDeletionJobDTO> deleteCategory(
+            @PathVariable("id") Long categoryId,
+            @RequestParam(required = false) Long reassignTo) {
+        CategoryDeletionJobDTO job = categoryDeletionService.deleteCategory(categoryId, reassignTo);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/admin/category-deletions/" + job.getJobId()))
+                .body(job);
     }
 
     // Product Endpoints
@@ -58,18 +82,43 @@ public class ProductController {
     }
 
     @GetMapping("/products/{id}")
-    public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable("id") Long productId) {
-        return ResponseEntity.ok(productService.getProductById(productId));
+    public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable("id") Long productId, WebRequest request) {
+        String eTag = productService.getProductETag(productId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(productService.getProductById(productId));
     }
 
+    // Keyset-paginated; pass the returned nextCursor as cursor to get the following page
     @GetMapping("/products")
-    public ResponseEntity<List<ProductResponseDTO>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> getProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            WebRequest request) {
+        String eTag = productService.getProductsETag(null);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(productService.getProducts(sortBy, sortDir, cursor, limit));
     }
 
     @GetMapping("/categories/{id}/products")
-    public ResponseEntity<List<ProductResponseDTO>> getProductsByCategory(@PathVariable("id") Long categoryId) {
-        return ResponseEntity.ok(productService.getProductsByCategory(categoryId));
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> getProductsByCategory(
+            @PathVariable("id") Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            WebRequest request) {
+        String eTag = productService.getProductsETag(categoryId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag)
+                .body(productService.getProductsByCategory(categoryId, sortBy, sortDir, cursor, limit));
     }
 
     @PutMapping("/products/{id}")
@@ -85,6 +134,16 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
     
+    /**
+     * Autocomplete for the search box: name completions first, then close misspellings.
+     */
+    @GetMapping("/products/suggest")
+    public ResponseEntity<List<ProductSuggestionDTO>> suggestProducts(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.suggestProducts(query, limit));
+    }
+
     // Search Endpoint
     @GetMapping("/products/search")
     public ResponseEntity<Page<ProductResponseDTO>> searchProducts(
@@ -96,7 +155,7 @@ public class ProductController {
             @RequestParam(required = false) Boolean inStock,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "relevance") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir) {
         
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
@@ -110,4 +169,31 @@ public class ProductController {
         
         return ResponseEntity.ok(products);
     }
-}
\ No newline at end of file
+
+    /**
+     * Same search with result counts per category, price band and availability,
+     * computed in the same pass as the results.
+     */
+    @GetMapping(value = "/products/search", params = "facets=true")
+    public ResponseEntity<ProductSearchResultDTO> searchProductsWithFacets(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String description,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "relevance") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") ?
+                Sort.by(sortBy).descending() :
+                Sort.by(sortBy).ascending();
+
+        Pageable pageable = PageRequest.of(page, size, sort);
+
+        return ResponseEntity.ok(productService.searchProductsWithFacets(
+                name, description, minPrice, maxPrice, categoryId, inStock, pageable));
+    }
+}
@@ -1,7 +1,6 @@
 package com.muiyurocodes.ecommerc.controller;
 
-import com.muiyurocodes.ecommerc.model.Order;
-import com.muiyurocodes.ecommerc.repository.OrderRepository;
+import com.muiyurocodes.ecommerc.service.OrderService;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.model.Event;
 import com.stripe.model.checkout.Session;
@@ -18,8 +17,6 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Optional;
-
 @RestController
 @RequestMapping("/api/webhooks/stripe")
 @RequiredArgsConstructor
@@ -29,7 +26,7 @@ public class StripeWebhookController {
     @Value("${stripe.webhook.secret}")
     private String webhookSecret;
     
-    private final OrderRepository orderRepository;
+    private final OrderService orderService;
 
     @PostMapping
     public ResponseEntity<String> handleStripeEvent(@RequestBody String payload, @RequestHeader("Stripe-Signature") String sigHeader) {
@@ -114,13 +111,7 @@ public class StripeWebhookController {
     }
     
     private void updateOrderStatus(Long orderId, String status) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        if (orderOpt.isPresent()) {
-            Order order = orderOpt.get();
-            order.setStatus(status);
-            orderRepository.save(order);
-        } else {
-            log.error("Could not find order with ID: {}", orderId);
-        }
+        // Go through the service so sales rollups and the dashboard see the transition
+        orderService.updateOrderStatusFromWebhook(orderId, status);
     }
 }
\ No newline at end of file
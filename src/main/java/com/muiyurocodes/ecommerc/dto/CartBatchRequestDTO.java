@@ -0,0 +1,16 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class CartBatchRequestDTO {
+
+    // Applied in order; later operations on the same product see the earlier ones
+    @NotEmpty(message = "At least one operation is required")
+    private List<@Valid CartOperationDTO> operations = new ArrayList<>();
+}
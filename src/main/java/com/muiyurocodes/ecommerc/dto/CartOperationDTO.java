@@ -0,0 +1,24 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * One line change in a batch cart update. ADD increases the line by {@code quantity},
+ * SET replaces it (0 removes the line) and REMOVE drops it.
+ */
+@Data
+public class CartOperationDTO {
+
+    public enum Type { ADD, SET, REMOVE }
+
+    @NotNull(message = "Operation type is required")
+    private Type type;
+
+    @NotNull(message = "Product ID cannot be null")
+    private Long productId;
+
+    @Min(value = 0, message = "Quantity must be greater than or equal to 0")
+    private int quantity;
+}
@@ -0,0 +1,14 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartPurgeResultDTO {
+    private int cartsDeleted;
+    private int itemsDeleted;
+    private int chunks;
+}
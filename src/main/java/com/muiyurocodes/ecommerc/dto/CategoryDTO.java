@@ -1,12 +1,22 @@
 package com.muiyurocodes.ecommerc.dto;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Data
 public class CategoryDTO {
     private Long id;
 
     @NotBlank(message = "Category name is required")
     private String name;
+
+    // Set by the server; ignored on input
+    private LocalDateTime updatedAt;
+
+    // Stock at or below which products count as low; null means the configured default
+    @Min(value = 0, message = "Low-stock threshold must not be negative")
+    private Integer lowStockThreshold;
 }
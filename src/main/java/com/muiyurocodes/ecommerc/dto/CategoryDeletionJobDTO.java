@@ -0,0 +1,25 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a background category deletion started by {@code DELETE /api/categories/{id}}.
+ */
+@Data
+public class CategoryDeletionJobDTO {
+    private String jobId;
+    private Long categoryId;
+    private Long reassignTo; // Null when the products are left without a category
+    private Status status;
+    private long productsTotal;
+    private long productsMoved;
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,14 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryFacetDTO {
+    private Long categoryId;
+    private String categoryName;
+    private long count;
+}
@@ -0,0 +1,17 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConflictStatsDTO {
+    private String operation;
+    private long calls;
+    private long attempts; // Calls plus retries
+    private long conflicts; // Attempts that lost a version check
+    private long exhausted; // Calls that still conflicted on their last attempt
+    private double conflictRate; // conflicts / attempts
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -32,4 +33,7 @@ public class DashboardDTO {
     
     // Recent orders
     private List<OrderDTO> recentOrders;
+
+    // When this snapshot was computed
+    private LocalDateTime generatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO describing a product's hot (flash-sale) inventory mode.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotInventoryStatusDTO {
+    private Long productId;
+    private boolean hot;
+    private Integer stockQuantity; // Live counter value while hot, row value otherwise
+}
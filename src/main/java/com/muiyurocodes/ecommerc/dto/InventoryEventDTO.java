@@ -0,0 +1,24 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import com.muiyurocodes.ecommerc.event.StockChangedEvent.Source;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A stock change pushed on the inventory feed. Exactly one of {@code delta} and
+ * {@code stockQuantity} is set; {@code offset} is also sent as the SSE event id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryEventDTO {
+    private long offset;
+    private Long productId;
+    private Integer delta;
+    private Integer stockQuantity;
+    private Source source;
+    private Instant occurredAt;
+}
@@ -0,0 +1,19 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Products priced from {@code min} (inclusive) up to {@code max} (exclusive, null for the top band).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBandFacetDTO {
+    private BigDecimal min;
+    private BigDecimal max;
+    private long count;
+}
@@ -30,4 +30,7 @@ public class ProductDTO {
     private Long categoryId;
 
     private String imageUrl;
+
+    // Version of the product the client read; an update made from an older one fails with 409
+    private Long version;
 }
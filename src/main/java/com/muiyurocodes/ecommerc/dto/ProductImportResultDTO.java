@@ -0,0 +1,20 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ProductImportResultDTO {
+    private long rowsRead;
+    private long imported;
+    // Rows whose catalog fields were written but whose stock was not (see warnings)
+    private long partial;
+    private long failed;
+    private int batches;
+    private List<ProductImportErrorDTO> errors = new ArrayList<>();
+    private List<ProductImportErrorDTO> warnings = new ArrayList<>();
+    // More rows failed than are listed in errors
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,21 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * One product in a bulk import. The category is given either by {@code categoryId} or by
+ * {@code categoryName}; {@code id} is only set to update an existing product.
+ */
+@Data
+public class ProductImportRowDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Long categoryId;
+    private String categoryName;
+    private String imageUrl;
+}
@@ -3,6 +3,7 @@ package com.muiyurocodes.ecommerc.dto;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 public class ProductResponseDTO {
@@ -13,4 +14,6 @@ public class ProductResponseDTO {
     private Integer stockQuantity;
     private CategoryDTO category;
     private String imageUrl;
+    private LocalDateTime updatedAt;
+    private long version; // Sent back as ProductDTO.version on update
 }
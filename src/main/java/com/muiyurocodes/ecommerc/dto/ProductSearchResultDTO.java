@@ -0,0 +1,18 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+/**
+ * A search page with its facet counts. {@code facets} is null while the search index is still
+ * being built.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResultDTO {
+    private Page<ProductResponseDTO> results;
+    private SearchFacetsDTO facets;
+}
@@ -7,7 +7,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
- * DTO for updating product stock quantities.
+ * DTO for updating product stock quantities. Carries either an absolute {@code stockQuantity}
+ * or a signed {@code delta}, which leaves units sold meanwhile accounted for.
  */
 @Data
 @NoArgsConstructor
@@ -17,9 +18,10 @@ public class ProductStockUpdateDTO {
     @NotNull(message = "Product ID is required")
     private Long productId;
     
-    @NotNull(message = "Stock quantity is required")
     @Min(value = 0, message = "Stock quantity must be greater than or equal to 0")
     private Integer stockQuantity;
+
+    private Integer delta; // Signed change, used when stockQuantity is not given
     
     private String note; // Optional note about the stock update
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result counts shown next to a search. Each facet is counted with the other facets' filters
+ * applied but not its own.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacetsDTO {
+    private List<CategoryFacetDTO> categories = new ArrayList<>();
+    private List<PriceBandFacetDTO> priceBands = new ArrayList<>();
+    private long inStock;
+    private long outOfStock;
+}
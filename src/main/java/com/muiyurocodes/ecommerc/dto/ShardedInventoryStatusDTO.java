@@ -0,0 +1,17 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO describing a product's sharded inventory mode.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardedInventoryStatusDTO {
+    private Long productId;
+    private int shards; // 0 when the product's stock is kept in its row
+    private Integer stockQuantity; // Shard total while sharded, row value otherwise
+}
@@ -0,0 +1,17 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A stock update that was not applied. {@code row} counts updates in the request body from 1.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockUpdateErrorDTO {
+    private long row;
+    private Long productId;
+    private String message;
+}
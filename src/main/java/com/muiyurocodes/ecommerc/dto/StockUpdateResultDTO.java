@@ -0,0 +1,17 @@
+package com.muiyurocodes.ecommerc.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class StockUpdateResultDTO {
+    private long rowsRead;
+    private long updated;
+    private long failed;
+    private int batches;
+    private List<StockUpdateErrorDTO> errors = new ArrayList<>();
+    // More updates failed than are listed in errors
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,8 @@
+package com.muiyurocodes.ecommerc.event;
+
+/**
+ * Published after a bulk product import has written its rows. Imports touch too many products
+ * to announce one by one, so listeners refresh wholesale.
+ */
+public record CatalogImportedEvent(long rowsImported) {
+}
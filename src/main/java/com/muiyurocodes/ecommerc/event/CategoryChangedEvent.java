@@ -0,0 +1,7 @@
+package com.muiyurocodes.ecommerc.event;
+
+/**
+ * Published when a category is created or deleted.
+ */
+public record CategoryChangedEvent(Long categoryId) {
+}
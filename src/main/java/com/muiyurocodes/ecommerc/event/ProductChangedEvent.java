@@ -0,0 +1,8 @@
+package com.muiyurocodes.ecommerc.event;
+
+/**
+ * Published when a product is created, updated or deleted. {@code previousCategoryId} is set
+ * when the product moved out of another category (or was deleted from it).
+ */
+public record ProductChangedEvent(Long productId, Long categoryId, Long previousCategoryId) {
+}
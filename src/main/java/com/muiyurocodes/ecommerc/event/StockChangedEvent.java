@@ -0,0 +1,35 @@
+package com.muiyurocodes.ecommerc.event;
+
+import java.util.List;
+
+/**
+ * Published when the stock of one or more products changed, e.g. by checkout decrements,
+ * admin stock updates or product edits; {@code source} tells which. Each change carries
+ * either the new absolute quantity or, where the writer only knows it, the signed delta.
+ */
+public record StockChangedEvent(List<StockChange> changes, Source source) {
+
+    public List<Long> productIds() {
+        return changes.stream().map(StockChange::productId).toList();
+    }
+
+    // False for checkout takes from hot counters or stock shards, which leave the products rows as they were
+    public boolean rowsChanged() {
+        return source != Source.HOT_ORDER && source != Source.SHARDED_ORDER;
+    }
+
+    public record StockChange(Long productId, int delta, Integer newQuantity) {
+
+        public static StockChange delta(Long productId, int delta) {
+            return new StockChange(productId, delta, null);
+        }
+
+        public static StockChange set(Long productId, int newQuantity) {
+            return new StockChange(productId, 0, newQuantity);
+        }
+    }
+
+    public enum Source {
+        ORDER, HOT_ORDER, SHARDED_ORDER, STOCK_UPDATE, PRODUCT_UPDATE, HOT_INVENTORY, SHARDED_INVENTORY
+    }
+}
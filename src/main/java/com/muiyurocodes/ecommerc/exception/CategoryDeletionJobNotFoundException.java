@@ -0,0 +1,11 @@
+package com.muiyurocodes.ecommerc.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class CategoryDeletionJobNotFoundException extends RuntimeException {
+    public CategoryDeletionJobNotFoundException(String message) {
+        super(message);
+    }
+}
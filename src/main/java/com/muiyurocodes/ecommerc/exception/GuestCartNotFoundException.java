@@ -0,0 +1,7 @@
+package com.muiyurocodes.ecommerc.exception;
+
+public class GuestCartNotFoundException extends RuntimeException {
+    public GuestCartNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.muiyurocodes.ecommerc.exception;
+
+public class InvalidCartQuantityException extends RuntimeException {
+    public InvalidCartQuantityException(String message) {
+        super(message);
+    }
+}
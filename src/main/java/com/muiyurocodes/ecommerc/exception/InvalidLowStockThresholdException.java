@@ -0,0 +1,11 @@
+package com.muiyurocodes.ecommerc.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidLowStockThresholdException extends RuntimeException {
+    public InvalidLowStockThresholdException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,52 @@
+package com.muiyurocodes.ecommerc.inventory;
+
+import com.muiyurocodes.ecommerc.dto.InventoryEventDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size buffer of the most recent feed events, addressed by offset. Offsets are assigned
+ * here, consecutively; the oldest event is overwritten once the buffer is full. Not thread-safe,
+ * callers hold the log's lock.
+ */
+final class EventRing {
+
+    private final InventoryEventDTO[] slots;
+    // First offset this buffer was given; older ones only exist in the table
+    private final long firstOffset;
+    private long nextOffset;
+
+    EventRing(int capacity, long nextOffset) {
+        this.slots = new InventoryEventDTO[Math.max(capacity, 1)];
+        this.firstOffset = nextOffset;
+        this.nextOffset = nextOffset;
+    }
+
+    long append(InventoryEventDTO event) {
+        long offset = nextOffset++;
+        event.setOffset(offset);
+        slots[(int) (offset % slots.length)] = event;
+        return offset;
+    }
+
+    // Offset of the newest event, or one below the first when nothing was appended yet
+    long lastOffset() {
+        return nextOffset - 1;
+    }
+
+    long oldestOffset() {
+        return Math.max(firstOffset, nextOffset - slots.length);
+    }
+
+    // Buffered events after the offset, oldest first; the offset must not be below oldestOffset() - 1
+    List<InventoryEventDTO> after(long offset, int max) {
+        long from = offset + 1;
+        int count = (int) Math.min(max, nextOffset - from);
+        List<InventoryEventDTO> events = new ArrayList<>(Math.max(count, 0));
+        for (long o = from; o < from + count; o++) {
+            events.add(slots[(int) (o % slots.length)]);
+        }
+        return events;
+    }
+}
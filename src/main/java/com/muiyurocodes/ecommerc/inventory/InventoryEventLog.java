@@ -0,0 +1,290 @@
+package com.muiyurocodes.ecommerc.inventory;
+
+import com.muiyurocodes.ecommerc.dto.InventoryEventDTO;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent.StockChange;
+import com.muiyurocodes.ecommerc.model.InventoryEvent;
+import com.muiyurocodes.ecommerc.repository.InventoryEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only feed of stock changes, pushed to subscribers as Server-Sent Events. Committed
+ * {@link StockChangedEvent}s get consecutive offsets in commit order and go into an in-memory
+ * ring buffer, which serves live subscribers; a write-behind flush copies them to the
+ * {@code inventory_events} table, which serves clients resuming from before the buffer.
+ * Offsets are assigned per application instance, so like hot inventory the feed assumes a
+ * single instance; events not yet flushed when the instance dies are lost, but their offsets are
+ * not reused: they come from blocks reserved in {@code inventory_feed_offsets} before use, and a
+ * restart continues above the last reservation.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryEventLog {
+
+    private static final int MAX_EVENTS_PER_READ = 500;
+    private static final int PURGE_BATCH_SIZE = 10_000;
+
+    private final InventoryEventRepository inventoryEventRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${inventory.feed.buffer-size:65536}")
+    private int bufferSize;
+
+    @Value("${inventory.feed.heartbeat-ms:15000}")
+    private long heartbeatMillis;
+
+    @Value("${inventory.feed.emitter-timeout-ms:3600000}")
+    private long emitterTimeoutMillis;
+
+    @Value("${inventory.feed.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${inventory.feed.offset-block:10000}")
+    private int offsetBlock;
+
+    // Commits each reservation on its own, also when called from an after-commit listener
+    private TransactionTemplate reserveTransaction;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private EventRing ring;
+    // Highest offset reserved in the table; the ring never goes past it
+    private long reservedOffset;
+    private List<InventoryEventDTO> unflushed = new ArrayList<>();
+
+    // One virtual thread per subscriber, so a slow client only holds up its own stream
+    private final ExecutorService subscribers = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PostConstruct
+    void init() {
+        offsetBlock = Math.max(offsetBlock, 1);
+        reserveTransaction = new TransactionTemplate(Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+        reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        reservedOffset = reserveOffsets(inventoryEventRepository.findLastOffset());
+        ring = new EventRing(bufferSize, reservedOffset - offsetBlock + 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        Instant now = Instant.now();
+        lock.lock();
+        try {
+            // flush() normally reserves ahead; this only runs when a burst outpaced it. The lock is
+            // released meanwhile, so another committer may append or reserve first; check again after
+            while (ring.lastOffset() + event.changes().size() > reservedOffset) {
+                long needed = ring.lastOffset() + event.changes().size();
+                long reserved;
+                lock.unlock();
+                try {
+                    reserved = reserveOffsets(needed);
+                } finally {
+                    lock.lock();
+                }
+                reservedOffset = Math.max(reservedOffset, reserved);
+            }
+            for (StockChange change : event.changes()) {
+                InventoryEventDTO entry = new InventoryEventDTO(0, change.productId(),
+                        change.newQuantity() == null ? change.delta() : null, change.newQuantity(),
+                        event.source(), now);
+                ring.append(entry);
+                unflushed.add(entry);
+            }
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Streams events after {@code afterOffset}, or only new ones when it is null, until the client
+     * disconnects or the emitter times out. Each event's offset is its SSE id, so a reconnecting
+     * client's {@code Last-Event-ID} resumes exactly where it stopped.
+     */
+    public SseEmitter subscribe(Long afterOffset) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(error -> open.set(false));
+
+        long start = afterOffset != null ? afterOffset : lastOffset();
+        subscribers.execute(() -> stream(emitter, start, open));
+        return emitter;
+    }
+
+    public long lastOffset() {
+        lock.lock();
+        try {
+            return ring.lastOffset();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.feed.flush-interval-ms:1000}")
+    public void flush() {
+        reserveAhead();
+        List<InventoryEventDTO> batch;
+        lock.lock();
+        try {
+            if (unflushed.isEmpty()) {
+                return;
+            }
+            batch = unflushed;
+            unflushed = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            inventoryEventRepository.insertEvents(batch);
+        } catch (RuntimeException e) {
+            // Put them back in front of anything appended meanwhile; retried on the next run
+            lock.lock();
+            try {
+                batch.addAll(unflushed);
+                unflushed = batch;
+            } finally {
+                lock.unlock();
+            }
+            log.warn("Failed to write {} inventory feed events, will retry", batch.size(), e);
+        }
+    }
+
+    @Scheduled(cron = "${inventory.feed.purge-cron:0 30 3 * * *}")
+    public void purge() {
+        Instant cutoff = Instant.now().minus(Duration.ofDays(retentionDays));
+        long deleted = 0;
+        int batch;
+        do {
+            batch = inventoryEventRepository.deleteOccurredBefore(cutoff, PURGE_BATCH_SIZE);
+            deleted += batch;
+        } while (batch == PURGE_BATCH_SIZE);
+        if (deleted > 0) {
+            log.info("Purged {} inventory feed events older than {} days", deleted, retentionDays);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.shutdownNow();
+        flush();
+    }
+
+    private void stream(SseEmitter emitter, long start, AtomicBoolean open) {
+        long cursor = start;
+        try {
+            while (open.get()) {
+                List<InventoryEventDTO> events = readAfter(cursor, heartbeatMillis);
+                if (events.isEmpty()) {
+                    // Keeps proxies from closing an idle connection, and finds out when the client left
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    continue;
+                }
+                for (InventoryEventDTO event : events) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(event.getOffset()))
+                            .name("stock")
+                            .data(event));
+                    cursor = event.getOffset();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter completed
+            log.debug("Inventory feed subscriber disconnected at offset {}", cursor);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+
+    // Events after the offset, waiting up to maxWaitMillis for one when there are none yet
+    private List<InventoryEventDTO> readAfter(long offset, long maxWaitMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            if (offset + 1 >= ring.oldestOffset()) {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                while (ring.lastOffset() <= offset && remaining > 0) {
+                    remaining = appended.awaitNanos(remaining);
+                }
+                return ring.after(offset, MAX_EVENTS_PER_READ);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Behind the buffer: replay from the table, outside the lock
+        List<InventoryEventDTO> replay = inventoryEventRepository
+                .findAfter(offset, PageRequest.of(0, MAX_EVENTS_PER_READ)).stream()
+                .map(InventoryEventLog::toDTO)
+                .toList();
+        if (!replay.isEmpty()) {
+            return replay;
+        }
+        // Purged or never flushed: skip ahead to what the buffer still has
+        lock.lock();
+        try {
+            return ring.after(ring.oldestOffset() - 1, MAX_EVENTS_PER_READ);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Reserves the next block once half of the current one is used, outside the lock
+    private void reserveAhead() {
+        long after;
+        lock.lock();
+        try {
+            if (reservedOffset - ring.lastOffset() > offsetBlock / 2) {
+                return;
+            }
+            after = reservedOffset;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            long reserved = reserveOffsets(after);
+            lock.lock();
+            try {
+                reservedOffset = Math.max(reservedOffset, reserved);
+            } finally {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to reserve inventory feed offsets, will retry", e);
+        }
+    }
+
+    private long reserveOffsets(long after) {
+        return Objects.requireNonNull(reserveTransaction.execute(
+                status -> inventoryEventRepository.reserveOffsets(after, offsetBlock)));
+    }
+
+    private static InventoryEventDTO toDTO(InventoryEvent event) {
+        return new InventoryEventDTO(event.getId(), event.getProductId(), event.getDelta(),
+                event.getStockQuantity(), event.getSource(), event.getOccurredAt());
+    }
+}
@@ -0,0 +1,299 @@
+package com.muiyurocodes.ecommerc.inventory;
+
+import com.muiyurocodes.ecommerc.dto.HotInventoryStatusDTO;
+import com.muiyurocodes.ecommerc.event.CatalogImportedEvent;
+import com.muiyurocodes.ecommerc.event.CategoryChangedEvent;
+import com.muiyurocodes.ecommerc.event.ProductChangedEvent;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent.StockChange;
+import com.muiyurocodes.ecommerc.service.HotInventoryService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Products at or below their category's low-stock threshold, ordered by (stock, product id), so
+ * "everything at or below N" is a head-set read. Seeded by one scan at startup and kept current
+ * from the stock and catalog change events; products it does not hold yet are looked up by id
+ * on a background thread when a decrement may have taken them under their threshold. Threshold
+ * changes and bulk catalog changes rebuild it, as does a periodic rebuild that heals any drift.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LowStockIndex {
+
+    private static final String THRESHOLDS_SQL =
+            "SELECT id, low_stock_threshold FROM categories WHERE low_stock_threshold IS NOT NULL";
+    private static final String SEED_SQL =
+            "SELECT id, stock_quantity, category_id FROM products WHERE stock_quantity <= :maxThreshold";
+    private static final String PRODUCTS_BY_ID_SQL =
+            "SELECT id, stock_quantity, category_id FROM products WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final HotInventoryService hotInventoryService;
+
+    @Value("${inventory.low-stock.default-threshold:5}")
+    private int defaultThreshold;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile ConcurrentSkipListSet<Entry> byStock = new ConcurrentSkipListSet<>();
+    // Written under the lock
+    private Map<Long, Entry> byProduct = new ConcurrentHashMap<>();
+    private Map<Long, Integer> thresholds = Map.of();
+    private volatile int minThreshold;
+    private int maxThreshold;
+    private volatile boolean ready;
+    // Products changed while a rebuild scans, re-read once it swaps in
+    private Set<Long> changedDuringRebuild;
+
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "low-stock-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int defaultThreshold() {
+        return defaultThreshold;
+    }
+
+    // True when every product at or below the stock level is held, i.e. it is under every threshold
+    public boolean covers(int stock) {
+        return ready && stock <= minThreshold;
+    }
+
+    // Ids of held products with stock at or below the level, lowest stock first
+    public List<Long> productIdsAtOrBelow(int stock) {
+        return ids(byStock.headSet(new Entry(stock, Long.MAX_VALUE, null), true));
+    }
+
+    // Ids of all products at or below their own category's threshold, lowest stock first
+    public List<Long> lowStockProductIds() {
+        return ids(byStock);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuildAsync();
+    }
+
+    @Scheduled(cron = "${inventory.low-stock.rebuild-cron:0 15 * * * *}")
+    public void rebuildAsync() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            worker.execute(this::rebuild);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        List<Long> unknown = new ArrayList<>();
+        lock.lock();
+        try {
+            for (StockChange change : event.changes()) {
+                Long productId = change.productId();
+                if (changedDuringRebuild != null) {
+                    changedDuringRebuild.add(productId);
+                }
+                Entry current = byProduct.get(productId);
+                if (current != null) {
+                    int stock = change.newQuantity() != null ? change.newQuantity() : current.stock() + change.delta();
+                    place(productId, stock, current.categoryId());
+                } else if (change.newQuantity() != null ? change.newQuantity() <= maxThreshold : change.delta() < 0) {
+                    // Not held, so its stock and category are unknown here
+                    unknown.add(productId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!unknown.isEmpty()) {
+            worker.execute(() -> reload(unknown));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<Long> productIds = List.of(event.productId());
+        worker.execute(() -> reload(productIds));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuildAsync();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        rebuildAsync();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void rebuild() {
+        rebuildQueued.set(false);
+        lock.lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            build();
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.unlock();
+            }
+            // Before the first successful build, low-stock reads go to the database
+            log.error("Low-stock index rebuild failed, keeping the previous index", e);
+        }
+    }
+
+    private void build() {
+        long started = System.nanoTime();
+
+        Map<Long, Integer> categoryThresholds = new HashMap<>();
+        namedParameterJdbcTemplate.query(THRESHOLDS_SQL, Map.of(), rs -> {
+            categoryThresholds.put(rs.getLong("id"), rs.getInt("low_stock_threshold"));
+        });
+        int max = categoryThresholds.values().stream().mapToInt(Integer::intValue).reduce(defaultThreshold, Math::max);
+        int min = categoryThresholds.values().stream().mapToInt(Integer::intValue).reduce(defaultThreshold, Math::min);
+
+        ConcurrentSkipListSet<Entry> newByStock = new ConcurrentSkipListSet<>();
+        Map<Long, Entry> newByProduct = new ConcurrentHashMap<>();
+        namedParameterJdbcTemplate.query(SEED_SQL, Map.of("maxThreshold", max), rs -> {
+            Entry entry = toEntry(rs);
+            if (entry.stock() <= threshold(categoryThresholds, entry.categoryId())) {
+                newByStock.add(entry);
+                newByProduct.put(entry.productId(), entry);
+            }
+        });
+
+        Set<Long> stale;
+        lock.lock();
+        try {
+            thresholds = categoryThresholds;
+            minThreshold = min;
+            maxThreshold = max;
+            byProduct = newByProduct;
+            byStock = newByStock;
+            stale = changedDuringRebuild;
+            changedDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.unlock();
+        }
+
+        // Hot products' row stock lags their counters, so they are re-read with the counter applied
+        for (HotInventoryStatusDTO hot : hotInventoryService.getHotProducts()) {
+            stale.add(hot.getProductId());
+        }
+        reload(new ArrayList<>(stale));
+        log.info("Built low-stock index: {} products in {} ms", newByStock.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void reload(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Long, Entry> rows = new HashMap<>();
+            namedParameterJdbcTemplate.query(PRODUCTS_BY_ID_SQL, Map.of("ids", productIds), rs -> {
+                Entry entry = toEntry(rs);
+                rows.put(entry.productId(), entry);
+            });
+            lock.lock();
+            try {
+                for (Long productId : productIds) {
+                    Entry row = rows.get(productId);
+                    if (row == null) {
+                        remove(productId);
+                    } else {
+                        place(productId, row.stock(), row.categoryId());
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh {} products in the low-stock index", productIds.size(), e);
+        }
+    }
+
+    private Entry toEntry(ResultSet rs) throws SQLException {
+        long productId = rs.getLong("id");
+        int rowStock = rs.getInt("stock_quantity");
+        long categoryId = rs.getLong("category_id");
+        Long category = rs.wasNull() ? null : categoryId;
+        Integer hotStock = hotInventoryService.hotStock(productId);
+        return new Entry(hotStock != null ? hotStock : rowStock, productId, category);
+    }
+
+    // Holds the product if its stock is at or below its category's threshold, drops it otherwise
+    private void place(Long productId, int stock, Long categoryId) {
+        remove(productId);
+        if (stock <= threshold(thresholds, categoryId)) {
+            Entry entry = new Entry(stock, productId, categoryId);
+            byStock.add(entry);
+            byProduct.put(productId, entry);
+        }
+    }
+
+    private void remove(Long productId) {
+        Entry previous = byProduct.remove(productId);
+        if (previous != null) {
+            byStock.remove(previous);
+        }
+    }
+
+    private int threshold(Map<Long, Integer> categoryThresholds, Long categoryId) {
+        Integer threshold = categoryId == null ? null : categoryThresholds.get(categoryId);
+        return threshold != null ? threshold : defaultThreshold;
+    }
+
+    private static List<Long> ids(Set<Entry> entries) {
+        List<Long> ids = new ArrayList<>();
+        for (Entry entry : entries) {
+            ids.add(entry.productId());
+        }
+        return ids;
+    }
+
+    // Ordered by stock, then product id; the category only travels along
+    private record Entry(int stock, long productId, Long categoryId) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            int byStock = Integer.compare(stock, other.stock);
+            return byStock != 0 ? byStock : Long.compare(productId, other.productId);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.muiyurocodes.ecommerc.mapper;
+
+import com.muiyurocodes.ecommerc.dto.CartItemDTO;
+import com.muiyurocodes.ecommerc.model.CartItem;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface CartMapper {
+
+    // Locked-in line price, falling back to the product price for lines saved before it existed
+    @Mapping(target = "productId", source = "product.id")
+    @Mapping(target = "productName", source = "product.name")
+    @Mapping(target = "price", expression = "java(cartItem.getPrice() != null ? cartItem.getPrice() : cartItem.getProduct().getPrice())")
+    CartItemDTO toCartItemDTO(CartItem cartItem);
+}
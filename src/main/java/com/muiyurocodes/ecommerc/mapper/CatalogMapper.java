@@ -0,0 +1,24 @@
+package com.muiyurocodes.ecommerc.mapper;
+
+import com.muiyurocodes.ecommerc.dto.CategoryDTO;
+import com.muiyurocodes.ecommerc.dto.ProductResponseDTO;
+import com.muiyurocodes.ecommerc.model.Category;
+import com.muiyurocodes.ecommerc.model.Product;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+/**
+ * Product and category entity-to-DTO mapping, generated at compile time. Unmapped DTO fields
+ * fail the build, so a new field cannot silently come out null.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface CatalogMapper {
+
+    CategoryDTO toCategoryDTO(Category category);
+
+    List<CategoryDTO> toCategoryDTOs(List<Category> categories);
+
+    ProductResponseDTO toProductResponseDTO(Product product);
+}
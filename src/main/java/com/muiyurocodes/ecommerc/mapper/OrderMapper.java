@@ -0,0 +1,20 @@
+package com.muiyurocodes.ecommerc.mapper;
+
+import com.muiyurocodes.ecommerc.dto.OrderDTO;
+import com.muiyurocodes.ecommerc.dto.OrderItemDTO;
+import com.muiyurocodes.ecommerc.model.Order;
+import com.muiyurocodes.ecommerc.model.OrderItem;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface OrderMapper {
+
+    @Mapping(target = "userId", source = "user.id")
+    OrderDTO toOrderDTO(Order order);
+
+    @Mapping(target = "productId", source = "product.id")
+    @Mapping(target = "productName", source = "product.name")
+    OrderItemDTO toOrderItemDTO(OrderItem orderItem);
+}
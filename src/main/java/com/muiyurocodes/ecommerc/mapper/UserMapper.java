@@ -0,0 +1,16 @@
+package com.muiyurocodes.ecommerc.mapper;
+
+import com.muiyurocodes.ecommerc.dto.AddressDTO;
+import com.muiyurocodes.ecommerc.dto.UserResponseDTO;
+import com.muiyurocodes.ecommerc.model.Address;
+import com.muiyurocodes.ecommerc.model.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface UserMapper {
+
+    UserResponseDTO toUserResponseDTO(User user);
+
+    AddressDTO toAddressDTO(Address address);
+}
@@ -0,0 +1,45 @@
+package com.muiyurocodes.ecommerc.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Order count and spend per customer and day, maintained as orders are placed.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "daily_customer_sales",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_customer_sales",
+                columnNames = {"sales_date", "user_id", "bucket"}))
+public class DailyCustomerSales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate salesDate;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private int bucket;
+
+    private String userEmail;
+
+    private String userName;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false)
+    private BigDecimal totalSpent = BigDecimal.ZERO;
+}
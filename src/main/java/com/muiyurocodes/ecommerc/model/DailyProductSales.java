@@ -0,0 +1,43 @@
+package com.muiyurocodes.ecommerc.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Units sold and revenue per product and day, maintained as orders are placed.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "daily_product_sales",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_product_sales",
+                columnNames = {"sales_date", "product_id", "bucket"}))
+public class DailyProductSales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate salesDate;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private int bucket;
+
+    private String productName; // Name at the time of the last sale
+
+    @Column(nullable = false)
+    private long unitsSold;
+
+    @Column(nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+}
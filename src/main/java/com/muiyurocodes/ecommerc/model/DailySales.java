@@ -0,0 +1,38 @@
+package com.muiyurocodes.ecommerc.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated revenue and order count for one day. Each day is split over a few
+ * buckets so concurrent checkouts don't all update the same row; readers sum the buckets.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "daily_sales",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_sales_day_bucket", columnNames = {"sales_date", "bucket"}))
+public class DailySales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate salesDate;
+
+    @Column(nullable = false)
+    private int bucket;
+
+    @Column(nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private long orderCount;
+}
@@ -0,0 +1,38 @@
+package com.muiyurocodes.ecommerc.model;
+
+import com.muiyurocodes.ecommerc.event.StockChangedEvent.Source;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One entry of the append-only inventory change feed. The id is the feed offset, assigned by
+ * {@code InventoryEventLog} in commit order, which SSE clients resume from.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "inventory_events", indexes = @Index(name = "idx_inventory_events_occurred_at", columnList = "occurred_at"))
+public class InventoryEvent {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    private Integer delta; // Signed change, when the writer only knew that
+
+    private Integer stockQuantity; // New stock, when the writer knew it
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Source source;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+}
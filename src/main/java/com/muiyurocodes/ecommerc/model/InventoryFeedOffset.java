@@ -0,0 +1,25 @@
+package com.muiyurocodes.ecommerc.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The single row holding the highest inventory feed offset {@code InventoryEventLog} may hand out.
+ * Offsets are reserved here in blocks before use, so a restart after a crash never reissues an
+ * offset that subscribers saw but the write-behind flush never stored.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "inventory_feed_offsets")
+public class InventoryFeedOffset {
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long reserved;
+}
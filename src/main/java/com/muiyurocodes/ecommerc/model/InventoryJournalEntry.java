@@ -0,0 +1,40 @@
+package com.muiyurocodes.ecommerc.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A stock decrement taken from a hot product's in-memory counter that has not yet been
+ * written to its products row. Entries are inserted in the checkout transaction and deleted
+ * once the write-behind flush has applied them.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "inventory_journal", indexes = @Index(name = "idx_inventory_journal_product", columnList = "product_id"))
+public class InventoryJournalEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private int quantity; // Units taken
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    public InventoryJournalEntry(Long productId, int quantity, Instant createdAt) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.createdAt = createdAt;
+    }
+}
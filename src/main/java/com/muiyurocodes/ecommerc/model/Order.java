@@ -14,7 +14,7 @@ import java.util.List;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_order_date", columnList = "order_date"))
 public class Order {
 
     @Id
@@ -40,6 +40,11 @@ public class Order {
     @Column
     private String paymentId;
 
+    // Optimistic lock, so concurrent status changes (admin, payment webhook) can't overwrite each other
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     private void addOrderItem(OrderItem item) {
         orderItems.add(item);
         item.setOrder(this);
@@ -2,15 +2,29 @@ package com.muiyurocodes.ecommerc.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.CurrentTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SourceType;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "products")
+@DynamicUpdate // Only write changed columns, so entity saves don't overwrite stock moved by SQL updates
+@Table(name = "products", indexes = {
+        // Keyset pagination over (sort key, id), globally and within a category
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_category_name_id", columnList = "category_id, name, id"),
+        @Index(name = "idx_products_category_price_id", columnList = "category_id, price, id"),
+        // MAX(updated_at) validators for conditional GETs on listings
+        @Index(name = "idx_products_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_products_category_updated_at", columnList = "category_id, updated_at")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,9 +35,31 @@ public class Product {
     private Integer stockQuantity;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "category_id", nullable = false)
+    @JoinColumn(name = "category_id") // Null once the product's category is deleted without a replacement
     private Category category;
 
     @Column
     private String imageUrl;
+
+    // Stock for this product is served from in-memory counters (flash-sale mode)
+    @Column(nullable = false)
+    private boolean hotInventory;
+
+    // Stock is split over this many product_stock_shards rows (0: kept in this row). While sharded,
+    // stockQuantity is the cached shard total, refreshed by ShardedInventoryService
+    @Column(nullable = false)
+    private int stockShards;
+
+    // Optimistic lock for entity saves. Bumped by the JDBC import and category statements, which
+    // overwrite catalog fields, but not by the atomic JDBC stock statements, so checkouts never
+    // fail an admin's edit of the product
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    // Also set by the JDBC stock and import statements, which bypass the entity. Taken from the
+    // database clock like theirs, so listing tags never compare JVM and MySQL times
+    @CurrentTimestamp(source = SourceType.DB)
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
 }
@@ -0,0 +1,33 @@
+package com.muiyurocodes.ecommerc.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One slice of a sharded product's stock. Checkouts decrement a single shard row, so buyers
+ * of the same product mostly lock different rows; the product's total is the sum of its shards.
+ * Read and written as plain JDBC by {@code StockShardRepository}; the entity defines the table.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "product_stock_shards", uniqueConstraints =
+        @UniqueConstraint(name = "uk_product_stock_shards_product_shard", columnNames = {"product_id", "shard"}))
+public class StockShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private int shard; // 0 .. product's stockShards - 1
+
+    @Column(nullable = false)
+    private int quantity;
+}
@@ -4,17 +4,32 @@ import com.muiyurocodes.ecommerc.model.Cart;
 import com.muiyurocodes.ecommerc.model.CartItem;
 import com.muiyurocodes.ecommerc.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+public interface CartItemRepository extends JpaRepository<CartItem, Long>, CartItemRepositoryCustom {
     //CRUD method implementation is provided by JpaRepository
     Optional<CartItem> findByCartAndProduct(Cart cart, Product product);
 
     List<CartItem> findByCart(Cart cart);
 
     void deleteAllByCart(Cart cart);
+
+    // Adds to the user's line for the product, inserting it at the current price if missing.
+    // Returns 0 when the user has no cart or the product does not exist.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO cart_items (cart_id, product_id, quantity, price) " +
+            "SELECT c.id, p.id, :quantity, p.price FROM carts c JOIN products p ON p.id = :productId " +
+            "WHERE c.user_id = :userId " +
+            "ON DUPLICATE KEY UPDATE quantity = cart_items.quantity + :quantity",
+            nativeQuery = true)
+    int addQuantity(@Param("userId") Long userId,
+                    @Param("productId") Long productId,
+                    @Param("quantity") int quantity);
 }
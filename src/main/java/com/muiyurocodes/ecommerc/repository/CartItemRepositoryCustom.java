@@ -0,0 +1,19 @@
+package com.muiyurocodes.ecommerc.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Cart line writes executed as JDBC batches, used by the cart write-behind flush.
+ */
+public interface CartItemRepositoryCustom {
+
+    /**
+     * Brings the given lines of one cart in line with the supplied quantities: lines with a positive
+     * quantity are updated (or inserted when missing), lines with quantity zero are deleted.
+     */
+    void writeLines(Long cartId, List<LineWrite> lines);
+
+    record LineWrite(Long productId, int quantity, BigDecimal price) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.muiyurocodes.ecommerc.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class CartItemRepositoryCustomImpl implements CartItemRepositoryCustom {
+
+    private static final String UPSERT_LINE_SQL =
+            "INSERT INTO cart_items (cart_id, product_id, quantity, price) VALUES (?, ?, ?, ?) AS new " +
+            "ON DUPLICATE KEY UPDATE quantity = new.quantity";
+
+    private static final String DELETE_LINE_SQL =
+            "DELETE FROM cart_items WHERE cart_id = ? AND product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void writeLines(Long cartId, List<LineWrite> lines) {
+        List<Object[]> upsertArgs = new ArrayList<>();
+        List<Object[]> deleteArgs = new ArrayList<>();
+        for (LineWrite line : lines) {
+            if (line.quantity() > 0) {
+                upsertArgs.add(new Object[]{cartId, line.productId(), line.quantity(), line.price()});
+            } else {
+                deleteArgs.add(new Object[]{cartId, line.productId()});
+            }
+        }
+
+        // Relies on the unique (cart_id, product_id) key; an existing line keeps its locked-in price
+        if (!upsertArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_LINE_SQL, upsertArgs);
+        }
+        if (!deleteArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_LINE_SQL, deleteArgs);
+        }
+    }
+}
@@ -2,13 +2,65 @@ package com.muiyurocodes.ecommerc.repository;
 
 import com.muiyurocodes.ecommerc.model.Cart;
 import com.muiyurocodes.ecommerc.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
     //CRUD method implementation is provided by JpaRepository
     Optional<Cart> findByUser(User user);
+
+    // Cart, lines and their products in one query
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.items i LEFT JOIN FETCH i.product WHERE c.user.id = :userId")
+    Optional<Cart> findByUserIdWithItems(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE Cart c SET c.lastModified = :now WHERE c.id IN :ids")
+    int touch(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // Carts written before the column existed get a full grace period from now
+    @Modifying
+    @Query("UPDATE Cart c SET c.lastModified = :now WHERE c.lastModified IS NULL")
+    int backfillLastModified(@Param("now") LocalDateTime now);
+
+    // Keyset page over (last_modified, id), served by idx_carts_last_modified
+    @Query("SELECT c.id AS id, c.lastModified AS lastModified FROM Cart c " +
+            "WHERE c.lastModified < :cutoff " +
+            "AND (c.lastModified > :afterModified OR (c.lastModified = :afterModified AND c.id > :afterId)) " +
+            "ORDER BY c.lastModified, c.id")
+    List<CartKey> findStaleAfter(@Param("cutoff") LocalDateTime cutoff,
+                                 @Param("afterModified") LocalDateTime afterModified,
+                                 @Param("afterId") Long afterId,
+                                 Pageable pageable);
+
+    @Query("SELECT c.id FROM Cart c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // The last_modified check is repeated so carts touched since they were selected survive
+    @Modifying
+    @Query(value = "DELETE i FROM cart_items i JOIN carts c ON c.id = i.cart_id " +
+            "WHERE c.id IN (:ids) AND c.last_modified < :cutoff",
+            nativeQuery = true)
+    int deleteStaleItems(@Param("ids") Collection<Long> ids, @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query(value = "DELETE FROM carts WHERE id IN (:ids) AND last_modified < :cutoff " +
+            "AND NOT EXISTS (SELECT 1 FROM cart_items i WHERE i.cart_id = carts.id)",
+            nativeQuery = true)
+    int deleteStaleCarts(@Param("ids") Collection<Long> ids, @Param("cutoff") LocalDateTime cutoff);
+
+    interface CartKey {
+        Long getId();
+
+        LocalDateTime getLastModified();
+    }
 }
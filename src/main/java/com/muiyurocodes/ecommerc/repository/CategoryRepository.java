@@ -1,7 +1,12 @@
 package com.muiyurocodes.ecommerc.repository;
 
 import com.muiyurocodes.ecommerc.model.Category;
+import com.muiyurocodes.ecommerc.repository.ProductRepository.CatalogVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    @Query("SELECT MAX(c.updatedAt) AS lastModified, COUNT(c) AS count FROM Category c")
+    CatalogVersion findCatalogVersion();
 }
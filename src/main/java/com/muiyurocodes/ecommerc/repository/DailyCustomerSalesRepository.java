@@ -0,0 +1,71 @@
+package com.muiyurocodes.ecommerc.repository;
+
+import com.muiyurocodes.ecommerc.model.DailyCustomerSales;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailyCustomerSalesRepository extends JpaRepository<DailyCustomerSales, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO daily_customer_sales (sales_date, user_id, bucket, user_email, user_name, order_count, total_spent) " +
+            "VALUES (:salesDate, :userId, :bucket, :userEmail, :userName, :orderCount, :totalSpent) " +
+            "ON DUPLICATE KEY UPDATE user_email = :userEmail, user_name = :userName, " +
+            "order_count = order_count + :orderCount, total_spent = total_spent + :totalSpent",
+            nativeQuery = true)
+    void accumulate(@Param("salesDate") LocalDate salesDate,
+                    @Param("userId") Long userId,
+                    @Param("bucket") int bucket,
+                    @Param("userEmail") String userEmail,
+                    @Param("userName") String userName,
+                    @Param("orderCount") long orderCount,
+                    @Param("totalSpent") BigDecimal totalSpent);
+
+    // Top customers by spend over a range of day rollups
+    @Query("SELECT c.userId AS userId, MAX(c.userEmail) AS userEmail, MAX(c.userName) AS userName, " +
+            "SUM(c.orderCount) AS orderCount, SUM(c.totalSpent) AS totalSpent " +
+            "FROM DailyCustomerSales c WHERE c.salesDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY c.userId HAVING SUM(c.orderCount) > 0 ORDER BY SUM(c.totalSpent) DESC")
+    List<CustomerTotal> findTopCustomers(@Param("startDate") LocalDate startDate,
+                                         @Param("endDate") LocalDate endDate,
+                                         Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM DailyCustomerSales c WHERE c.salesDate BETWEEN :startDate AND :endDate")
+    void deleteRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query(value = "INSERT INTO daily_customer_sales (sales_date, user_id, bucket, user_email, user_name, order_count, total_spent) " +
+            "SELECT DATE(o.order_date), o.user_id, 0, MAX(u.email), MAX(CONCAT(u.first_name, ' ', u.last_name)), " +
+            "COUNT(*), SUM(o.total_price) " +
+            "FROM orders o JOIN users u ON u.id = o.user_id " +
+            "WHERE o.order_date >= :from AND o.order_date < :to " +
+            "AND (o.status IS NULL OR o.status NOT IN (:excludedStatuses)) " +
+            "GROUP BY DATE(o.order_date), o.user_id",
+            nativeQuery = true)
+    void rebuildFromOrders(@Param("from") LocalDateTime from,
+                           @Param("to") LocalDateTime to,
+                           @Param("excludedStatuses") Collection<String> excludedStatuses);
+
+    interface CustomerTotal {
+        Long getUserId();
+
+        String getUserEmail();
+
+        String getUserName();
+
+        Long getOrderCount();
+
+        BigDecimal getTotalSpent();
+    }
+}
@@ -0,0 +1,67 @@
+package com.muiyurocodes.ecommerc.repository;
+
+import com.muiyurocodes.ecommerc.model.DailyProductSales;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailyProductSalesRepository extends JpaRepository<DailyProductSales, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO daily_product_sales (sales_date, product_id, bucket, product_name, units_sold, revenue) " +
+            "VALUES (:salesDate, :productId, :bucket, :productName, :unitsSold, :revenue) " +
+            "ON DUPLICATE KEY UPDATE product_name = :productName, units_sold = units_sold + :unitsSold, " +
+            "revenue = revenue + :revenue",
+            nativeQuery = true)
+    void accumulate(@Param("salesDate") LocalDate salesDate,
+                    @Param("productId") Long productId,
+                    @Param("bucket") int bucket,
+                    @Param("productName") String productName,
+                    @Param("unitsSold") long unitsSold,
+                    @Param("revenue") BigDecimal revenue);
+
+    // Top products by revenue over a range of day rollups
+    @Query("SELECT p.productId AS productId, MAX(p.productName) AS productName, " +
+            "SUM(p.unitsSold) AS unitsSold, SUM(p.revenue) AS revenue " +
+            "FROM DailyProductSales p WHERE p.salesDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY p.productId HAVING SUM(p.unitsSold) > 0 ORDER BY SUM(p.revenue) DESC")
+    List<ProductTotal> findTopProducts(@Param("startDate") LocalDate startDate,
+                                       @Param("endDate") LocalDate endDate,
+                                       Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM DailyProductSales p WHERE p.salesDate BETWEEN :startDate AND :endDate")
+    void deleteRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query(value = "INSERT INTO daily_product_sales (sales_date, product_id, bucket, product_name, units_sold, revenue) " +
+            "SELECT DATE(o.order_date), oi.product_id, 0, MAX(p.name), SUM(oi.quantity), SUM(oi.price * oi.quantity) " +
+            "FROM order_items oi JOIN orders o ON o.id = oi.order_id JOIN products p ON p.id = oi.product_id " +
+            "WHERE o.order_date >= :from AND o.order_date < :to " +
+            "AND (o.status IS NULL OR o.status NOT IN (:excludedStatuses)) " +
+            "GROUP BY DATE(o.order_date), oi.product_id",
+            nativeQuery = true)
+    void rebuildFromOrders(@Param("from") LocalDateTime from,
+                           @Param("to") LocalDateTime to,
+                           @Param("excludedStatuses") Collection<String> excludedStatuses);
+
+    interface ProductTotal {
+        Long getProductId();
+
+        String getProductName();
+
+        Long getUnitsSold();
+
+        BigDecimal getRevenue();
+    }
+}
@@ -0,0 +1,59 @@
+package com.muiyurocodes.ecommerc.repository;
+
+import com.muiyurocodes.ecommerc.model.DailySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailySalesRepository extends JpaRepository<DailySales, Long> {
+
+    // Adds (or, with negative values, subtracts) an order to a day bucket in one statement
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales (sales_date, bucket, revenue, order_count) " +
+            "VALUES (:salesDate, :bucket, :revenue, :orderCount) " +
+            "ON DUPLICATE KEY UPDATE revenue = revenue + :revenue, order_count = order_count + :orderCount",
+            nativeQuery = true)
+    void accumulate(@Param("salesDate") LocalDate salesDate,
+                    @Param("bucket") int bucket,
+                    @Param("revenue") BigDecimal revenue,
+                    @Param("orderCount") long orderCount);
+
+    // Day totals for a report range, buckets already summed
+    @Query("SELECT d.salesDate AS salesDate, SUM(d.revenue) AS revenue, SUM(d.orderCount) AS orderCount " +
+            "FROM DailySales d WHERE d.salesDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY d.salesDate ORDER BY d.salesDate")
+    List<DayTotal> findDayTotals(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query("DELETE FROM DailySales d WHERE d.salesDate BETWEEN :startDate AND :endDate")
+    void deleteRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Recomputes day rows from the orders table (used only by the admin rebuild)
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales (sales_date, bucket, revenue, order_count) " +
+            "SELECT DATE(o.order_date), 0, SUM(o.total_price), COUNT(*) FROM orders o " +
+            "WHERE o.order_date >= :from AND o.order_date < :to " +
+            "AND (o.status IS NULL OR o.status NOT IN (:excludedStatuses)) " +
+            "GROUP BY DATE(o.order_date)",
+            nativeQuery = true)
+    void rebuildFromOrders(@Param("from") LocalDateTime from,
+                           @Param("to") LocalDateTime to,
+                           @Param("excludedStatuses") Collection<String> excludedStatuses);
+
+    interface DayTotal {
+        LocalDate getSalesDate();
+
+        BigDecimal getRevenue();
+
+        Long getOrderCount();
+    }
+}
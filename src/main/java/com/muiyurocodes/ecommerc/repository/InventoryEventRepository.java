@@ -0,0 +1,21 @@
+package com.muiyurocodes.ecommerc.repository;
+
+import com.muiyurocodes.ecommerc.model.InventoryEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InventoryEventRepository extends JpaRepository<InventoryEvent, Long>, InventoryEventRepositoryCustom {
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM InventoryEvent e")
+    long findLastOffset();
+
+    // Replay for feed clients that resume from before the in-memory buffer
+    @Query("SELECT e FROM InventoryEvent e WHERE e.id > :offset ORDER BY e.id")
+    List<InventoryEvent> findAfter(@Param("offset") long offset, Pageable pageable);
+}
@@ -0,0 +1,22 @@
+package com.muiyurocodes.ecommerc.repository;
+
+import com.muiyurocodes.ecommerc.dto.InventoryEventDTO;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Inventory feed writes executed as plain JDBC statements, used by the feed's write-behind flush
+ * and retention purge.
+ */
+public interface InventoryEventRepositoryCustom {
+
+    // Inserts the events under their feed offsets in one JDBC batch
+    void insertEvents(List<InventoryEventDTO> events);
+
+    // Deletes up to limit events that occurred before the cutoff; returns how many were deleted
+    int deleteOccurredBefore(Instant cutoff, int limit);
+
+    // Raises the reserved high-water mark to max(reserved, after) + count and returns it
+    long reserveOffsets(long after, int count);
+}
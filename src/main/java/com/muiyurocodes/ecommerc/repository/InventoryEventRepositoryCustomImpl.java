@@ -0,0 +1,55 @@
+package com.muiyurocodes.ecommerc.repository;
+
+import com.muiyurocodes.ecommerc.dto.InventoryEventDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class InventoryEventRepositoryCustomImpl implements InventoryEventRepositoryCustom {
+
+    // IGNORE: a flush retried after a partial failure re-sends offsets that are already stored
+    private static final String INSERT_EVENT_SQL =
+            "INSERT IGNORE INTO inventory_events (id, product_id, delta, stock_quantity, source, occurred_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_BEFORE_SQL =
+            "DELETE FROM inventory_events WHERE occurred_at < ? ORDER BY id LIMIT ?";
+
+    private static final String RESERVE_OFFSETS_SQL =
+            "INSERT INTO inventory_feed_offsets (id, reserved) VALUES (1, ? + ?) "
+                    + "ON DUPLICATE KEY UPDATE reserved = GREATEST(reserved, ?) + ?";
+
+    private static final String RESERVED_OFFSET_SQL = "SELECT reserved FROM inventory_feed_offsets WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertEvents(List<InventoryEventDTO> events) {
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, events, events.size(), (statement, event) -> {
+            statement.setLong(1, event.getOffset());
+            statement.setLong(2, event.getProductId());
+            statement.setObject(3, event.getDelta(), Types.INTEGER);
+            statement.setObject(4, event.getStockQuantity(), Types.INTEGER);
+            statement.setString(5, event.getSource().name());
+            statement.setTimestamp(6, Timestamp.from(event.getOccurredAt()));
+        });
+    }
+
+    @Override
+    public int deleteOccurredBefore(Instant cutoff, int limit) {
+        return jdbcTemplate.update(DELETE_BEFORE_SQL, Timestamp.from(cutoff), limit);
+    }
+
+    // Two statements without a shared transaction: the feed assumes a single instance, so nothing
+    // else moves the mark in between
+    @Override
+    public long reserveOffsets(long after, int count) {
+        jdbcTemplate.update(RESERVE_OFFSETS_SQL, after, count, after, count);
+        return jdbcTemplate.queryForObject(RESERVED_OFFSET_SQL, Long.class);
+    }
+}
@@ -0,0 +1,26 @@
+package com.muiyurocodes.ecommerc.repository;
+
+import com.muiyurocodes.ecommerc.model.InventoryJournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InventoryJournalRepository extends JpaRepository<InventoryJournalEntry, Long> {
+
+    // Claims the oldest pending entries; rows held by a concurrent flush are skipped, never applied twice
+    @Query(value = "SELECT * FROM inventory_journal ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<InventoryJournalEntry> lockPending(@Param("limit") int limit);
+
+    // One product's entries, minus those a running flush has claimed
+    @Query(value = "SELECT * FROM inventory_journal WHERE product_id = :productId FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<InventoryJournalEntry> lockPendingByProductId(@Param("productId") Long productId);
+
+    @Query("SELECT COALESCE(SUM(j.quantity), 0) FROM InventoryJournalEntry j WHERE j.productId = :productId")
+    long sumPendingByProductId(@Param("productId") Long productId);
+}
@@ -5,8 +5,10 @@ import com.muiyurocodes.ecommerc.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +20,11 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     Page<Order> findByStatus(String status, Pageable pageable);
 
     Optional<Order> findByIdAndUser(Long id, User user);
+
+    // Dashboard aggregates, computed in the database instead of loading every order
+    @Query("SELECT COALESCE(SUM(o.totalPrice), 0) FROM Order o")
+    BigDecimal sumTotalPrice();
+
+    // Most recent orders, served by the order_date index
+    List<Order> findTop5ByOrderByOrderDateDesc();
 }
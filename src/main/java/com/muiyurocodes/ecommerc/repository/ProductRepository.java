@@ -4,16 +4,20 @@ import com.muiyurocodes.ecommerc.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import jakarta.persistence.LockModeType;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     // CRUD method implementation is provided by JpaRepository
 
     // Search by name
@@ -54,4 +58,41 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     // Find products by category
     List<Product> findByCategoryId(Long categoryId);
-}
\ No newline at end of file
+
+    long countByCategoryId(Long categoryId);
+
+    // Products whose stock is served from in-memory counters
+    List<Product> findByHotInventoryTrue();
+
+    // Products whose stock is split over stock shards
+    List<Product> findByStockShardsGreaterThan(int shards);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids AND p.stockShards > 0")
+    List<Long> findShardedIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id IN :ids")
+    List<Product> findAllWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Products whose stock is served by hot or sharded inventory rather than the row
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids AND (p.hotInventory = true OR p.stockShards > 0)")
+    List<Long> findStockManagedIds(@Param("ids") Collection<Long> ids);
+
+    // Row-locking read, waits for in-flight stock updates on the product to commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
+    // Changes whenever a product (in the category, when given) is added, changed or removed
+    @Query("SELECT MAX(p.updatedAt) AS lastModified, COUNT(p) AS count FROM Product p " +
+            "WHERE (:categoryId IS NULL OR p.category.id = :categoryId)")
+    CatalogVersion findCatalogVersion(@Param("categoryId") Long categoryId);
+
+    interface CatalogVersion {
+        LocalDateTime getLastModified();
+
+        long getCount();
+    }
+}
@@ -0,0 +1,115 @@
+package com.muiyurocodes.ecommerc.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.function.Consumer;
+
+/**
+ * Stock and bulk write operations on products that are executed as plain JDBC statements
+ * rather than through the entity read-modify-write cycle.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Decrements stock with one guarded {@code UPDATE ... WHERE stock_quantity >= ?} per product,
+     * sent as a single JDBC batch in ascending product-id order so concurrent checkouts lock rows
+     * in the same order. Hot products are refused, their stock lives in the hot counter, and so are
+     * products with sharded stock, whose row only caches the shard total.
+     *
+     * @param quantitiesByProductId units to take per product, sorted by product id
+     * @return ids of the products that did not have enough stock (their rows were not changed)
+     */
+    List<Long> decrementStock(SortedMap<Long, Integer> quantitiesByProductId);
+
+    /**
+     * Adds a signed delta to each product's stock in one JDBC batch, in ascending product-id order.
+     * No guard is applied; callers are responsible for having checked availability.
+     */
+    void adjustStock(SortedMap<Long, Integer> deltasByProductId);
+
+    /**
+     * Like {@link #adjustStock}, but only products still in hot inventory mode are changed. Used to
+     * apply the hot journal, which {@code HotInventoryService.disable} settles itself for a product
+     * leaving hot mode.
+     */
+    void adjustHotStock(SortedMap<Long, Integer> deltasByProductId);
+
+    /**
+     * One keyset page of product ids ordered by {@code (sortKey, id)}, starting strictly after the
+     * given position (or at the start when {@code afterId} is null). Reads only the index, and never
+     * counts or skips rows, so every page costs the same regardless of depth.
+     *
+     * @param categoryId restricts the page to one category when not null
+     */
+    List<SortKeyRow> findIdsAfter(Long categoryId, SortKey sortKey, boolean descending,
+                                  Object afterValue, Long afterId, int limit);
+
+    /**
+     * Writes products in two JDBC batches. Rows without an id are inserted; rows with an id
+     * replace that product's catalog fields and never create one. Stock of products in hot
+     * inventory mode or with sharded stock is left alone.
+     *
+     * @return the driver's update count per row, in row order; 0 for an id that does not exist
+     */
+    int[] writeProducts(List<ProductRow> rows);
+
+    /**
+     * Streams every product, joined with its category name, in id order to {@code action}. Rows
+     * come from a forward-only MySQL streaming cursor, so only one row is held at a time.
+     */
+    void forEachCatalogRow(Consumer<CatalogRow> action);
+
+    /**
+     * Moves up to {@code limit} products of a category to another category, or out of any category
+     * when {@code toCategoryId} is null, with one {@code UPDATE ... LIMIT} on the category index.
+     *
+     * @return the number of products moved; less than {@code limit} once the category is empty
+     */
+    int reassignCategory(Long fromCategoryId, Long toCategoryId, int limit);
+
+    /**
+     * Whether {@code products.category_id} accepts nulls. ddl-auto does not relax the NOT NULL of
+     * databases created before products could be left without a category.
+     */
+    boolean isCategoryNullable();
+
+    /**
+     * Applies admin stock updates in one JDBC batch, in list order. An absolute quantity replaces
+     * the stock; a delta is added to it unless that would take it below zero. Products in hot
+     * inventory mode or with sharded stock are left alone, their stock lives in
+     * {@code HotInventoryService} or {@code ShardedInventoryService}.
+     *
+     * @return the update count per row: 0 when the product is missing, hot, sharded, or the delta was refused
+     */
+    int[] updateStock(List<StockWrite> writes);
+
+    enum SortKey {
+        ID("id"), NAME("name"), PRICE("price");
+
+        private final String field;
+
+        SortKey(String field) {
+            this.field = field;
+        }
+
+        public String field() {
+            return field;
+        }
+    }
+
+    record SortKeyRow(Long id, Object sortValue) {
+    }
+
+    record CatalogRow(long id, String name, String description, BigDecimal price, int stockQuantity,
+                      Long categoryId, String categoryName, String imageUrl) {
+    }
+
+    // Either stockQuantity (absolute) or delta (when stockQuantity is null) applies
+    record StockWrite(long productId, Integer stockQuantity, int delta) {
+    }
+
+    record ProductRow(Long id, String name, String description, BigDecimal price, int stockQuantity,
+                      Long categoryId, String imageUrl) {
+    }
+}
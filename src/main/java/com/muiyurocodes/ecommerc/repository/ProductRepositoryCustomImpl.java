@@ -0,0 +1,221 @@
+package com.muiyurocodes.ecommerc.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ?, updated_at = CURRENT_TIMESTAMP(6) "
+                    + "WHERE id = ? AND hot_inventory = false AND stock_shards = 0 AND stock_quantity >= ?";
+
+    private static final String ADJUST_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ?, updated_at = CURRENT_TIMESTAMP(6) WHERE id = ?";
+
+    private static final String ADJUST_HOT_STOCK_SQL = ADJUST_STOCK_SQL + " AND hot_inventory = true";
+
+    private static final String INSERT_PRODUCT_SQL =
+            "INSERT INTO products (name, description, price, stock_quantity, category_id, image_url, hot_inventory, "
+                    + "stock_shards, version, updated_at) VALUES (?, ?, ?, ?, ?, ?, false, 0, 0, CURRENT_TIMESTAMP(6))";
+
+    private static final String UPDATE_PRODUCT_SQL =
+            "UPDATE products SET name = ?, description = ?, price = ?, "
+                    + "stock_quantity = IF(hot_inventory OR stock_shards > 0, stock_quantity, ?), category_id = ?, "
+                    + "image_url = ?, version = version + 1, updated_at = CURRENT_TIMESTAMP(6) WHERE id = ?";
+
+    private static final String CATALOG_ROWS_SQL =
+            "SELECT p.id, p.name, p.description, p.price, p.stock_quantity, p.category_id, c.name AS category_name, "
+                    + "p.image_url FROM products p LEFT JOIN categories c ON c.id = p.category_id ORDER BY p.id";
+
+    // COALESCE picks the absolute quantity when one is given, else the row plus the delta
+    private static final String UPDATE_STOCK_SQL =
+            "UPDATE products SET stock_quantity = COALESCE(?, stock_quantity + ?), updated_at = CURRENT_TIMESTAMP(6) "
+                    + "WHERE id = ? AND hot_inventory = false AND stock_shards = 0 AND COALESCE(?, stock_quantity + ?) >= 0";
+
+    private static final String REASSIGN_CATEGORY_SQL =
+            "UPDATE products SET category_id = ?, updated_at = CURRENT_TIMESTAMP(6), version = version + 1 "
+                    + "WHERE category_id = ? LIMIT ?";
+
+    private static final String CATEGORY_NULLABLE_SQL =
+            "SELECT IS_NULLABLE FROM information_schema.columns WHERE table_schema = DATABASE() "
+                    + "AND table_name = 'products' AND column_name = 'category_id'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Long> decrementStock(SortedMap<Long, Integer> quantitiesByProductId) {
+        List<Long> productIds = new ArrayList<>(quantitiesByProductId.size());
+        List<Object[]> batchArgs = new ArrayList<>(quantitiesByProductId.size());
+        for (Map.Entry<Long, Integer> entry : quantitiesByProductId.entrySet()) {
+            productIds.add(entry.getKey());
+            batchArgs.add(new Object[]{entry.getValue(), entry.getKey(), entry.getValue()});
+        }
+
+        int[] updateCounts = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, batchArgs);
+
+        List<Long> insufficient = new ArrayList<>();
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0) {
+                insufficient.add(productIds.get(i));
+            }
+        }
+        return insufficient;
+    }
+
+    @Override
+    public void adjustStock(SortedMap<Long, Integer> deltasByProductId) {
+        List<Object[]> batchArgs = new ArrayList<>(deltasByProductId.size());
+        deltasByProductId.forEach((productId, delta) -> batchArgs.add(new Object[]{delta, productId}));
+        jdbcTemplate.batchUpdate(ADJUST_STOCK_SQL, batchArgs);
+    }
+
+    @Override
+    public void adjustHotStock(SortedMap<Long, Integer> deltasByProductId) {
+        List<Object[]> batchArgs = new ArrayList<>(deltasByProductId.size());
+        deltasByProductId.forEach((productId, delta) -> batchArgs.add(new Object[]{delta, productId}));
+        jdbcTemplate.batchUpdate(ADJUST_HOT_STOCK_SQL, batchArgs);
+    }
+
+    @Override
+    public int[] writeProducts(List<ProductRow> rows) {
+        List<Integer> inserts = new ArrayList<>();
+        List<Integer> updates = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            (rows.get(i).id() == null ? inserts : updates).add(i);
+        }
+
+        int[] updateCounts = new int[rows.size()];
+        if (!inserts.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, inserts, inserts.size(), (statement, i) -> {
+                ProductRow row = rows.get(i);
+                statement.setString(1, row.name());
+                statement.setString(2, row.description());
+                statement.setBigDecimal(3, row.price());
+                statement.setInt(4, row.stockQuantity());
+                statement.setLong(5, row.categoryId());
+                statement.setString(6, row.imageUrl());
+            })[0];
+            for (int j = 0; j < counts.length; j++) {
+                updateCounts[inserts.get(j)] = counts[j];
+            }
+        }
+        if (!updates.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_PRODUCT_SQL, updates, updates.size(), (statement, i) -> {
+                ProductRow row = rows.get(i);
+                statement.setString(1, row.name());
+                statement.setString(2, row.description());
+                statement.setBigDecimal(3, row.price());
+                statement.setInt(4, row.stockQuantity());
+                statement.setLong(5, row.categoryId());
+                statement.setString(6, row.imageUrl());
+                statement.setLong(7, row.id());
+            })[0];
+            for (int j = 0; j < counts.length; j++) {
+                updateCounts[updates.get(j)] = counts[j];
+            }
+        }
+        return updateCounts;
+    }
+
+    @Override
+    public void forEachCatalogRow(Consumer<CatalogRow> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(CATALOG_ROWS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J streams row by row only with this fetch size
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, rs -> {
+            long categoryId = rs.getLong("category_id");
+            Long category = rs.wasNull() ? null : categoryId;
+            action.accept(new CatalogRow(rs.getLong("id"), rs.getString("name"), rs.getString("description"),
+                    rs.getBigDecimal("price"), rs.getInt("stock_quantity"), category,
+                    rs.getString("category_name"), rs.getString("image_url")));
+        });
+    }
+
+    @Override
+    public int reassignCategory(Long fromCategoryId, Long toCategoryId, int limit) {
+        return jdbcTemplate.update(REASSIGN_CATEGORY_SQL, toCategoryId, fromCategoryId, limit);
+    }
+
+    @Override
+    public boolean isCategoryNullable() {
+        List<String> nullable = jdbcTemplate.queryForList(CATEGORY_NULLABLE_SQL, String.class);
+        return !nullable.isEmpty() && "YES".equalsIgnoreCase(nullable.get(0));
+    }
+
+    @Override
+    public int[] updateStock(List<StockWrite> writes) {
+        return jdbcTemplate.batchUpdate(UPDATE_STOCK_SQL, writes, writes.size(), (statement, write) -> {
+            for (int offset : new int[]{0, 3}) {
+                if (write.stockQuantity() != null) {
+                    statement.setInt(offset + 1, write.stockQuantity());
+                } else {
+                    statement.setNull(offset + 1, Types.INTEGER);
+                }
+                statement.setInt(offset + 2, write.delta());
+            }
+            statement.setLong(3, write.productId());
+        })[0];
+    }
+
+    @Override
+    public List<SortKeyRow> findIdsAfter(Long categoryId, SortKey sortKey, boolean descending,
+                                         Object afterValue, Long afterId, int limit) {
+        // Field names come from the SortKey enum, never from the request
+        String field = "p." + sortKey.field();
+        String comparison = descending ? "<" : ">";
+        String direction = descending ? " DESC" : " ASC";
+
+        StringBuilder jpql = new StringBuilder("SELECT p.id, ").append(field).append(" FROM Product p WHERE 1 = 1");
+        if (categoryId != null) {
+            jpql.append(" AND p.category.id = :categoryId");
+        }
+        if (afterId != null) {
+            if (sortKey == SortKey.ID) {
+                jpql.append(" AND p.id ").append(comparison).append(" :afterId");
+            } else {
+                jpql.append(" AND (").append(field).append(' ').append(comparison).append(" :afterValue")
+                        .append(" OR (").append(field).append(" = :afterValue AND p.id ")
+                        .append(comparison).append(" :afterId))");
+            }
+        }
+        jpql.append(" ORDER BY ");
+        if (sortKey != SortKey.ID) {
+            jpql.append(field).append(direction).append(", ");
+        }
+        jpql.append("p.id").append(direction);
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setMaxResults(limit);
+        if (categoryId != null) {
+            query.setParameter("categoryId", categoryId);
+        }
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+            if (sortKey != SortKey.ID) {
+                query.setParameter("afterValue", afterValue);
+            }
+        }
+
+        List<SortKeyRow> rows = new ArrayList<>();
+        for (Object[] row : query.getResultList()) {
+            rows.add(new SortKeyRow((Long) row[0], row[1]));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,40 @@
+package com.muiyurocodes.ecommerc.repository;
+
+import com.muiyurocodes.ecommerc.model.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO stock_reservations (cart_id, product_id, quantity, expires_at) " +
+            "VALUES (:cartId, :productId, :quantity, :expiresAt) " +
+            "ON DUPLICATE KEY UPDATE quantity = :quantity, expires_at = :expiresAt",
+            nativeQuery = true)
+    void upsert(@Param("cartId") Long cartId,
+                @Param("productId") Long productId,
+                @Param("quantity") int quantity,
+                @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.cartId = :cartId AND r.productId = :productId")
+    void deleteByCartIdAndProductId(@Param("cartId") Long cartId, @Param("productId") Long productId);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.cartId = :cartId")
+    void deleteByCartId(@Param("cartId") Long cartId);
+
+    // Bulk expiry, served by the expires_at index
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+
+    List<StockReservation> findByExpiresAtAfter(Instant now);
+}
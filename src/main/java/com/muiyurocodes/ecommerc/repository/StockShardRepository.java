@@ -0,0 +1,9 @@
+package com.muiyurocodes.ecommerc.repository;
+
+import com.muiyurocodes.ecommerc.model.StockShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockShardRepository extends JpaRepository<StockShard, Long>, StockShardRepositoryCustom {
+}
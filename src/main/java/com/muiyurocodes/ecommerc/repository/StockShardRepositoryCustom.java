@@ -0,0 +1,37 @@
+package com.muiyurocodes.ecommerc.repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Stock shard reads and writes executed as plain JDBC statements. Quantities are returned as
+ * arrays indexed by shard number.
+ */
+public interface StockShardRepositoryCustom {
+
+    // Non-locking read of a product's shard quantities; empty when the product is not sharded
+    int[] findQuantities(long productId);
+
+    // Locking read, waits for in-flight takes from the product's shards to commit
+    int[] lockQuantities(long productId);
+
+    // Guarded decrement of one shard; false (and no change) when it holds fewer units
+    boolean take(long productId, int shard, int quantity);
+
+    // Adds a signed delta per shard in one JDBC batch, skipping zeros
+    void addQuantities(long productId, int[] deltas);
+
+    // Replaces all of a product's shards with the given quantities
+    void replaceShards(long productId, int[] quantities);
+
+    void deleteShards(long productId);
+
+    /**
+     * Writes each sharded product's shard total to its {@code products.stock_quantity}, the
+     * cached aggregate that row-based reads see. Products whose row already holds the total are
+     * left alone.
+     *
+     * @return the new totals of the products whose row changed
+     */
+    Map<Long, Integer> refreshTotals(Collection<Long> productIds);
+}
@@ -0,0 +1,104 @@
+package com.muiyurocodes.ecommerc.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class StockShardRepositoryCustomImpl implements StockShardRepositoryCustom {
+
+    private static final String QUANTITIES_SQL =
+            "SELECT quantity FROM product_stock_shards WHERE product_id = ? ORDER BY shard";
+
+    private static final String TAKE_SQL =
+            "UPDATE product_stock_shards SET quantity = quantity - ? WHERE product_id = ? AND shard = ? AND quantity >= ?";
+
+    private static final String ADD_SQL =
+            "UPDATE product_stock_shards SET quantity = quantity + ? WHERE product_id = ? AND shard = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO product_stock_shards (product_id, shard, quantity) VALUES (?, ?, ?)";
+
+    private static final String DELETE_SQL = "DELETE FROM product_stock_shards WHERE product_id = ?";
+
+    private static final String STALE_TOTALS_SQL =
+            "SELECT p.id, s.total FROM products p JOIN (SELECT product_id, SUM(quantity) AS total "
+                    + "FROM product_stock_shards WHERE product_id IN (:ids) GROUP BY product_id) s ON s.product_id = p.id "
+                    + "WHERE p.stock_shards > 0 AND p.stock_quantity <> s.total";
+
+    private static final String WRITE_TOTAL_SQL =
+            "UPDATE products SET stock_quantity = ?, updated_at = CURRENT_TIMESTAMP(6) WHERE id = ? AND stock_shards > 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Override
+    public int[] findQuantities(long productId) {
+        return toArray(jdbcTemplate.queryForList(QUANTITIES_SQL, Integer.class, productId));
+    }
+
+    @Override
+    public int[] lockQuantities(long productId) {
+        return toArray(jdbcTemplate.queryForList(QUANTITIES_SQL + " FOR UPDATE", Integer.class, productId));
+    }
+
+    @Override
+    public boolean take(long productId, int shard, int quantity) {
+        return jdbcTemplate.update(TAKE_SQL, quantity, productId, shard, quantity) == 1;
+    }
+
+    @Override
+    public void addQuantities(long productId, int[] deltas) {
+        List<Object[]> batchArgs = new ArrayList<>(deltas.length);
+        for (int shard = 0; shard < deltas.length; shard++) {
+            if (deltas[shard] != 0) {
+                batchArgs.add(new Object[]{deltas[shard], productId, shard});
+            }
+        }
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_SQL, batchArgs);
+        }
+    }
+
+    @Override
+    public void replaceShards(long productId, int[] quantities) {
+        jdbcTemplate.update(DELETE_SQL, productId);
+        List<Object[]> batchArgs = new ArrayList<>(quantities.length);
+        for (int shard = 0; shard < quantities.length; shard++) {
+            batchArgs.add(new Object[]{productId, shard, quantities[shard]});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+    }
+
+    @Override
+    public void deleteShards(long productId) {
+        jdbcTemplate.update(DELETE_SQL, productId);
+    }
+
+    @Override
+    public Map<Long, Integer> refreshTotals(Collection<Long> productIds) {
+        Map<Long, Integer> totals = new LinkedHashMap<>();
+        if (productIds.isEmpty()) {
+            return totals;
+        }
+        namedParameterJdbcTemplate.query(STALE_TOTALS_SQL, Map.of("ids", productIds), rs -> {
+            totals.put(rs.getLong("id"), rs.getInt("total"));
+        });
+        if (!totals.isEmpty()) {
+            List<Object[]> batchArgs = new ArrayList<>(totals.size());
+            totals.forEach((productId, total) -> batchArgs.add(new Object[]{total, productId}));
+            jdbcTemplate.batchUpdate(WRITE_TOTAL_SQL, batchArgs);
+        }
+        return totals;
+    }
+
+    private static int[] toArray(List<Integer> quantities) {
+        return quantities.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
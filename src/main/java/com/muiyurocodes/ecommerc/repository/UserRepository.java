@@ -7,6 +7,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,4 +21,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByRole(Role role);
 
     Page<User> findByRole(Role role, Pageable pageable);
+
+    // Count users registered since the given instant (dashboard "new users today")
+    long countByCreatedAtGreaterThanEqual(LocalDateTime since);
 }
@@ -0,0 +1,112 @@
+package com.muiyurocodes.ecommerc.retry;
+
+import com.muiyurocodes.ecommerc.dto.ConflictStatsDTO;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Retries {@link RetryOnConflict} methods. Ordered ahead of the transaction advice, so each
+ * attempt wraps a whole transaction: the losing one rolls back (which also clears the request's
+ * persistence context) and the next one starts over on current rows. Backoff is "full jitter",
+ * a random sleep up to an exponentially growing cap, so writers that collided once spread out.
+ * Conflict counters per operation are kept for the admin stats endpoint.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class ConflictRetryAspect {
+
+    @Value("${concurrency.retry.max-attempts:4}")
+    private int defaultMaxAttempts;
+
+    @Value("${concurrency.retry.initial-backoff-ms:10}")
+    private long initialBackoffMillis;
+
+    @Value("${concurrency.retry.max-backoff-ms:200}")
+    private long maxBackoffMillis;
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // The caller's transaction is marked rollback-only by a conflict; only it can start over
+            return joinPoint.proceed();
+        }
+
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        Counters stats = counters.computeIfAbsent(operation, key -> new Counters());
+        int maxAttempts = retryOnConflict.maxAttempts() > 0 ? retryOnConflict.maxAttempts() : defaultMaxAttempts;
+
+        stats.calls.increment();
+        for (int attempt = 1; ; attempt++) {
+            stats.attempts.increment();
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException | OptimisticLockException
+                     | PessimisticLockingFailureException conflict) {
+                stats.conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    stats.exhausted.increment();
+                    log.warn("{} still conflicted after {} attempts", operation, attempt);
+                    throw conflict;
+                }
+                log.debug("{} lost a version check or lock on attempt {}, retrying", operation, attempt);
+                try {
+                    Thread.sleep(backoffMillis(attempt));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw conflict;
+                }
+            }
+        }
+    }
+
+    public List<ConflictStatsDTO> stats() {
+        return counters.entrySet().stream()
+                .map(entry -> entry.getValue().toDTO(entry.getKey()))
+                .sorted(Comparator.comparing(ConflictStatsDTO::getOperation))
+                .collect(Collectors.toList());
+    }
+
+    // Random in [0, min(max, initial * 2^(attempt - 1))]
+    private long backoffMillis(int attempt) {
+        long cap = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private static final class Counters {
+
+        final LongAdder calls = new LongAdder();
+        final LongAdder attempts = new LongAdder();
+        final LongAdder conflicts = new LongAdder();
+        final LongAdder exhausted = new LongAdder();
+
+        ConflictStatsDTO toDTO(String operation) {
+            long attemptCount = attempts.sum();
+            long conflictCount = conflicts.sum();
+            return new ConflictStatsDTO(operation, calls.sum(), attemptCount, conflictCount, exhausted.sum(),
+                    attemptCount == 0 ? 0.0 : (double) conflictCount / attemptCount);
+        }
+    }
+}
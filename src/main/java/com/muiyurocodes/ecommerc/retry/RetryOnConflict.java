@@ -0,0 +1,21 @@
+package com.muiyurocodes.ecommerc.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs a transactional service method when its commit loses an optimistic version check, or
+ * the database picks it as a deadlock victim or times out its lock wait, with jittered
+ * exponential backoff between attempts. Each attempt runs in a fresh transaction
+ * and re-reads what it changes, so the method must not have effects outside that transaction
+ * that a rollback does not undo. Calls made inside an existing transaction are not retried.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+
+    // Attempts including the first; 0 uses concurrency.retry.max-attempts
+    int maxAttempts() default 0;
+}
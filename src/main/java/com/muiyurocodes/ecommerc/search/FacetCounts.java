@@ -0,0 +1,10 @@
+package com.muiyurocodes.ecommerc.search;
+
+import java.util.Map;
+
+/**
+ * Facet counts for one search: matches per category id, per price band (in band order),
+ * and with or without stock.
+ */
+public record FacetCounts(Map<Long, Integer> categories, int[] priceBands, int inStock, int outOfStock) {
+}
@@ -0,0 +1,247 @@
+package com.muiyurocodes.ecommerc.search;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Term postings for product names and descriptions plus per-document filter columns.
+ * Documents are addressed by dense ordinals; an update appends the new version under a fresh
+ * ordinal and marks the old one deleted, so postings stay append-only and sorted. Deleted
+ * ordinals are skipped at query time and dropped by the next full rebuild.
+ * <p>
+ * Not thread-safe; {@link ProductSearchIndex} guards it with a read/write lock.
+ */
+final class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float NAME_BOOST = 2.0f;
+    // A query term also matches longer index terms it prefixes, at a lower weight
+    private static final float PREFIX_WEIGHT = 0.5f;
+    // Prefix expansions that add to the score; later ones still match, so short queries keep full recall
+    private static final int MAX_SCORED_EXPANSIONS = 64;
+
+    private final TreeMap<String, Postings> nameTerms = new TreeMap<>();
+    private final TreeMap<String, Postings> descriptionTerms = new TreeMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+
+    // Per-document columns, indexed by ordinal
+    long[] productIds = new long[1024];
+    String[] names = new String[1024];
+    BigDecimal[] prices = new BigDecimal[1024];
+    int[] stocks = new int[1024];
+    long[] categoryIds = new long[1024];
+    private int[] nameLengths = new int[1024];
+    private int[] descriptionLengths = new int[1024];
+
+    int size;
+    private int liveCount;
+    private long nameLengthSum;
+    private long descriptionLengthSum;
+
+    void add(ProductDocument document) {
+        remove(document.id());
+        ensureCapacity(size + 1);
+        int ordinal = size++;
+
+        List<String> nameTokens = Tokenizer.tokenize(document.name());
+        List<String> descriptionTokens = Tokenizer.tokenize(document.description());
+        productIds[ordinal] = document.id();
+        names[ordinal] = document.name();
+        prices[ordinal] = document.price();
+        stocks[ordinal] = document.stockQuantity();
+        categoryIds[ordinal] = document.categoryId() == null ? 0 : document.categoryId();
+        nameLengths[ordinal] = nameTokens.size();
+        descriptionLengths[ordinal] = descriptionTokens.size();
+
+        addPostings(nameTerms, nameTokens, ordinal);
+        addPostings(descriptionTerms, descriptionTokens, ordinal);
+        ordinals.put(document.id(), ordinal);
+        liveCount++;
+        nameLengthSum += nameTokens.size();
+        descriptionLengthSum += descriptionTokens.size();
+    }
+
+    void remove(Long productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        deleted.set(ordinal);
+        liveCount--;
+        nameLengthSum -= nameLengths[ordinal];
+        descriptionLengthSum -= descriptionLengths[ordinal];
+    }
+
+    void applyStock(Long productId, int delta, Integer newQuantity) {
+        Integer ordinal = ordinals.get(productId);
+        if (ordinal != null) {
+            stocks[ordinal] = newQuantity != null ? newQuantity : stocks[ordinal] + delta;
+        }
+    }
+
+    int liveCount() {
+        return liveCount;
+    }
+
+    int deletedCount() {
+        return size - liveCount;
+    }
+
+    /**
+     * Live documents that contain every name term in their name and every description term in
+     * their description, exactly or as a prefix. BM25 scores of the matches are added to
+     * {@code scores}. With no terms at all, every live document matches with score zero.
+     */
+    BitSet match(List<String> nameQuery, List<String> descriptionQuery, float[] scores) {
+        BitSet matches = new BitSet(size);
+        matches.set(0, size);
+        matches.andNot(deleted);
+        double averageNameLength = liveCount == 0 ? 1 : Math.max(1.0, (double) nameLengthSum / liveCount);
+        double averageDescriptionLength = liveCount == 0 ? 1 : Math.max(1.0, (double) descriptionLengthSum / liveCount);
+
+        for (String term : nameQuery) {
+            matches.and(matchTerm(nameTerms, term, nameLengths, averageNameLength, NAME_BOOST, scores));
+        }
+        for (String term : descriptionQuery) {
+            matches.and(matchTerm(descriptionTerms, term, descriptionLengths, averageDescriptionLength, 1.0f, scores));
+        }
+        return matches;
+    }
+
+    /**
+     * Clears matches that fail the filters. Stock comes from {@code hotStock} for products in it
+     * (those in hot inventory mode), otherwise from the indexed column.
+     */
+    void filter(BitSet matches, BigDecimal minPrice, BigDecimal maxPrice, Long categoryId, Boolean inStock,
+                Map<Long, Integer> hotStock) {
+        for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+            BigDecimal price = prices[doc];
+            boolean keep = (minPrice == null || (price != null && price.compareTo(minPrice) >= 0))
+                    && (maxPrice == null || (price != null && price.compareTo(maxPrice) <= 0))
+                    && (categoryId == null || categoryIds[doc] == categoryId);
+            if (keep && Boolean.TRUE.equals(inStock)) {
+                keep = stockOf(doc, hotStock) > 0;
+            }
+            if (!keep) {
+                matches.clear(doc);
+            }
+        }
+    }
+
+    /**
+     * Facet counts over {@code matches} in one pass. Each facet ignores its own filter so the
+     * counts show what selecting another value would return; the other filters still apply.
+     * Price bands are split at {@code bandBounds}, giving {@code bandBounds.length + 1} bands.
+     */
+    FacetCounts facets(BitSet matches, BigDecimal minPrice, BigDecimal maxPrice, Long categoryId, Boolean inStock,
+                       BigDecimal[] bandBounds, Map<Long, Integer> hotStock) {
+        Map<Long, int[]> categories = new HashMap<>();
+        int[] priceBands = new int[bandBounds.length + 1];
+        int[] availability = new int[2];
+        for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+            BigDecimal price = prices[doc];
+            boolean priceOk = (minPrice == null || (price != null && price.compareTo(minPrice) >= 0))
+                    && (maxPrice == null || (price != null && price.compareTo(maxPrice) <= 0));
+            boolean categoryOk = categoryId == null || categoryIds[doc] == categoryId;
+            boolean available = stockOf(doc, hotStock) > 0;
+            boolean stockOk = !Boolean.TRUE.equals(inStock) || available;
+
+            if (priceOk && stockOk && categoryIds[doc] != 0) {
+                categories.computeIfAbsent(categoryIds[doc], id -> new int[1])[0]++;
+            }
+            if (categoryOk && stockOk && price != null) {
+                priceBands[band(price, bandBounds)]++;
+            }
+            if (priceOk && categoryOk) {
+                availability[available ? 0 : 1]++;
+            }
+        }
+        Map<Long, Integer> categoryCounts = new HashMap<>(categories.size() * 2);
+        categories.forEach((id, count) -> categoryCounts.put(id, count[0]));
+        return new FacetCounts(categoryCounts, priceBands, availability[0], availability[1]);
+    }
+
+    int stockOf(int doc, Map<Long, Integer> hotStock) {
+        if (hotStock.isEmpty()) {
+            return stocks[doc];
+        }
+        Integer live = hotStock.get(productIds[doc]);
+        return live != null ? live : stocks[doc];
+    }
+
+    // Index of the band whose lower bound is the greatest bound not above the price
+    private static int band(BigDecimal price, BigDecimal[] bandBounds) {
+        int low = 0;
+        int high = bandBounds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (price.compareTo(bandBounds[mid]) >= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private BitSet matchTerm(TreeMap<String, Postings> terms, String term, int[] lengths, double averageLength,
+                             float boost, float[] scores) {
+        BitSet termDocs = new BitSet(size);
+        int expansions = 0;
+        for (Map.Entry<String, Postings> entry : terms.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+            if (entry.getKey().equals(term)) {
+                scorePostings(entry.getValue(), lengths, averageLength, boost, termDocs, scores);
+            } else if (expansions++ < MAX_SCORED_EXPANSIONS) {
+                scorePostings(entry.getValue(), lengths, averageLength, boost * PREFIX_WEIGHT, termDocs, scores);
+            } else {
+                Postings postings = entry.getValue();
+                for (int i = 0; i < postings.size; i++) {
+                    termDocs.set(postings.docs[i]);
+                }
+            }
+        }
+        // Postings keep deleted ordinals; the scored ones skip them, the rest are cleared here
+        termDocs.andNot(deleted);
+        return termDocs;
+    }
+
+    private void scorePostings(Postings postings, int[] lengths, double averageLength, float weight,
+                               BitSet termDocs, float[] scores) {
+        int documentFrequency = Math.min(postings.size, Math.max(liveCount, 1));
+        double idf = Math.log(1 + (liveCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        for (int i = 0; i < postings.size; i++) {
+            int doc = postings.docs[i];
+            if (deleted.get(doc)) {
+                continue;
+            }
+            int tf = postings.freqs[i];
+            double norm = tf + K1 * (1 - B + B * lengths[doc] / averageLength);
+            scores[doc] += (float) (weight * idf * tf * (K1 + 1) / norm);
+            termDocs.set(doc);
+        }
+    }
+
+    private static void addPostings(TreeMap<String, Postings> terms, List<String> tokens, int ordinal) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        frequencies.forEach((token, freq) -> terms.computeIfAbsent(token, t -> new Postings()).add(ordinal, freq));
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= productIds.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, productIds.length * 2);
+        productIds = Arrays.copyOf(productIds, newLength);
+        names = Arrays.copyOf(names, newLength);
+        prices = Arrays.copyOf(prices, newLength);
+        stocks = Arrays.copyOf(stocks, newLength);
+        categoryIds = Arrays.copyOf(categoryIds, newLength);
+        nameLengths = Arrays.copyOf(nameLengths, newLength);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, newLength);
+    }
+}
@@ -0,0 +1,24 @@
+package com.muiyurocodes.ecommerc.search;
+
+import java.util.Arrays;
+
+/**
+ * Documents containing one term, with the term's frequency in each. Ordinals only ever
+ * grow, so appending keeps the list sorted.
+ */
+final class Postings {
+
+    int[] docs = new int[4];
+    int[] freqs = new int[4];
+    int size;
+
+    void add(int doc, int freq) {
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+            freqs = Arrays.copyOf(freqs, size * 2);
+        }
+        docs[size] = doc;
+        freqs[size] = freq;
+        size++;
+    }
+}
@@ -0,0 +1,10 @@
+package com.muiyurocodes.ecommerc.search;
+
+import java.math.BigDecimal;
+
+/**
+ * The product fields the search index keeps: text to index plus the filter and sort columns.
+ */
+public record ProductDocument(Long id, String name, String description, BigDecimal price,
+                              int stockQuantity, Long categoryId) {
+}
@@ -0,0 +1,367 @@
+package com.muiyurocodes.ecommerc.search;
+
+import com.muiyurocodes.ecommerc.dto.HotInventoryStatusDTO;
+import com.muiyurocodes.ecommerc.event.CatalogImportedEvent;
+import com.muiyurocodes.ecommerc.event.CategoryChangedEvent;
+import com.muiyurocodes.ecommerc.event.ProductChangedEvent;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent;
+import com.muiyurocodes.ecommerc.exception.InvalidPageRequestException;
+import com.muiyurocodes.ecommerc.service.HotInventoryService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * In-process full-text index over product names and descriptions, ranked with BM25.
+ * Product events keep it current after each commit. A full rebuild runs on a background
+ * thread at startup, nightly, and whenever deleted documents pile up. The rebuilt index
+ * replaces the live one in a single swap, after replaying the products that changed while
+ * it was being built. Until the first build finishes, {@link #isReady()} is false and
+ * callers should fall back to the database. The autocomplete {@link SuggestionIndex} is built
+ * and updated alongside it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final String SELECT_DOCUMENTS =
+            "SELECT id, name, description, price, stock_quantity, category_id FROM products";
+
+    private static final RowMapper<ProductDocument> DOCUMENT_MAPPER = (rs, rowNum) -> toDocument(rs);
+
+    // Ids per IN list when loading changed products
+    private static final int LOAD_BATCH_SIZE = 1000;
+    // Changes left for the swap to replay while holding the write lock; more are loaded before taking it
+    private static final int MAX_REPLAY_UNDER_LOCK = 64;
+    private static final int MAX_REPLAY_ROUNDS = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final HotInventoryService hotInventoryService;
+
+    @Value("${search.index.max-deleted-ratio:0.25}")
+    private double maxDeletedRatio;
+
+    @Value("${search.facets.price-bands:25,50,100,250}")
+    private BigDecimal[] priceBandBounds;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; null until the first build completes
+    private InvertedIndex index;
+    // Guarded by lock; built and swapped together with index
+    private SuggestionIndex suggestions;
+    // Guarded by lock; products changed while a rebuild is running, replayed before the swap
+    private Set<Long> changedDuringRebuild;
+
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return index != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks products matching all name terms (in the name) and all description terms (in the
+     * description), filtered like the database search. Sorting by "relevance" orders by BM25
+     * score; name, price, id and stockQuantity sort by that column. With {@code withFacets},
+     * facet counts are taken from the same text matches before the page is cut.
+     */
+    public SearchResult search(String name, String description, BigDecimal minPrice, BigDecimal maxPrice,
+                               Long categoryId, Boolean inStock, String sortBy, boolean descending,
+                               int offset, int limit, boolean withFacets) {
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                throw new IllegalStateException("Product search index is not built yet");
+            }
+            // One snapshot per query instead of a service call per document
+            Map<Long, Integer> hotStock = hotInventoryService.getHotProducts().stream()
+                    .collect(Collectors.toMap(HotInventoryStatusDTO::getProductId,
+                            HotInventoryStatusDTO::getStockQuantity));
+            float[] scores = new float[index.size];
+            BitSet matches = index.match(Tokenizer.tokenize(name), Tokenizer.tokenize(description), scores);
+            FacetCounts facets = withFacets
+                    ? index.facets(matches, minPrice, maxPrice, categoryId, inStock, priceBandBounds(), hotStock)
+                    : null;
+            index.filter(matches, minPrice, maxPrice, categoryId, inStock, hotStock);
+
+            Integer[] ordinals = matches.stream().boxed().toArray(Integer[]::new);
+            Arrays.sort(ordinals, comparator(index, scores, hotStock, sortBy, descending));
+
+            List<Long> productIds = new ArrayList<>(Math.max(0, Math.min(limit, ordinals.length - offset)));
+            for (int i = offset; i < ordinals.length && i < offset + limit; i++) {
+                productIds.add(index.productIds[ordinals[i]]);
+            }
+            return new SearchResult(productIds, ordinals.length, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Name completions for {@code query} followed by typo-tolerant matches, at most {@code limit}.
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            if (suggestions == null) {
+                throw new IllegalStateException("Product search index is not built yet");
+            }
+            List<Suggestion> result = new ArrayList<>(limit);
+            for (Long productId : suggestions.suggest(query, limit)) {
+                result.add(new Suggestion(productId, suggestions.name(productId)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuildAsync();
+    }
+
+    @Scheduled(cron = "${search.index.rebuild-cron:0 0 4 * * *}")
+    public void rebuildAsync() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            rebuildExecutor.execute(this::rebuild);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Long productId = event.productId();
+        List<ProductDocument> documents = loadDocuments(Set.of(productId));
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(productId);
+            }
+            if (index == null) {
+                return;
+            }
+            if (documents.isEmpty()) {
+                index.remove(productId);
+                suggestions.remove(productId);
+            } else {
+                index.add(documents.get(0));
+                suggestions.add(productId, documents.get(0).name());
+            }
+            compact = index.deletedCount() > maxDeletedRatio * Math.max(index.liveCount(), 1000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            rebuildAsync();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (!event.rowsChanged()) {
+            return; // Hot counters are read live at query time
+        }
+        lock.writeLock().lock();
+        try {
+            for (StockChangedEvent.StockChange change : event.changes()) {
+                if (changedDuringRebuild != null) {
+                    changedDuringRebuild.add(change.productId());
+                }
+                if (index != null) {
+                    index.applyStock(change.productId(), change.delta(), change.newQuantity());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Deleting a category can touch many products; rebuilding is simpler than tracking them
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuildAsync();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        rebuildAsync();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    void rebuild() {
+        rebuildQueued.set(false);
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            InvertedIndex fresh = new InvertedIndex();
+            SuggestionIndex freshSuggestions = new SuggestionIndex();
+            streamDocuments(document -> {
+                fresh.add(document);
+                freshSuggestions.add(document.id(), document.name());
+            });
+
+            // Replay changes made during the build without blocking searches, until few are left
+            for (int round = 0; round < MAX_REPLAY_ROUNDS; round++) {
+                Set<Long> changed;
+                lock.writeLock().lock();
+                try {
+                    if (changedDuringRebuild.size() <= MAX_REPLAY_UNDER_LOCK) {
+                        break;
+                    }
+                    changed = changedDuringRebuild;
+                    changedDuringRebuild = new HashSet<>();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                replay(changed, fresh, freshSuggestions);
+            }
+
+            lock.writeLock().lock();
+            try {
+                // Whatever changed since the last round; normally a handful of products
+                replay(changedDuringRebuild, fresh, freshSuggestions);
+                index = fresh;
+                suggestions = freshSuggestions;
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Rebuilt product search index with {} products in {} ms",
+                    fresh.liveCount(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Product search index rebuild failed", e);
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Brings the rebuilt index up to date with products changed since their row was streamed
+    private void replay(Set<Long> changed, InvertedIndex fresh, SuggestionIndex freshSuggestions) {
+        Map<Long, ProductDocument> current = new HashMap<>();
+        loadDocuments(changed).forEach(document -> current.put(document.id(), document));
+        for (Long productId : changed) {
+            ProductDocument document = current.get(productId);
+            if (document == null) {
+                fresh.remove(productId);
+                freshSuggestions.remove(productId);
+            } else {
+                fresh.add(document);
+                freshSuggestions.add(productId, document.name());
+            }
+        }
+    }
+
+    // Every product row, streamed instead of materialising the catalog
+    void streamDocuments(Consumer<ProductDocument> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_DOCUMENTS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, rs -> {
+            consumer.accept(toDocument(rs));
+        });
+    }
+
+    List<ProductDocument> loadDocuments(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(productIds);
+        List<ProductDocument> documents = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += LOAD_BATCH_SIZE) {
+            documents.addAll(namedParameterJdbcTemplate.query(SELECT_DOCUMENTS + " WHERE id IN (:ids)",
+                    Map.of("ids", ids.subList(from, Math.min(from + LOAD_BATCH_SIZE, ids.size()))), DOCUMENT_MAPPER));
+        }
+        return documents;
+    }
+
+    private static ProductDocument toDocument(ResultSet rs) throws java.sql.SQLException {
+        long categoryId = rs.getLong("category_id");
+        Long category = rs.wasNull() ? null : categoryId;
+        return new ProductDocument(rs.getLong("id"), rs.getString("name"), rs.getString("description"),
+                rs.getBigDecimal("price"), rs.getInt("stock_quantity"), category);
+    }
+
+    private Comparator<Integer> comparator(InvertedIndex index, float[] scores, Map<Long, Integer> hotStock,
+                                           String sortBy, boolean descending) {
+        Comparator<Integer> byId = Comparator.comparingLong(doc -> index.productIds[doc]);
+        Comparator<Integer> comparator = switch (sortBy) {
+            // Best match first regardless of direction
+            case "relevance" -> {
+                Comparator<Integer> byScore = Comparator.comparingDouble(doc -> -scores[doc]);
+                yield byScore.thenComparing(byId);
+            }
+            case "name" -> Comparator.<Integer, String>comparing(doc -> index.names[doc],
+                    Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)).thenComparing(byId);
+            case "price" -> Comparator.<Integer, BigDecimal>comparing(doc -> index.prices[doc],
+                    Comparator.nullsLast(Comparator.naturalOrder())).thenComparing(byId);
+            case "stockQuantity" -> Comparator.<Integer>comparingInt(
+                    doc -> index.stockOf(doc, hotStock)).thenComparing(byId);
+            case "id" -> byId;
+            default -> throw new InvalidPageRequestException("Unsupported sort field: " + sortBy);
+        };
+        return descending && !"relevance".equals(sortBy) ? comparator.reversed() : comparator;
+    }
+
+    /**
+     * Ascending lower bounds of the price bands after the first; the first band starts at zero.
+     */
+    public BigDecimal[] priceBandBounds() {
+        BigDecimal[] bounds = priceBandBounds.clone();
+        Arrays.sort(bounds);
+        return bounds;
+    }
+
+    public record Suggestion(Long productId, String name) {
+    }
+
+    public record SearchResult(List<Long> productIds, long total, FacetCounts facets) {
+    }
+}
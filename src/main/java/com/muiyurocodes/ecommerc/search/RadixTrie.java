@@ -0,0 +1,138 @@
+package com.muiyurocodes.ecommerc.search;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Compressed prefix trie from string keys to product ids. Edges carry whole label runs rather
+ * than single characters, so a lookup walks at most one node per branching point.
+ * <p>
+ * Not thread-safe.
+ */
+final class RadixTrie {
+
+    private final Node root = new Node("");
+
+    void add(String key, long productId) {
+        Node node = root;
+        int position = 0;
+        while (position < key.length()) {
+            Node child = node.children.get(key.charAt(position));
+            if (child == null) {
+                Node leaf = new Node(key.substring(position));
+                node.children.put(key.charAt(position), leaf);
+                node = leaf;
+                break;
+            }
+            int common = commonPrefix(child.label, key, position);
+            if (common < child.label.length()) {
+                // Split the edge at the point where the new key diverges
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children.put(child.label.charAt(0), child);
+                node.children.put(middle.label.charAt(0), middle);
+                child = middle;
+            }
+            node = child;
+            position += common;
+        }
+        node.values.add(productId);
+    }
+
+    void remove(String key, long productId) {
+        remove(root, key, 0, productId);
+    }
+
+    /**
+     * Feeds ids stored under keys that start with {@code prefix} to {@code consumer}, shorter keys
+     * first along each path and siblings in label order, until it returns false.
+     */
+    void visitPrefix(String prefix, Predicate<Long> consumer) {
+        Node node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(position));
+            if (child == null) {
+                return;
+            }
+            int common = commonPrefix(child.label, prefix, position);
+            if (position + common == prefix.length()) {
+                visit(child, consumer);
+                return;
+            }
+            if (common < child.label.length()) {
+                return;
+            }
+            node = child;
+            position += common;
+        }
+        visit(node, consumer);
+    }
+
+    private boolean visit(Node node, Predicate<Long> consumer) {
+        for (Long value : node.values) {
+            if (!consumer.test(value)) {
+                return false;
+            }
+        }
+        for (Node child : node.children.values()) {
+            if (!visit(child, consumer)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns true when the child at this position became empty and was unlinked
+    private boolean remove(Node node, String key, int position, long productId) {
+        if (position == key.length()) {
+            node.values.remove(productId);
+        } else {
+            Node child = node.children.get(key.charAt(position));
+            if (child == null || !key.startsWith(child.label, position)) {
+                return false;
+            }
+            if (remove(child, key, position + child.label.length(), productId)) {
+                node.children.remove(key.charAt(position));
+            } else {
+                mergeSingleChild(child);
+            }
+        }
+        return node != root && node.values.isEmpty() && node.children.isEmpty();
+    }
+
+    // Keep the trie compressed after removals leave a value-less node with a single child
+    private static void mergeSingleChild(Node node) {
+        if (node.values.isEmpty() && node.children.size() == 1) {
+            Iterator<Node> only = node.children.values().iterator();
+            Node child = only.next();
+            node.label = node.label + child.label;
+            node.values.addAll(child.values);
+            node.children.clear();
+            node.children.putAll(child.children);
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        private String label;
+        private final Map<Character, Node> children = new TreeMap<>();
+        private final Set<Long> values = new LinkedHashSet<>(2);
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.muiyurocodes.ecommerc.search;
+
+import java.util.*;
+
+/**
+ * Autocomplete over product names. A radix trie answers completions: every name is stored once
+ * per word, from that word to the end, so "pro" completes "iPhone Pro". Misspelled words are
+ * handled by a trigram index over the distinct name words; trigram overlap narrows the
+ * candidates, then a bounded edit distance confirms them.
+ * <p>
+ * Not thread-safe; {@link ProductSearchIndex} guards it with its read/write lock.
+ */
+final class SuggestionIndex {
+
+    // Later words of long names rarely start a query; indexing them only costs memory
+    private static final int MAX_SUFFIX_WORDS = 8;
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final int MAX_PREFIX_WORDS = 64;
+    // Words sharing the most trigrams with a query word that get an edit distance computed
+    private static final int MAX_FUZZY_CANDIDATES = 256;
+
+    private final RadixTrie completions = new RadixTrie();
+    private final Map<Long, String> names = new HashMap<>();
+    private final TreeMap<String, Set<Long>> wordProducts = new TreeMap<>();
+    private final Map<String, Set<String>> trigramWords = new HashMap<>();
+
+    void add(long productId, String name) {
+        remove(productId);
+        if (name == null || name.isBlank()) {
+            return;
+        }
+        names.put(productId, name);
+        List<String> words = Tokenizer.tokenize(name);
+        for (String key : suffixKeys(words)) {
+            completions.add(key, productId);
+        }
+        for (String word : new HashSet<>(words)) {
+            Set<Long> products = wordProducts.computeIfAbsent(word, w -> {
+                for (String trigram : trigrams(w)) {
+                    trigramWords.computeIfAbsent(trigram, t -> new HashSet<>()).add(w);
+                }
+                return new HashSet<>();
+            });
+            products.add(productId);
+        }
+    }
+
+    void remove(long productId) {
+        String name = names.remove(productId);
+        if (name == null) {
+            return;
+        }
+        List<String> words = Tokenizer.tokenize(name);
+        for (String key : suffixKeys(words)) {
+            completions.remove(key, productId);
+        }
+        for (String word : new HashSet<>(words)) {
+            Set<Long> products = wordProducts.get(word);
+            if (products == null || !products.remove(productId) || !products.isEmpty()) {
+                continue;
+            }
+            wordProducts.remove(word);
+            for (String trigram : trigrams(word)) {
+                Set<String> gramWords = trigramWords.get(trigram);
+                if (gramWords != null && gramWords.remove(word) && gramWords.isEmpty()) {
+                    trigramWords.remove(trigram);
+                }
+            }
+        }
+    }
+
+    String name(long productId) {
+        return names.get(productId);
+    }
+
+    /**
+     * Up to {@code limit} product ids: names completing the query first, then names whose words
+     * are each within a small edit distance of a query word (the last query word may also be
+     * an unfinished prefix).
+     */
+    List<Long> suggest(String query, int limit) {
+        List<String> queryWords = Tokenizer.tokenize(query);
+        if (queryWords.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        LinkedHashSet<Long> results = new LinkedHashSet<>();
+        completions.visitPrefix(String.join(" ", queryWords), productId -> {
+            results.add(productId);
+            return results.size() < limit;
+        });
+        if (results.size() < limit) {
+            results.addAll(fuzzyMatches(queryWords, limit - results.size(), results));
+        }
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * Products matching every query word fuzzily. The query word with the fewest candidate
+     * products drives the scan, closest words first, and the others are checked per product,
+     * so the work stops after {@code limit} hits rather than growing with popular words.
+     */
+    private List<Long> fuzzyMatches(List<String> queryWords, int limit, Set<Long> exclude) {
+        List<Map<String, Integer>> similar = new ArrayList<>(queryWords.size());
+        int driver = 0;
+        long driverSize = Long.MAX_VALUE;
+        for (int i = 0; i < queryWords.size(); i++) {
+            Map<String, Integer> words = similarWords(queryWords.get(i), i == queryWords.size() - 1);
+            if (words.isEmpty()) {
+                return List.of();
+            }
+            long size = words.keySet().stream().mapToLong(word -> wordProducts.get(word).size()).sum();
+            if (size < driverSize) {
+                driver = i;
+                driverSize = size;
+            }
+            similar.add(words);
+        }
+
+        List<Map.Entry<String, Integer>> driverWords = new ArrayList<>(similar.get(driver).entrySet());
+        driverWords.sort(Map.Entry.comparingByValue());
+        List<Long> results = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>(exclude);
+        for (Map.Entry<String, Integer> driverWord : driverWords) {
+            for (Long productId : wordProducts.get(driverWord.getKey())) {
+                if (seen.add(productId) && matchesAll(productId, similar, driver)) {
+                    results.add(productId);
+                    if (results.size() == limit) {
+                        return results;
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private boolean matchesAll(Long productId, List<Map<String, Integer>> similar, int skip) {
+        for (int i = 0; i < similar.size(); i++) {
+            if (i == skip) {
+                continue;
+            }
+            boolean found = false;
+            for (String word : similar.get(i).keySet()) {
+                if (wordProducts.get(word).contains(productId)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Indexed words within the edit budget of the query word, mapped to their distance
+    private Map<String, Integer> similarWords(String queryWord, boolean allowPrefix) {
+        Map<String, Integer> matches = new HashMap<>();
+        if (wordProducts.containsKey(queryWord)) {
+            matches.put(queryWord, 0);
+        }
+        if (allowPrefix) {
+            wordProducts.subMap(queryWord, true, queryWord + Character.MAX_VALUE, false).keySet().stream()
+                    .limit(MAX_PREFIX_WORDS)
+                    .forEach(word -> matches.putIfAbsent(word, 0));
+        }
+        if (queryWord.length() < MIN_FUZZY_LENGTH) {
+            return matches;
+        }
+        int budget = queryWord.length() <= 5 ? 1 : 2;
+        // An unfinished word can stop anywhere in the indexed word, so its end-of-word trigram says nothing
+        Set<String> queryGrams = allowPrefix ? prefixTrigrams(queryWord) : trigrams(queryWord);
+        // Each edit destroys at most four trigrams (an adjacent transposition touches four), so
+        // closer words share at least this many
+        int minShared = Math.max(1, queryGrams.size() - 4 * budget);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : queryGrams) {
+            for (String word : trigramWords.getOrDefault(trigram, Set.of())) {
+                shared.merge(word, 1, Integer::sum);
+            }
+        }
+        List<Map.Entry<String, Integer>> candidates = new ArrayList<>();
+        for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+            if (candidate.getValue() >= minShared && !matches.containsKey(candidate.getKey())) {
+                candidates.add(candidate);
+            }
+        }
+        // Short words share a trigram or two with much of the vocabulary; only the closest are checked
+        if (candidates.size() > MAX_FUZZY_CANDIDATES) {
+            candidates.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+            candidates = candidates.subList(0, MAX_FUZZY_CANDIDATES);
+        }
+        for (Map.Entry<String, Integer> candidate : candidates) {
+            String word = candidate.getKey();
+            int distance = allowPrefix
+                    ? boundedPrefixDistance(queryWord, word, budget)
+                    : boundedDistance(queryWord, word, budget);
+            if (distance <= budget) {
+                matches.merge(word, distance, Math::min);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Damerau-style (adjacent transposition counts as one edit) Levenshtein distance, or
+     * {@code budget + 1} once it is certain to exceed the budget.
+     */
+    static int boundedDistance(String a, String b, int budget) {
+        if (Math.abs(a.length() - b.length()) > budget) {
+            return budget + 1;
+        }
+        int[][] d = distanceMatrix(a, b, budget);
+        return Math.min(d[a.length()][b.length()], budget + 1);
+    }
+
+    // Distance from the query to the closest prefix of the word, for words still being typed
+    static int boundedPrefixDistance(String query, String word, int budget) {
+        if (word.length() + budget < query.length()) {
+            return budget + 1;
+        }
+        // Prefixes longer than this are over budget, so the rest of a long word is never compared
+        String head = word.substring(0, Math.min(word.length(), query.length() + budget));
+        int[][] d = distanceMatrix(query, head, budget);
+        int best = budget + 1;
+        for (int j = Math.max(0, query.length() - budget); j <= head.length(); j++) {
+            best = Math.min(best, d[query.length()][j]);
+        }
+        return best;
+    }
+
+    private static int[][] distanceMatrix(String a, String b, int budget) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                // Cells far off the diagonal cannot come back under budget
+                if (Math.abs(i - j) > budget) {
+                    d[i][j] = budget + 1;
+                    continue;
+                }
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, d[i - 2][j - 2] + 1);
+                }
+                d[i][j] = value;
+            }
+        }
+        return d;
+    }
+
+    private static List<String> suffixKeys(List<String> words) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < words.size() && i < MAX_SUFFIX_WORDS; i++) {
+            keys.add(String.join(" ", words.subList(i, words.size())));
+        }
+        return keys;
+    }
+
+    private static Set<String> trigrams(String word) {
+        return grams("$" + word + "$");
+    }
+
+    private static Set<String> prefixTrigrams(String word) {
+        return grams("$" + word);
+    }
+
+    private static Set<String> grams(String padded) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
@@ -4,14 +4,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.muiyurocodes.ecommerc.dto.LoginResponseDTO;
 import com.muiyurocodes.ecommerc.dto.UserLoginDTO;
 import com.muiyurocodes.ecommerc.dto.UserResponseDTO;
+import com.muiyurocodes.ecommerc.mapper.UserMapper;
 import com.muiyurocodes.ecommerc.model.User;
+import com.muiyurocodes.ecommerc.service.GuestCartService;
 import com.muiyurocodes.ecommerc.service.SessionService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.modelmapper.ModelMapper;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -19,20 +21,24 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import java.io.IOException;
+import java.util.Arrays;
 
+@Slf4j
 public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
     private final SessionService sessionService;
-    private final ModelMapper modelMapper;
+    private final GuestCartService guestCartService;
+    private final UserMapper userMapper;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public JwtAuthenticationFilter(AuthenticationManager authenticationManager, JwtTokenProvider jwtTokenProvider, SessionService sessionService, ModelMapper modelMapper) {
+    public JwtAuthenticationFilter(AuthenticationManager authenticationManager, JwtTokenProvider jwtTokenProvider, SessionService sessionService, GuestCartService guestCartService, UserMapper userMapper) {
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
         this.sessionService = sessionService;
-        this.modelMapper = modelMapper;
+        this.guestCartService = guestCartService;
+        this.userMapper = userMapper;
         setFilterProcessesUrl("/api/auth/login");
     }
 
@@ -66,12 +72,34 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
         refreshTokenCookie.setMaxAge((int) (jwtTokenProvider.getRefreshTokenExpiration() / 1000));
         response.addCookie(refreshTokenCookie);
 
+        mergeGuestCart(request, user);
+
         // Add access token and user details to the response body
-        UserResponseDTO userResponse = modelMapper.map(user, UserResponseDTO.class);
+        UserResponseDTO userResponse = userMapper.toUserResponseDTO(user);
         LoginResponseDTO loginResponse = new LoginResponseDTO(accessToken, userResponse);
 
         response.setContentType("application/json");
         response.getWriter().write(objectMapper.writeValueAsString(loginResponse));
         response.getWriter().flush();
     }
+
+    // Moves an anonymous cart into the user's cart; a failed merge must not fail the login
+    private void mergeGuestCart(HttpServletRequest request, User user) {
+        String token = request.getHeader(GuestCartService.TOKEN_HEADER);
+        if (token == null && request.getCookies() != null) {
+            token = Arrays.stream(request.getCookies())
+                    .filter(cookie -> GuestCartService.TOKEN_COOKIE.equals(cookie.getName()))
+                    .map(Cookie::getValue)
+                    .findFirst()
+                    .orElse(null);
+        }
+        if (token == null || token.isBlank()) {
+            return;
+        }
+        try {
+            guestCartService.mergeIntoUserCart(token, user.getId());
+        } catch (RuntimeException e) {
+            log.warn("Could not merge guest cart into cart of user {}", user.getId(), e);
+        }
+    }
 }
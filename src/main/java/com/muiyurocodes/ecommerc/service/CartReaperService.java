@@ -0,0 +1,11 @@
+package com.muiyurocodes.ecommerc.service;
+
+import com.muiyurocodes.ecommerc.dto.CartPurgeResultDTO;
+
+/**
+ * Deletes carts (and their items) that have not been modified for a configured number of days.
+ */
+public interface CartReaperService {
+
+    CartPurgeResultDTO purgeAbandonedCarts();
+}
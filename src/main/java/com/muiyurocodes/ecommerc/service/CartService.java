@@ -1,9 +1,13 @@
 package com.muiyurocodes.ecommerc.service;
 
 import com.muiyurocodes.ecommerc.dto.CartDTO;
+import com.muiyurocodes.ecommerc.dto.CartOperationDTO;
 
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.List;
+
 @Service
 public interface CartService {
     CartDTO getCartForUser(Long userId);
@@ -15,4 +19,16 @@ public interface CartService {
     CartDTO removeProductFromCart(Long userId, Long productId);
 
     void clearCart(Long userId);
+
+    // Applies a list of add/set/remove operations to the cart in one transaction
+    CartDTO applyOperations(Long userId, List<CartOperationDTO> operations);
+
+    // Writes the user's pending cart edits to the database now instead of on the next scheduled flush
+    void flushCart(Long userId);
+
+    // Flushes and drops any cached state for these carts, ahead of deleting their rows
+    void evictCarts(Collection<Long> cartIds);
+
+    // Drops any cached state for carts whose rows were deleted, without writing it back
+    void forgetCarts(Collection<Long> cartIds);
 }
@@ -0,0 +1,22 @@
+package com.muiyurocodes.ecommerc.service;
+
+import org.springframework.http.MediaType;
+
+/**
+ * File formats for bulk catalog import and export. Both use the same column / field names:
+ * id, name, description, price, stockQuantity, categoryId, categoryName, imageUrl.
+ */
+public enum CatalogFormat {
+    CSV(new MediaType("text", "csv")),
+    NDJSON(new MediaType("application", "x-ndjson"));
+
+    private final MediaType mediaType;
+
+    CatalogFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,20 @@
+package com.muiyurocodes.ecommerc.service;
+
+import com.muiyurocodes.ecommerc.dto.CategoryDeletionJobDTO;
+
+/**
+ * Deletes categories in the background: their products are moved to another category (or left
+ * without one) in chunks, then the category row is removed.
+ */
+public interface CategoryDeletionService {
+
+    /**
+     * Queues the deletion and returns at once. A deletion already queued or running for the
+     * category is returned instead of starting another.
+     *
+     * @param reassignTo category that receives the products, or null to leave them uncategorized
+     */
+    CategoryDeletionJobDTO deleteCategory(Long categoryId, Long reassignTo);
+
+    CategoryDeletionJobDTO getJob(String jobId);
+}
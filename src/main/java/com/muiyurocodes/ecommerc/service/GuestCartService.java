@@ -0,0 +1,34 @@
+package com.muiyurocodes.ecommerc.service;
+
+import com.muiyurocodes.ecommerc.dto.CartDTO;
+
+/**
+ * Carts for anonymous shoppers, kept in memory under an opaque token instead of in the
+ * carts table. Guest carts do not hold stock; lines are only checked against what is
+ * currently available.
+ */
+public interface GuestCartService {
+
+    // Header (or cookie) carrying the guest cart token; sent on login to merge the guest cart
+    String TOKEN_HEADER = "X-Guest-Cart-Token";
+    String TOKEN_COOKIE = "guestCartToken";
+
+    // Starts an empty guest cart and returns its token
+    String createCart();
+
+    CartDTO getCart(String token);
+
+    CartDTO addProduct(String token, Long productId, int quantity);
+
+    CartDTO updateItem(String token, Long productId, int quantity);
+
+    CartDTO removeProduct(String token, Long productId);
+
+    void clearCart(String token);
+
+    /**
+     * Moves the guest cart's lines into the user's cart in one batch and discards the guest cart.
+     * Does nothing for unknown or expired tokens.
+     */
+    void mergeIntoUserCart(String token, Long userId);
+}
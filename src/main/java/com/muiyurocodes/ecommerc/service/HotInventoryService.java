@@ -0,0 +1,45 @@
+package com.muiyurocodes.ecommerc.service;
+
+import com.muiyurocodes.ecommerc.dto.HotInventoryStatusDTO;
+import com.muiyurocodes.ecommerc.model.Product;
+
+import java.util.List;
+
+/**
+ * Opt-in flash-sale inventory mode: stock for a few hot products is kept in striped
+ * in-memory counters, decremented without touching the products row, and written back
+ * in periodic batches from a durable decrement journal.
+ */
+public interface HotInventoryService {
+
+    boolean isHot(Long productId);
+
+    // Takes units from a hot product's counter and journals them. NOT_HOT when the product is not
+    // (or no longer) hot, in which case the caller takes from the row instead
+    TakeResult tryTake(Long productId, int quantity);
+
+    // Stock as callers should see it: the live counter for hot products, the row value otherwise
+    int effectiveStock(Product product);
+
+    // Live counter of a hot product, or null when the product is not hot
+    Integer hotStock(Long productId);
+
+    // Moves a hot product's available stock to the given absolute value
+    void setStock(Long productId, int stockQuantity);
+
+    // Adds a signed delta to a hot product's stock; false if a negative delta exceeds what is available
+    boolean adjustStock(Long productId, int delta);
+
+    // Applies pending journal entries to the products rows
+    int flush();
+
+    HotInventoryStatusDTO enable(Long productId);
+
+    HotInventoryStatusDTO disable(Long productId);
+
+    List<HotInventoryStatusDTO> getHotProducts();
+
+    enum TakeResult {
+        TAKEN, INSUFFICIENT, NOT_HOT
+    }
+}
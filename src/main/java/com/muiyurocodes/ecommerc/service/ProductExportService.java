@@ -0,0 +1,14 @@
+package com.muiyurocodes.ecommerc.service;
+
+import java.io.OutputStream;
+
+/**
+ * Writes the whole catalog to a stream in the bulk import format, row by row.
+ */
+public interface ProductExportService {
+
+    /**
+     * @return the number of products written
+     */
+    long exportProducts(OutputStream out, CatalogFormat format);
+}
@@ -0,0 +1,14 @@
+package com.muiyurocodes.ecommerc.service;
+
+import com.muiyurocodes.ecommerc.dto.ProductImportResultDTO;
+
+import java.io.InputStream;
+
+/**
+ * Loads products in bulk from a CSV or NDJSON stream, reporting rejected rows instead of
+ * failing the whole import.
+ */
+public interface ProductImportService {
+
+    ProductImportResultDTO importProducts(InputStream body, CatalogFormat format);
+}
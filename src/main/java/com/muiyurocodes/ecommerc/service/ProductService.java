@@ -16,16 +16,30 @@ public interface ProductService {
 
     CategoryDTO getCategoryById(Long categoryId);
 
-    void deleteCategory(Long categoryId);
+    // Entity tag of one category, read from the cached entry without building a response
+    String getCategoryETag(Long categoryId);
+
+
+    // Entity tag of the category list, from an aggregate rather than the list itself
+    String getCategoriesETag();
 
     // Product methods
     ProductResponseDTO createProduct(ProductDTO productDTO);
 
     ProductResponseDTO getProductById(Long productId);
 
-    List<ProductResponseDTO> getAllProducts();
+    // Entity tag of one product, read from the cached entry without building a response
+    String getProductETag(Long productId);
+
+    // Keyset-paginated listings ordered by (sortBy, id); cursor is null for the first page
+    CursorPageDTO<ProductResponseDTO> getProducts(String sortBy, String sortDir, String cursor, int limit);
+
+    CursorPageDTO<ProductResponseDTO> getProductsByCategory(Long categoryId, String sortBy, String sortDir,
+                                                            String cursor, int limit);
 
-    List<ProductResponseDTO> getProductsByCategory(Long categoryId);
+    // Entity tag shared by all listing pages (of one category when categoryId is set); cheap
+    // enough to answer If-None-Match before any page is loaded
+    String getProductsETag(Long categoryId);
 
     ProductResponseDTO updateProduct(Long productId, ProductDTO productDTO);
 
@@ -41,8 +55,21 @@ public interface ProductService {
             Boolean inStock,
             Pageable pageable);
 
+    ProductSearchResultDTO searchProductsWithFacets(
+            String name,
+            String description,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Long categoryId,
+            Boolean inStock,
+            Pageable pageable);
+
+    List<ProductSuggestionDTO> suggestProducts(String query, int limit);
+
     // Inventory management methods
-    List<ProductResponseDTO> getLowStockProducts(int threshold);
+    // Products at or below the threshold, or at or below their category's own threshold when it is null
+    List<ProductResponseDTO> getLowStockProducts(Integer threshold);
 
-    List<ProductResponseDTO> updateProductStock(List<ProductStockUpdateDTO> stockUpdates);
+    // Sets the category's low-stock threshold; null reverts it to the default
+    CategoryDTO updateLowStockThreshold(Long categoryId, Integer threshold);
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.muiyurocodes.ecommerc.service;
+
+import com.muiyurocodes.ecommerc.model.Order;
+
+import java.time.LocalDate;
+
+/**
+ * Maintains the per-day sales rollups that back the admin sales report.
+ */
+public interface SalesRollupService {
+
+    // Adds a newly placed order to its day's rollups
+    void recordOrder(Order order);
+
+    // Adjusts the rollups when an order moves in or out of a revenue-counting status
+    void applyStatusChange(Order order, String previousStatus, String newStatus);
+
+    // Recomputes the rollups for a date range from the orders table
+    void rebuild(LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,33 @@
+package com.muiyurocodes.ecommerc.service;
+
+import com.muiyurocodes.ecommerc.dto.ShardedInventoryStatusDTO;
+
+import java.util.List;
+
+/**
+ * Opt-in sharded inventory mode: a product's stock is split over several shard rows so
+ * concurrent checkouts lock different rows. Unlike hot mode it stays in the database and is
+ * safe with several application instances. The products row keeps the shard total as a cached
+ * aggregate, so row-based reads and checks keep working on sharded products.
+ */
+public interface ShardedInventoryService {
+
+    // Takes units from the product's shards in the caller's transaction, which should be READ COMMITTED;
+    // false if not enough are left
+    boolean tryTake(Long productId, int quantity);
+
+    // Spreads a new absolute stock level over the product's shards
+    void setStock(Long productId, int stockQuantity);
+
+    // Adds a signed delta to the product's shards; false if a negative delta exceeds what is available
+    boolean adjustStock(Long productId, int delta);
+
+    // Writes shard totals of recently changed products to their rows
+    int rollup();
+
+    ShardedInventoryStatusDTO enable(Long productId, int shards);
+
+    ShardedInventoryStatusDTO disable(Long productId);
+
+    List<ShardedInventoryStatusDTO> getShardedProducts();
+}
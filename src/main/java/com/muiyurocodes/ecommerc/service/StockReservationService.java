@@ -0,0 +1,26 @@
+package com.muiyurocodes.ecommerc.service;
+
+/**
+ * Ledger of time-limited soft holds that carts place on product stock.
+ */
+public interface StockReservationService {
+
+    /**
+     * Units of a product that can still be promised to a cart: stock minus the active
+     * holds of every other cart.
+     */
+    int availableToPromise(Long productId, int stockQuantity, Long cartId);
+
+    /**
+     * Sets the cart's hold on a product to {@code quantity} and restarts its TTL.
+     * Throws InsufficientStockException if other holds leave too few units.
+     */
+    void reserve(Long cartId, Long productId, int stockQuantity, int quantity);
+
+    void release(Long cartId, Long productId);
+
+    void releaseAll(Long cartId);
+
+    // Drops every expired hold, returning how many were released
+    int sweepExpired();
+}
@@ -0,0 +1,15 @@
+package com.muiyurocodes.ecommerc.service;
+
+import com.muiyurocodes.ecommerc.dto.StockUpdateResultDTO;
+
+import java.io.InputStream;
+
+/**
+ * Bulk stock updates (warehouse syncs) from a JSON array or NDJSON stream of
+ * {@link com.muiyurocodes.ecommerc.dto.ProductStockUpdateDTO}, reporting the updates that
+ * could not be applied instead of failing the whole request.
+ */
+public interface StockUpdateService {
+
+    StockUpdateResultDTO updateStock(InputStream body);
+}
@@ -0,0 +1,98 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import com.muiyurocodes.ecommerc.dto.CartPurgeResultDTO;
+import com.muiyurocodes.ecommerc.repository.CartRepository;
+import com.muiyurocodes.ecommerc.repository.CartRepository.CartKey;
+import com.muiyurocodes.ecommerc.service.CartReaperService;
+import com.muiyurocodes.ecommerc.service.CartService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Walks stale carts in keyset order over (last_modified, id) and deletes them chunk by chunk.
+ * Each chunk runs in its own short transaction rather than one transaction for the whole run,
+ * so row locks are only held for a single chunk at a time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CartReaperServiceImpl implements CartReaperService {
+
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final CartRepository cartRepository;
+    private final CartService cartService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${cart.reaper.max-age-days:30}")
+    private int maxAgeDays;
+
+    @Value("${cart.reaper.chunk-size:500}")
+    private int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Override
+    @Scheduled(cron = "${cart.reaper.cron:0 30 3 * * *}")
+    public CartPurgeResultDTO purgeAbandonedCarts() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Abandoned-cart purge already running, skipping");
+            return new CartPurgeResultDTO();
+        }
+        try {
+            return purge(LocalDateTime.now().minusDays(maxAgeDays));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private CartPurgeResultDTO purge(LocalDateTime cutoff) {
+        transactionTemplate.executeWithoutResult(status -> cartRepository.backfillLastModified(LocalDateTime.now()));
+
+        CartPurgeResultDTO result = new CartPurgeResultDTO();
+        LocalDateTime afterModified = KEYSET_START;
+        Long afterId = 0L;
+        while (true) {
+            List<CartKey> chunk = cartRepository.findStaleAfter(cutoff, afterModified, afterId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            CartKey last = chunk.get(chunk.size() - 1);
+            afterModified = last.getLastModified();
+            afterId = last.getId();
+
+            List<Long> cartIds = chunk.stream().map(CartKey::getId).toList();
+            // Pending cached edits are written first; they bump last_modified and so keep the cart
+            cartService.evictCarts(cartIds);
+
+            List<Long> deletedCarts = new ArrayList<>();
+            int itemsDeleted = transactionTemplate.execute(status -> {
+                int items = cartRepository.deleteStaleItems(cartIds, cutoff);
+                cartRepository.deleteStaleCarts(cartIds, cutoff);
+                deletedCarts.addAll(cartIds);
+                deletedCarts.removeAll(cartRepository.findExistingIds(cartIds));
+                return items;
+            });
+            // A read between the eviction above and the commit may have cached one of them again
+            cartService.forgetCarts(deletedCarts);
+
+            result.setItemsDeleted(result.getItemsDeleted() + itemsDeleted);
+            result.setCartsDeleted(result.getCartsDeleted() + deletedCarts.size());
+            result.setChunks(result.getChunks() + 1);
+        }
+
+        log.info("Purged {} abandoned carts and {} cart items in {} chunks (untouched since {})",
+                result.getCartsDeleted(), result.getItemsDeleted(), result.getChunks(), cutoff);
+        return result;
+    }
+}
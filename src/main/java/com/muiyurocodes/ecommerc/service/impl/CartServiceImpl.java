@@ -1,75 +1,123 @@
 package com.muiyurocodes.ecommerc.service.impl;
 
+import com.muiyurocodes.ecommerc.cache.LruCache;
 import com.muiyurocodes.ecommerc.dto.CartDTO;
 import com.muiyurocodes.ecommerc.dto.CartItemDTO;
-import com.muiyurocodes.ecommerc.exception.InsufficientStockException;
+import com.muiyurocodes.ecommerc.dto.CartOperationDTO;
 import com.muiyurocodes.ecommerc.exception.ProductNotFoundException;
 import com.muiyurocodes.ecommerc.exception.UserNotFoundException;
+import com.muiyurocodes.ecommerc.mapper.CartMapper;
 import com.muiyurocodes.ecommerc.model.*;
 import com.muiyurocodes.ecommerc.repository.*;
+import com.muiyurocodes.ecommerc.repository.CartItemRepositoryCustom.LineWrite;
 import com.muiyurocodes.ecommerc.service.CartService;
+import com.muiyurocodes.ecommerc.service.HotInventoryService;
+import com.muiyurocodes.ecommerc.service.StockReservationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Carts are served from a per-user LRU cache of cart state. Mutations change the cached
+ * state and mark the touched lines dirty; a scheduled flush writes the dirty lines of each
+ * cart as one JDBC batch, so repeated edits to a cart cost a single write. Adding a product
+ * is written through with an upsert instead, so concurrent adds accumulate in the row. All
+ * work on one cart, including its flush, is serialized on the cached state object.
+ */
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Slf4j
 public class CartServiceImpl implements CartService {
 
     private final CartRepository cartRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final CartItemRepository cartItemRepository;
-    private final ModelMapper modelMapper;
+    private final StockReservationService stockReservationService;
+    private final HotInventoryService hotInventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final CartMapper cartMapper;
+
+    @Value("${cart.cache.max-entries:10000}")
+    private int maxEntries;
+
+    private TransactionTemplate flushTransaction;
+    private LruCache<Long, CartState> carts;
+    // Dirty carts pushed out of the LRU; kept here until flushed so reads still see them
+    private final Map<Long, CartState> evictedDirty = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+    // Carts written since the last flush, whose last_modified still needs bumping
+    private final Set<Long> touchedCarts = ConcurrentHashMap.newKeySet();
+    // Bumped by forgetCarts(), so a load that raced a cart's deletion does not stay cached
+    private final AtomicLong forgetCount = new AtomicLong();
+
+    @PostConstruct
+    void initCache() {
+        flushTransaction = new TransactionTemplate(Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+        flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        carts = new LruCache<>(maxEntries, (userId, state) -> {
+            if (state.isDirty()) {
+                evictedDirty.put(userId, state);
+            }
+        });
+    }
 
     @Override
     public CartDTO getCartForUser(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
-        Cart cart = cartRepository.findByUser(user)
-                .orElseGet(() -> createCartForUser(user));
-        return convertToCartDTO(cart);
+        CartState state = cartState(userId);
+        synchronized (state) {
+            return state.toDTO();
+        }
     }
 
     @Override
     public CartDTO addProductToCart(Long userId, Long productId, int quantity) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ProductNotFoundException("Product not found for id: " + productId));
+        CartState state = cartState(userId);
+        synchronized (state) {
+            // Buffered edits go out first so the reload below still contains them
+            flushState(state);
 
-        if (product.getStockQuantity() < quantity) {
-            throw new InsufficientStockException("Not enough stock for product with id: " + productId);
-        }
+            // One upsert on the unique (cart_id, product_id) key; concurrent adds accumulate in the row
+            if (cartItemRepository.addQuantity(userId, productId, quantity) == 0) {
+                throw new ProductNotFoundException("Product not found for id: " + productId);
+            }
+            evictOnRollback(userId);
+            touchedCarts.add(state.cartId);
 
-        Cart cart = cartRepository.findByUser(user)
-                .orElseGet(() -> createCartForUser(user));
+            Cart cart = cartRepository.findByUserIdWithItems(userId)
+                    .orElseThrow(() -> new IllegalStateException("User does not have a cart"));
+            CartItem cartItem = cart.getItems().stream()
+                    .filter(item -> item.getProduct().getId().equals(productId))
+                    .findFirst()
+                    .orElseThrow(() -> new ProductNotFoundException("Product not in cart"));
 
-        CartItem cartItem = cartItemRepository.findByCartAndProduct(cart, product)
-                .orElse(new CartItem());
+            // Hold the units for this cart; throwing rolls the upsert back
+            stockReservationService.reserve(cart.getId(), productId,
+                    hotInventoryService.effectiveStock(cartItem.getProduct()), cartItem.getQuantity());
 
-        if (cartItem.getId() == null) { // New item
-            cartItem.setCart(cart);
-            cartItem.setProduct(product);
-            cartItem.setQuantity(quantity);
-            cartItem.setPrice(product.getPrice()); // **FIX: Lock in the price**
-            cart.getItems().add(cartItem);
-        } else { // Existing item
-            int newQuantity = cartItem.getQuantity() + quantity;
-            if (product.getStockQuantity() < newQuantity) {
-                throw new InsufficientStockException("Not enough stock for product with id: " + productId);
-            }
-            cartItem.setQuantity(newQuantity);
+            state.lines.clear();
+            addLines(state, cart);
+            return state.toDTO();
         }
-
-        cartItemRepository.save(cartItem);
-        return convertToCartDTO(cart);
     }
 
     @Override
@@ -78,50 +126,264 @@ public class CartServiceImpl implements CartService {
             return removeProductFromCart(userId, productId);
         }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+        CartState state = cartState(userId);
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
-        Cart cart = cartRepository.findByUser(user)
-                .orElseThrow(() -> new IllegalStateException("User does not have a cart"));
 
-        CartItem cartItem = cartItemRepository.findByCartAndProduct(cart, product)
-                .orElseThrow(() -> new ProductNotFoundException("Product not in cart"));
+        synchronized (state) {
+            CartLine line = state.lines.get(productId);
+            if (line == null) {
+                throw new ProductNotFoundException("Product not in cart");
+            }
+
+            stockReservationService.reserve(state.cartId, productId, hotInventoryService.effectiveStock(product), quantity);
 
-        if (product.getStockQuantity() < quantity) {
-            throw new InsufficientStockException("Not enough stock for product with id: " + productId);
+            line.quantity = quantity;
+            markDirty(state, productId);
+            return state.toDTO();
         }
+    }
 
-        cartItem.setQuantity(quantity);
-        cartItemRepository.save(cartItem);
+    @Override
+    public CartDTO removeProductFromCart(Long userId, Long productId) {
+        CartState state = cartState(userId);
+        synchronized (state) {
+            CartLine line = state.lines.remove(productId);
+            if (line == null) {
+                throw new ProductNotFoundException("Product not in cart");
+            }
+            stockReservationService.release(state.cartId, productId);
 
-        return convertToCartDTO(cart);
+            // A dirty product with no line left is deleted by the flush
+            markDirty(state, productId);
+            return state.toDTO();
+        }
     }
 
     @Override
-    public CartDTO removeProductFromCart(Long userId, Long productId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
-        Cart cart = cartRepository.findByUser(user)
-                .orElseThrow(() -> new IllegalStateException("User does not have a cart"));
+    public void clearCart(Long userId) {
+        CartState state = cartState(userId);
+        synchronized (state) {
+            // Written through: pending edits are dropped and the rows deleted with the caller's transaction
+            Cart cart = cartRepository.getReferenceById(state.cartId);
+            cartItemRepository.deleteAllByCart(cart);
+            stockReservationService.releaseAll(state.cartId);
+
+            state.lines.clear();
+            state.dirtyProducts.clear();
+            dirtyUsers.remove(userId);
+            touchedCarts.add(state.cartId);
+        }
+        evictOnRollback(userId);
+    }
+
+    @Override
+    public CartDTO applyOperations(Long userId, List<CartOperationDTO> operations) {
+        CartState state = cartState(userId);
+        Set<Long> productIds = operations.stream().map(CartOperationDTO::getProductId).collect(Collectors.toSet());
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
 
-        CartItem cartItem = cartItemRepository.findByCartAndProduct(cart, product)
-                .orElseThrow(() -> new ProductNotFoundException("Product not in cart"));
+        synchronized (state) {
+            // Resulting quantity per touched product, starting from the current lines
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            for (CartOperationDTO operation : operations) {
+                Long productId = operation.getProductId();
+                CartLine line = state.lines.get(productId);
+                int current = quantities.getOrDefault(productId, line == null ? 0 : line.quantity);
+                quantities.put(productId, switch (operation.getType()) {
+                    case ADD -> current + operation.getQuantity();
+                    case SET -> operation.getQuantity();
+                    case REMOVE -> 0;
+                });
+            }
+
+            List<LineWrite> writes = new ArrayList<>(quantities.size());
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                Long productId = entry.getKey();
+                int quantity = entry.getValue();
+                CartLine line = state.lines.get(productId);
+                if (quantity > 0) {
+                    Product product = products.get(productId);
+                    if (product == null) {
+                        throw new ProductNotFoundException("Product not found with id: " + productId);
+                    }
+                    stockReservationService.reserve(state.cartId, productId, hotInventoryService.effectiveStock(product), quantity);
+                    writes.add(new LineWrite(productId, quantity, line != null ? line.price : product.getPrice()));
+                } else if (line != null) {
+                    stockReservationService.release(state.cartId, productId);
+                    writes.add(new LineWrite(productId, 0, null));
+                }
+            }
 
-        cart.getItems().remove(cartItem);
-        cartItemRepository.delete(cartItem);
+            // Buffered edits go out first, then every line change as one JDBC batch in this transaction
+            flushState(state);
+            cartItemRepository.writeLines(state.cartId, writes);
+            evictOnRollback(userId);
+            touchedCarts.add(state.cartId);
 
-        return convertToCartDTO(cart);
+            for (LineWrite write : writes) {
+                CartLine line = state.lines.get(write.productId());
+                if (write.quantity() == 0) {
+                    state.lines.remove(write.productId());
+                } else if (line != null) {
+                    line.quantity = write.quantity();
+                } else {
+                    state.lines.put(write.productId(), new CartLine(null, write.productId(),
+                            products.get(write.productId()).getName(), write.price(), write.quantity()));
+                }
+            }
+            return state.toDTO();
+        }
     }
 
     @Override
-    public void clearCart(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
-        cartRepository.findByUser(user).ifPresent(cart -> {
-            cartItemRepository.deleteAllByCart(cart);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void flushCart(Long userId) {
+        CartState state = carts.get(userId);
+        if (state == null) {
+            state = evictedDirty.get(userId);
+        }
+        if (state != null) {
+            flushState(state);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.cache.flush-interval-ms:1000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void flushDirtyCarts() {
+        for (Long userId : new ArrayList<>(dirtyUsers)) {
+            try {
+                flushCart(userId);
+            } catch (RuntimeException e) {
+                // Lines stay dirty and are retried on the next run
+                log.warn("Failed to flush cart of user {}", userId, e);
+            }
+        }
+        flushTouches(new ArrayList<>(touchedCarts));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void evictCarts(Collection<Long> cartIds) {
+        Set<Long> ids = new HashSet<>(cartIds);
+        List<CartState> cached = new ArrayList<>();
+        carts.snapshot().values().stream().filter(state -> ids.contains(state.cartId)).forEach(cached::add);
+        evictedDirty.values().stream().filter(state -> ids.contains(state.cartId)).forEach(cached::add);
+
+        for (CartState state : cached) {
+            flushState(state);
+            carts.remove(state.userId);
+        }
+        flushTouches(ids.stream().filter(touchedCarts::contains).toList());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void forgetCarts(Collection<Long> cartIds) {
+        if (cartIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>(cartIds);
+        // Counted before removing, so a load that cached its state after the removal sees it
+        forgetCount.incrementAndGet();
+        carts.removeIf((userId, state) -> ids.contains(state.cartId));
+        evictedDirty.values().removeIf(state -> ids.contains(state.cartId));
+        touchedCarts.removeAll(ids);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flushDirtyCarts();
+    }
+
+    // Writes the cart's dirty lines in their own transaction, so a later rollback cannot lose them
+    private void flushState(CartState state) {
+        synchronized (state) {
+            if (state.isDirty()) {
+                List<LineWrite> writes = new ArrayList<>(state.dirtyProducts.size());
+                for (Long productId : state.dirtyProducts) {
+                    CartLine line = state.lines.get(productId);
+                    writes.add(line != null
+                            ? new LineWrite(productId, line.quantity, line.price)
+                            : new LineWrite(productId, 0, null));
+                }
+                flushTransaction.executeWithoutResult(status -> cartItemRepository.writeLines(state.cartId, writes));
+                state.dirtyProducts.clear();
+            }
+            dirtyUsers.remove(state.userId);
+            evictedDirty.remove(state.userId, state);
+        }
+    }
+
+    // One UPDATE for all carts written since the last run
+    private void flushTouches(List<Long> cartIds) {
+        if (cartIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        flushTransaction.executeWithoutResult(status -> cartRepository.touch(cartIds, now));
+        cartIds.forEach(touchedCarts::remove);
+    }
+
+    private CartState cartState(Long userId) {
+        CartState state = carts.get(userId);
+        if (state != null) {
+            return state;
+        }
+        state = evictedDirty.get(userId);
+        if (state != null) {
+            return carts.putIfAbsent(userId, state);
+        }
+        while (true) {
+            long forgets = forgetCount.get();
+            CartState loaded = loadCartState(userId);
+            CartState cached = carts.putIfAbsent(userId, loaded);
+            if (cached != loaded || forgetCount.get() == forgets) {
+                return cached;
+            }
+            // Its row may have been deleted after it was read; drop it unless a writer already picked it up
+            carts.removeIf((key, candidate) -> candidate == loaded && !candidate.isDirty());
+        }
+    }
+
+    private CartState loadCartState(Long userId) {
+        Cart cart = cartRepository.findByUserIdWithItems(userId)
+                .orElseGet(() -> createCartForUser(userRepository.findById(userId)
+                        .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId))));
+
+        CartState state = new CartState(userId, cart.getId());
+        addLines(state, cart);
+        return state;
+    }
+
+    private void addLines(CartState state, Cart cart) {
+        for (CartItem item : cart.getItems()) {
+            CartItemDTO itemDTO = convertToCartItemDTO(item);
+            state.lines.put(itemDTO.getProductId(), new CartLine(itemDTO.getId(), itemDTO.getProductId(),
+                    itemDTO.getProductName(), itemDTO.getPrice(), itemDTO.getQuantity()));
+        }
+    }
+
+    private void markDirty(CartState state, Long productId) {
+        state.dirtyProducts.add(productId);
+        touchedCarts.add(state.cartId);
+        dirtyUsers.add(state.userId);
+    }
+
+    // If the surrounding transaction rolls back, the cached cart no longer matches the rows
+    private void evictOnRollback(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    carts.remove(userId);
+                    evictedDirty.remove(userId);
+                }
+            }
         });
     }
 
@@ -131,41 +393,64 @@ public class CartServiceImpl implements CartService {
         return cartRepository.save(newCart);
     }
 
-    private CartDTO convertToCartDTO(Cart cart) {
-        CartDTO cartDTO = new CartDTO();
-        cartDTO.setId(cart.getId());
+    private CartItemDTO convertToCartItemDTO(CartItem cartItem) {
+        return cartMapper.toCartItemDTO(cartItem);
+    }
 
-        List<CartItemDTO> itemDTOs = new ArrayList<>();
-        BigDecimal totalPrice = BigDecimal.ZERO;
+    private static final class CartState {
+        final Long userId;
+        final Long cartId;
+        final Map<Long, CartLine> lines = new LinkedHashMap<>();
+        // Products whose line changed since the last flush
+        final Set<Long> dirtyProducts = new HashSet<>();
 
-        // **FIX: Single, efficient loop for conversion and calculation**
-        for (CartItem item : cart.getItems()) {
-            CartItemDTO itemDTO = convertToCartItemDTO(item);
-            itemDTOs.add(itemDTO);
-            if (itemDTO.getPrice() != null) {
-                totalPrice = totalPrice.add(itemDTO.getPrice().multiply(BigDecimal.valueOf(itemDTO.getQuantity())));
-            }
+        CartState(Long userId, Long cartId) {
+            this.userId = userId;
+            this.cartId = cartId;
         }
 
-        cartDTO.setItems(itemDTOs);
-        cartDTO.setTotalPrice(totalPrice);
+        boolean isDirty() {
+            return !dirtyProducts.isEmpty();
+        }
 
-        return cartDTO;
-    }
+        CartDTO toDTO() {
+            CartDTO cartDTO = new CartDTO();
+            cartDTO.setId(cartId);
 
-    private CartItemDTO convertToCartItemDTO(CartItem cartItem) {
-        CartItemDTO cartItemDTO = modelMapper.map(cartItem, CartItemDTO.class);
-        cartItemDTO.setProductId(cartItem.getProduct().getId());
-        cartItemDTO.setProductName(cartItem.getProduct().getName());
+            List<CartItemDTO> itemDTOs = new ArrayList<>(lines.size());
+            BigDecimal totalPrice = BigDecimal.ZERO;
+            for (CartLine line : lines.values()) {
+                CartItemDTO itemDTO = new CartItemDTO();
+                itemDTO.setId(line.itemId);
+                itemDTO.setProductId(line.productId);
+                itemDTO.setProductName(line.productName);
+                itemDTO.setPrice(line.price);
+                itemDTO.setQuantity(line.quantity);
+                itemDTOs.add(itemDTO);
+                if (line.price != null) {
+                    totalPrice = totalPrice.add(line.price.multiply(BigDecimal.valueOf(line.quantity)));
+                }
+            }
 
-        // **FIX: Use locked-in price with fallback for backward compatibility**
-        if (cartItem.getPrice() != null) {
-            cartItemDTO.setPrice(cartItem.getPrice());
-        } else {
-            // Fallback for old data where price wasn't saved on CartItem
-            cartItemDTO.setPrice(cartItem.getProduct().getPrice());
+            cartDTO.setItems(itemDTOs);
+            cartDTO.setTotalPrice(totalPrice);
+            return cartDTO;
         }
+    }
 
-        return cartItemDTO;
+    private static final class CartLine {
+        final Long itemId;
+        final Long productId;
+        final String productName;
+        final BigDecimal price;
+        int quantity;
+
+        CartLine(Long itemId, Long productId, String productName, BigDecimal price, int quantity) {
+            this.itemId = itemId;
+            this.productId = productId;
+            this.productName = productName;
+            this.price = price;
+            this.quantity = quantity;
+        }
     }
 }
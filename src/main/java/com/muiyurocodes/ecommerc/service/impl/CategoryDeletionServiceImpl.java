@@ -0,0 +1,206 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import com.muiyurocodes.ecommerc.dto.CategoryDeletionJobDTO;
+import com.muiyurocodes.ecommerc.dto.CategoryDeletionJobDTO.Status;
+import com.muiyurocodes.ecommerc.event.CategoryChangedEvent;
+import com.muiyurocodes.ecommerc.exception.CategoryDeletionJobNotFoundException;
+import com.muiyurocodes.ecommerc.exception.CategoryNotFoundException;
+import com.muiyurocodes.ecommerc.exception.InvalidCategoryDeletionException;
+import com.muiyurocodes.ecommerc.repository.CategoryRepository;
+import com.muiyurocodes.ecommerc.repository.ProductRepository;
+import com.muiyurocodes.ecommerc.service.CategoryDeletionService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Products are moved off the category with set-based {@code UPDATE ... LIMIT} statements, one
+ * short transaction per chunk, so no request thread waits on them and row locks are held only
+ * briefly. The category row goes in a final transaction that also sweeps up products added to
+ * it meanwhile. Jobs run one at a time and are tracked in memory on the instance that took the
+ * request; finished jobs are kept for a retention period so their outcome can be read back.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryDeletionServiceImpl implements CategoryDeletionService {
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${category.delete.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${category.delete.job-retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "category-delete");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public synchronized CategoryDeletionJobDTO deleteCategory(Long categoryId, Long reassignTo) {
+        if (Objects.equals(categoryId, reassignTo)) {
+            throw new InvalidCategoryDeletionException("Products cannot be reassigned to the category being deleted");
+        }
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new CategoryNotFoundException("Category not found with id: " + categoryId);
+        }
+        if (reassignTo != null && !categoryRepository.existsById(reassignTo)) {
+            throw new CategoryNotFoundException("Category not found with id: " + reassignTo);
+        }
+        // Otherwise the job would fail on its first chunk, after the request was accepted
+        if (reassignTo == null && !productRepository.isCategoryNullable()) {
+            throw new InvalidCategoryDeletionException("Products cannot be left without a category until "
+                    + "products.category_id allows nulls (ALTER TABLE products MODIFY category_id BIGINT NULL); "
+                    + "pass reassignTo to move them to another category instead");
+        }
+        pruneFinishedJobs();
+        for (Job job : jobs.values()) {
+            if (job.categoryId.equals(categoryId) && job.isActive()) {
+                return job.toDTO();
+            }
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), categoryId, reassignTo);
+        jobs.put(job.id, job);
+        executor.execute(() -> run(job));
+        log.info("Queued deletion of category {} as job {}", categoryId, job.id);
+        return job.toDTO();
+    }
+
+    @Override
+    public CategoryDeletionJobDTO getJob(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new CategoryDeletionJobNotFoundException("Category deletion job not found with id: " + jobId);
+        }
+        return job.toDTO();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(Job job) {
+        long started = System.nanoTime();
+        job.start(productRepository.countByCategoryId(job.categoryId));
+        try {
+            int moved;
+            do {
+                moved = moveChunk(job);
+            } while (moved == chunkSize);
+
+            // Products added since the last chunk are moved in the same transaction as the delete
+            transactionTemplate.executeWithoutResult(status -> {
+                int stragglers;
+                while ((stragglers = productRepository.reassignCategory(job.categoryId, job.reassignTo, chunkSize)) > 0) {
+                    job.moved(stragglers);
+                }
+                categoryRepository.deleteById(job.categoryId);
+                eventPublisher.publishEvent(new CategoryChangedEvent(job.categoryId));
+            });
+            job.finish(null);
+            log.info("Deleted category {} (job {}), moved {} products in {} ms", job.categoryId, job.id,
+                    job.productsMoved, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            job.finish(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            log.error("Deletion of category {} (job {}) failed after moving {} products", job.categoryId, job.id,
+                    job.productsMoved, e);
+        }
+    }
+
+    private int moveChunk(Job job) {
+        Integer moved = transactionTemplate.execute(status -> {
+            int count = productRepository.reassignCategory(job.categoryId, job.reassignTo, chunkSize);
+            if (count > 0) {
+                // Moved products drop out of the catalog caches and search index as each chunk commits
+                eventPublisher.publishEvent(new CategoryChangedEvent(job.categoryId));
+            }
+            return count;
+        });
+        job.moved(moved);
+        return moved;
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isFinishedBefore(cutoff));
+    }
+
+    private static final class Job {
+
+        private final String id;
+        private final Long categoryId;
+        private final Long reassignTo;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private Status status = Status.QUEUED;
+        private long productsTotal;
+        private long productsMoved;
+        private String error;
+        private LocalDateTime finishedAt;
+
+        Job(String id, Long categoryId, Long reassignTo) {
+            this.id = id;
+            this.categoryId = categoryId;
+            this.reassignTo = reassignTo;
+        }
+
+        synchronized void start(long productsTotal) {
+            this.status = Status.RUNNING;
+            this.productsTotal = productsTotal;
+        }
+
+        synchronized void moved(int count) {
+            productsMoved += count;
+            // The total was counted up front; products added since then also get moved
+            productsTotal = Math.max(productsTotal, productsMoved);
+        }
+
+        synchronized void finish(String error) {
+            this.status = error == null ? Status.COMPLETED : Status.FAILED;
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        synchronized boolean isActive() {
+            return status == Status.QUEUED || status == Status.RUNNING;
+        }
+
+        synchronized boolean isFinishedBefore(LocalDateTime cutoff) {
+            return finishedAt != null && finishedAt.isBefore(cutoff);
+        }
+
+        synchronized CategoryDeletionJobDTO toDTO() {
+            CategoryDeletionJobDTO dto = new CategoryDeletionJobDTO();
+            dto.setJobId(id);
+            dto.setCategoryId(categoryId);
+            dto.setReassignTo(reassignTo);
+            dto.setStatus(status);
+            dto.setProductsTotal(productsTotal);
+            dto.setProductsMoved(productsMoved);
+            dto.setError(error);
+            dto.setSubmittedAt(submittedAt);
+            dto.setFinishedAt(finishedAt);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.muiyurocodes.ecommerc.cache.LruCache;
+import com.muiyurocodes.ecommerc.dto.CartDTO;
+import com.muiyurocodes.ecommerc.dto.CartItemDTO;
+import com.muiyurocodes.ecommerc.dto.CartOperationDTO;
+import com.muiyurocodes.ecommerc.exception.GuestCartNotFoundException;
+import com.muiyurocodes.ecommerc.exception.InsufficientStockException;
+import com.muiyurocodes.ecommerc.exception.InvalidCartQuantityException;
+import com.muiyurocodes.ecommerc.exception.ProductNotFoundException;
+import com.muiyurocodes.ecommerc.model.Product;
+import com.muiyurocodes.ecommerc.repository.ProductRepository;
+import com.muiyurocodes.ecommerc.service.CartService;
+import com.muiyurocodes.ecommerc.service.GuestCartService;
+import com.muiyurocodes.ecommerc.service.HotInventoryService;
+import com.muiyurocodes.ecommerc.service.StockReservationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Guest carts live in a bounded LRU map with a sliding TTL; the least recently used cart is
+ * dropped when the map is full, so anonymous traffic cannot grow the carts table or the heap.
+ * When {@code cart.guest.snapshot-file} is set, the map is written to that file periodically
+ * and on shutdown, and read back at startup.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class GuestCartServiceImpl implements GuestCartService {
+
+    private static final SecureRandom TOKEN_RANDOM = new SecureRandom();
+
+    private final ProductRepository productRepository;
+    private final HotInventoryService hotInventoryService;
+    private final StockReservationService stockReservationService;
+    private final CartService cartService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${cart.guest.max-entries:50000}")
+    private int maxEntries;
+
+    @Value("${cart.guest.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${cart.guest.snapshot-file:}")
+    private String snapshotFile;
+
+    private LruCache<String, GuestCart> carts;
+
+    @PostConstruct
+    void init() {
+        carts = new LruCache<>(maxEntries, (token, cart) -> { });
+        loadSnapshot();
+    }
+
+    @Override
+    public String createCart() {
+        byte[] bytes = new byte[24];
+        TOKEN_RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        carts.put(token, new GuestCart(System.currentTimeMillis()));
+        return token;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CartDTO getCart(String token) {
+        GuestCart cart = findCart(token);
+        synchronized (cart) {
+            return cart.toDTO();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CartDTO addProduct(String token, Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new InvalidCartQuantityException("Quantity must be at least 1");
+        }
+
+        GuestCart cart = findCart(token);
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found for id: " + productId));
+
+        synchronized (cart) {
+            GuestLine line = cart.lines.get(productId);
+            int newQuantity = line == null ? quantity : line.quantity() + quantity;
+            checkAvailable(product, newQuantity);
+            // Price is locked in when the product is first added, as for user carts
+            BigDecimal price = line == null ? product.getPrice() : line.price();
+            cart.lines.put(productId, new GuestLine(product.getName(), price, newQuantity));
+            return cart.toDTO();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CartDTO updateItem(String token, Long productId, int quantity) {
+        if (quantity <= 0) {
+            return removeProduct(token, productId);
+        }
+
+        GuestCart cart = findCart(token);
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
+
+        synchronized (cart) {
+            GuestLine line = cart.lines.get(productId);
+            if (line == null) {
+                throw new ProductNotFoundException("Product not in cart");
+            }
+            checkAvailable(product, quantity);
+            cart.lines.put(productId, new GuestLine(line.productName(), line.price(), quantity));
+            return cart.toDTO();
+        }
+    }
+
+    @Override
+    public CartDTO removeProduct(String token, Long productId) {
+        GuestCart cart = findCart(token);
+        synchronized (cart) {
+            if (cart.lines.remove(productId) == null) {
+                throw new ProductNotFoundException("Product not in cart");
+            }
+            return cart.toDTO();
+        }
+    }
+
+    @Override
+    public void clearCart(String token) {
+        GuestCart cart = findCart(token);
+        synchronized (cart) {
+            cart.lines.clear();
+        }
+    }
+
+    @Override
+    public void mergeIntoUserCart(String token, Long userId) {
+        GuestCart cart = carts.remove(token);
+        if (cart == null || cart.isExpired(System.currentTimeMillis(), ttlMillis())) {
+            return;
+        }
+
+        List<CartOperationDTO> operations = new ArrayList<>();
+        synchronized (cart) {
+            cart.lines.forEach((productId, line) -> {
+                // Operations built here skip bean validation, so keep only real lines
+                if (line.quantity() <= 0) {
+                    return;
+                }
+                CartOperationDTO operation = new CartOperationDTO();
+                operation.setType(CartOperationDTO.Type.ADD);
+                operation.setProductId(productId);
+                operation.setQuantity(line.quantity());
+                operations.add(operation);
+            });
+        }
+        if (operations.isEmpty()) {
+            return;
+        }
+
+        try {
+            cartService.applyOperations(userId, operations);
+        } catch (RuntimeException e) {
+            // Keep the guest cart so the client can retry or fix the offending line
+            carts.put(token, cart);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.guest.sweep-interval-ms:60000}")
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        int removed = carts.removeIf((token, cart) -> cart.isExpired(now, ttlMillis()));
+        if (removed > 0) {
+            log.debug("Removed {} expired guest carts", removed);
+        }
+        writeSnapshot();
+    }
+
+    @PreDestroy
+    void snapshotOnShutdown() {
+        writeSnapshot();
+    }
+
+    private GuestCart findCart(String token) {
+        long now = System.currentTimeMillis();
+        GuestCart cart = carts.get(token);
+        if (cart == null || cart.isExpired(now, ttlMillis())) {
+            carts.remove(token);
+            throw new GuestCartNotFoundException("Guest cart not found or expired");
+        }
+        cart.lastAccessed = now;
+        return cart;
+    }
+
+    // Guests do not hold stock, but they cannot take units other carts are holding
+    private void checkAvailable(Product product, int quantity) {
+        int available = stockReservationService.availableToPromise(product.getId(),
+                hotInventoryService.effectiveStock(product), null);
+        if (quantity > available) {
+            throw new InsufficientStockException("Not enough stock for product with id: " + product.getId());
+        }
+    }
+
+    private long ttlMillis() {
+        return Duration.ofMinutes(ttlMinutes).toMillis();
+    }
+
+    private void writeSnapshot() {
+        if (snapshotFile.isBlank()) {
+            return;
+        }
+        Map<String, CartSnapshot> snapshot = new LinkedHashMap<>();
+        carts.snapshot().forEach((token, cart) -> {
+            synchronized (cart) {
+                snapshot.put(token, new CartSnapshot(cart.lastAccessed, new LinkedHashMap<>(cart.lines)));
+            }
+        });
+
+        // Write to a sibling file and move it into place, so a crash never leaves a half-written snapshot
+        Path target = Path.of(snapshotFile).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(target.getParent());
+            objectMapper.writeValue(temp.toFile(), snapshot);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write guest cart snapshot to {}", target, e);
+        }
+    }
+
+    private void loadSnapshot() {
+        if (snapshotFile.isBlank() || !Files.exists(Path.of(snapshotFile))) {
+            return;
+        }
+        try {
+            Map<String, CartSnapshot> snapshot = objectMapper.readValue(Path.of(snapshotFile).toFile(),
+                    new TypeReference<LinkedHashMap<String, CartSnapshot>>() { });
+            long now = System.currentTimeMillis();
+            snapshot.forEach((token, entry) -> {
+                GuestCart cart = new GuestCart(entry.lastAccessed());
+                if (!cart.isExpired(now, ttlMillis())) {
+                    cart.lines.putAll(entry.lines());
+                    carts.put(token, cart);
+                }
+            });
+            log.info("Restored {} guest carts from {}", carts.size(), snapshotFile);
+        } catch (IOException e) {
+            log.warn("Failed to read guest cart snapshot from {}", snapshotFile, e);
+        }
+    }
+
+    private static final class GuestCart {
+        final Map<Long, GuestLine> lines = new LinkedHashMap<>();
+        volatile long lastAccessed;
+
+        GuestCart(long lastAccessed) {
+            this.lastAccessed = lastAccessed;
+        }
+
+        boolean isExpired(long now, long ttlMillis) {
+            return now - lastAccessed > ttlMillis;
+        }
+
+        CartDTO toDTO() {
+            CartDTO cartDTO = new CartDTO();
+            List<CartItemDTO> itemDTOs = new ArrayList<>(lines.size());
+            BigDecimal totalPrice = BigDecimal.ZERO;
+            for (Map.Entry<Long, GuestLine> entry : lines.entrySet()) {
+                GuestLine line = entry.getValue();
+                CartItemDTO itemDTO = new CartItemDTO();
+                itemDTO.setProductId(entry.getKey());
+                itemDTO.setProductName(line.productName());
+                itemDTO.setPrice(line.price());
+                itemDTO.setQuantity(line.quantity());
+                itemDTOs.add(itemDTO);
+                if (line.price() != null) {
+                    totalPrice = totalPrice.add(line.price().multiply(BigDecimal.valueOf(line.quantity())));
+                }
+            }
+            cartDTO.setItems(itemDTOs);
+            cartDTO.setTotalPrice(totalPrice);
+            return cartDTO;
+        }
+    }
+
+    record GuestLine(String productName, BigDecimal price, int quantity) {
+    }
+
+    record CartSnapshot(long lastAccessed, Map<Long, GuestLine> lines) {
+    }
+}
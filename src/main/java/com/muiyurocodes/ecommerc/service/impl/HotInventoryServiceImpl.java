@@ -0,0 +1,304 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import com.muiyurocodes.ecommerc.dto.HotInventoryStatusDTO;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent.Source;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent.StockChange;
+import com.muiyurocodes.ecommerc.exception.InvalidInventoryModeException;
+import com.muiyurocodes.ecommerc.exception.ProductNotFoundException;
+import com.muiyurocodes.ecommerc.model.InventoryJournalEntry;
+import com.muiyurocodes.ecommerc.model.Product;
+import com.muiyurocodes.ecommerc.repository.InventoryJournalRepository;
+import com.muiyurocodes.ecommerc.repository.ProductRepository;
+import com.muiyurocodes.ecommerc.service.HotInventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Counters are per application instance, so hot mode assumes checkouts for a hot product
+ * are served by a single instance. The journal is written in the checkout transaction,
+ * which makes the counter recoverable after a crash as row stock minus pending entries.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class HotInventoryServiceImpl implements HotInventoryService {
+
+    private final ProductRepository productRepository;
+    private final InventoryJournalRepository inventoryJournalRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${inventory.hot.stripes:16}")
+    private int stripes;
+
+    @Value("${inventory.hot.flush-batch-size:5000}")
+    private int flushBatchSize;
+
+    @Value("${inventory.hot.disable-timeout-ms:30000}")
+    private long disableTimeoutMs;
+
+    private final Map<Long, StripedCounter> counters = new ConcurrentHashMap<>();
+    // Products whose counter disable() has closed but not yet settled
+    private final Set<Long> disabling = ConcurrentHashMap.newKeySet();
+
+    // In-memory reads: join a caller's transaction but never start one, since search and
+    // catalog reads call these once per product
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean isHot(Long productId) {
+        return counters.containsKey(productId);
+    }
+
+    @Override
+    public TakeResult tryTake(Long productId, int quantity) {
+        StripedCounter counter = counters.get(productId);
+        if (counter == null || !counter.enter()) {
+            return TakeResult.NOT_HOT;
+        }
+        int taken = 0;
+        try {
+            if (!counter.tryTake(quantity)) {
+                return TakeResult.INSUFFICIENT;
+            }
+            taken = quantity;
+            inventoryJournalRepository.save(new InventoryJournalEntry(productId, quantity, Instant.now()));
+            return TakeResult.TAKEN;
+        } finally {
+            exitOnCompletion(counter, taken);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int effectiveStock(Product product) {
+        Integer hotStock = hotStock(product.getId());
+        return hotStock != null ? hotStock : product.getStockQuantity();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Integer hotStock(Long productId) {
+        StripedCounter counter = counters.get(productId);
+        return counter != null ? counter.total() : null;
+    }
+
+    @Override
+    public void setStock(Long productId, int stockQuantity) {
+        StripedCounter counter = counters.get(productId);
+        if (counter == null) {
+            throw new IllegalStateException("Product " + productId + " is not in hot inventory mode");
+        }
+        // Applied as a delta so units taken concurrently are not overwritten
+        int delta = stockQuantity - counter.total();
+        counter.add(delta);
+        onRollback(() -> counter.add(-delta));
+        productRepository.adjustStock(new TreeMap<>(Map.of(productId, delta)));
+    }
+
+    @Override
+    public boolean adjustStock(Long productId, int delta) {
+        StripedCounter counter = counters.get(productId);
+        if (counter == null) {
+            throw new IllegalStateException("Product " + productId + " is not in hot inventory mode");
+        }
+        if (delta < 0) {
+            if (!counter.tryTake(-delta)) {
+                return false;
+            }
+        } else {
+            counter.add(delta);
+        }
+        onRollback(() -> counter.add(-delta));
+        productRepository.adjustStock(new TreeMap<>(Map.of(productId, delta)));
+        return true;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${inventory.hot.flush-interval-ms:1000}")
+    public int flush() {
+        List<InventoryJournalEntry> pending = inventoryJournalRepository.lockPending(flushBatchSize);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        SortedMap<Long, Integer> deltas = new TreeMap<>();
+        for (InventoryJournalEntry entry : pending) {
+            deltas.merge(entry.getProductId(), -entry.getQuantity(), Integer::sum);
+        }
+        // Entries of products that left hot mode meanwhile were already applied by disable()
+        productRepository.adjustHotStock(deltas);
+        inventoryJournalRepository.deleteAllByIdInBatch(pending.stream()
+                .map(InventoryJournalEntry::getId)
+                .collect(Collectors.toList()));
+        log.debug("Flushed {} hot inventory journal entries for {} products", pending.size(), deltas.size());
+        return pending.size();
+    }
+
+    @Override
+    public HotInventoryStatusDTO enable(Long productId) {
+        // Lock the row so checkouts that already decremented it are visible before seeding the counter
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
+        if (product.getStockShards() > 0) {
+            throw new InvalidInventoryModeException(
+                    "Product " + productId + " has sharded stock; merge its shards before enabling hot inventory");
+        }
+        if (!counters.containsKey(productId)) {
+            // Checked after the counter: disable() marks the product before removing it
+            if (disabling.contains(productId)) {
+                throw new InvalidInventoryModeException(
+                        "Product " + productId + " is leaving hot inventory mode; try enabling it again");
+            }
+            long pending = inventoryJournalRepository.sumPendingByProductId(productId);
+            counters.put(productId, new StripedCounter(stripes, (int) (product.getStockQuantity() - pending)));
+            onRollback(() -> counters.remove(productId));
+            product.setHotInventory(true);
+            productRepository.save(product);
+            eventPublisher.publishEvent(new StockChangedEvent(List.of(StockChange.delta(productId, 0)), Source.HOT_INVENTORY));
+            log.info("Product {} switched to hot inventory mode", productId);
+        }
+        return new HotInventoryStatusDTO(productId, true, counters.get(productId).total());
+    }
+
+    // Not transactional itself: the counter is drained before the settling transaction starts
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public HotInventoryStatusDTO disable(Long productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new ProductNotFoundException("Product not found with id: " + productId);
+        }
+        StripedCounter counter = counters.get(productId);
+        if (counter == null) {
+            return new HotInventoryStatusDTO(productId, false, null);
+        }
+        if (!disabling.add(productId)) {
+            throw new InvalidInventoryModeException("Product " + productId + " is already leaving hot inventory mode");
+        }
+        try {
+            // New checkouts now get NOT_HOT. The ones already taking from the counter are drained
+            // before the row is locked: each still needs a shared lock on it (the order_items
+            // foreign key check) before it can commit and leave the counter
+            counter.close();
+            counters.remove(productId);
+            try {
+                awaitCheckouts(productId, counter);
+                transactionTemplate.executeWithoutResult(status -> settle(productId, counter));
+            } catch (RuntimeException e) {
+                counter.reopen();
+                counters.put(productId, counter);
+                throw e;
+            }
+        } finally {
+            disabling.remove(productId);
+        }
+        return new HotInventoryStatusDTO(productId, false, null);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<HotInventoryStatusDTO> getHotProducts() {
+        return counters.entrySet().stream()
+                .map(entry -> new HotInventoryStatusDTO(entry.getKey(), true, entry.getValue().total()))
+                .collect(Collectors.toList());
+    }
+
+    // Rebuilds counters for products that were hot before a restart
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadHotProducts() {
+        for (Product product : productRepository.findByHotInventoryTrue()) {
+            long pending = inventoryJournalRepository.sumPendingByProductId(product.getId());
+            counters.put(product.getId(), new StripedCounter(stripes, (int) (product.getStockQuantity() - pending)));
+        }
+        if (!counters.isEmpty()) {
+            log.info("Restored hot inventory counters for {} products", counters.size());
+        }
+    }
+
+    // Writes back what was taken in memory and puts the row back in row mode; every take is journaled by now
+    private void settle(Long productId, StripedCounter counter) {
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
+        // Entries a running flush() holds are counted here and skipped there, its write is hot-only
+        long taken = inventoryJournalRepository.sumPendingByProductId(productId);
+        if (taken > 0) {
+            productRepository.adjustStock(new TreeMap<>(Map.of(productId, (int) -taken)));
+        }
+        List<InventoryJournalEntry> unclaimed = inventoryJournalRepository.lockPendingByProductId(productId);
+        if (!unclaimed.isEmpty()) {
+            inventoryJournalRepository.deleteAllByIdInBatch(unclaimed.stream()
+                    .map(InventoryJournalEntry::getId)
+                    .collect(Collectors.toList()));
+        }
+        product.setHotInventory(false);
+        productRepository.save(product);
+        // The row now holds what the counter had
+        eventPublisher.publishEvent(new StockChangedEvent(List.of(StockChange.set(productId, counter.total())),
+                Source.HOT_INVENTORY));
+        log.info("Product {} switched back to row inventory", productId);
+    }
+
+    private void awaitCheckouts(Long productId, StripedCounter counter) {
+        try {
+            if (counter.awaitIdle(disableTimeoutMs)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new InvalidInventoryModeException(
+                "Checkouts of product " + productId + " are still running; try switching it back again");
+    }
+
+    // Keeps the counter entered until the checkout's transaction ends, returning a rolled back take
+    private void exitOnCompletion(StripedCounter counter, int taken) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counter.exit();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK && taken > 0) {
+                    counter.add(taken);
+                }
+                counter.exit();
+            }
+        });
+    }
+
+    private void onRollback(Runnable undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    undo.run();
+                }
+            }
+        });
+    }
+}
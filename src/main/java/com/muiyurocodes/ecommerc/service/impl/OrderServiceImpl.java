@@ -1,29 +1,53 @@
 package com.muiyurocodes.ecommerc.service.impl;
 
 import com.muiyurocodes.ecommerc.dto.*;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent.Source;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent.StockChange;
 import com.muiyurocodes.ecommerc.exception.InsufficientStockException;
+import com.muiyurocodes.ecommerc.exception.ProductNotFoundException;
 import com.muiyurocodes.ecommerc.exception.UserNotFoundException;
+import com.muiyurocodes.ecommerc.mapper.OrderMapper;
 import com.muiyurocodes.ecommerc.model.*;
+import com.muiyurocodes.ecommerc.repository.DailyCustomerSalesRepository;
+import com.muiyurocodes.ecommerc.repository.DailyProductSalesRepository;
+import com.muiyurocodes.ecommerc.repository.DailySalesRepository;
 import com.muiyurocodes.ecommerc.repository.OrderRepository;
 import com.muiyurocodes.ecommerc.repository.ProductRepository;
 import com.muiyurocodes.ecommerc.repository.UserRepository;
+import com.muiyurocodes.ecommerc.retry.RetryOnConflict;
 import com.muiyurocodes.ecommerc.service.CartService;
+import com.muiyurocodes.ecommerc.service.HotInventoryService;
+import com.muiyurocodes.ecommerc.service.HotInventoryService.TakeResult;
 import com.muiyurocodes.ecommerc.service.OrderService;
 import com.muiyurocodes.ecommerc.service.ProductService;
+import com.muiyurocodes.ecommerc.service.SalesRollupService;
+import com.muiyurocodes.ecommerc.service.ShardedInventoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,26 +61,112 @@ public class OrderServiceImpl implements OrderService {
     private final ProductRepository productRepository;
     private final CartService cartService;
     private final ProductService productService;
-    private final ModelMapper modelMapper;
-
+    private final HotInventoryService hotInventoryService;
+    private final ShardedInventoryService shardedInventoryService;
+    private final SalesRollupService salesRollupService;
+    private final DailySalesRepository dailySalesRepository;
+    private final DailyProductSalesRepository dailyProductSalesRepository;
+    private final DailyCustomerSalesRepository dailyCustomerSalesRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderMapper orderMapper;
+
+    @Value("${admin.dashboard.max-age-ms:60000}")
+    private long dashboardMaxAgeMs;
+
+    // Last computed dashboard, refreshed in the background so admin polling never hits the tables directly
+    private final AtomicReference<DashboardDTO> dashboardSnapshot = new AtomicReference<>();
+    private final AtomicBoolean dashboardStale = new AtomicBoolean(true);
+
+    // READ COMMITTED: guarded stock UPDATEs that match no row release their lock (see ShardedInventoryServiceImpl)
     @Override
+    @RetryOnConflict
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public OrderDTO placeOrder(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
 
-        com.muiyurocodes.ecommerc.dto.CartDTO cartDTO = cartService.getCartForUser(userId);
+        // Persist buffered cart edits so the rows match what the order is built from
+        cartService.flushCart(userId);
+        CartDTO cartDTO = cartService.getCartForUser(userId);
         if (cartDTO.getItems().isEmpty()) {
             throw new IllegalStateException("Cannot place an order with an empty cart.");
         }
 
-        // 1. Validate stock for all items
-        for (com.muiyurocodes.ecommerc.dto.CartItemDTO item : cartDTO.getItems()) {
-            productRepository.findByIdAndStockQuantityGreaterThan(item.getProductId(), item.getQuantity() - 1)
-                    .orElseThrow(() -> new InsufficientStockException(
-                            "Not enough stock for product: " + item.getProductName()));
+        // 1. Load every product in the cart with one query
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (CartItemDTO item : cartDTO.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        for (Long productId : quantities.keySet()) {
+            if (!products.containsKey(productId)) {
+                throw new ProductNotFoundException("Product not found with id: " + productId);
+            }
         }
 
-        // 2. Create and save the order
+        // 2. Take stock: hot products from their in-memory counters, sharded products from their
+        //    stock shards, the rest with guarded row updates. Any shortfall fails (and rolls back)
+        //    the whole order.
+        List<Long> insufficient = new ArrayList<>();
+        SortedMap<Long, Integer> rowQuantities = new TreeMap<>();
+        List<StockChange> hotTakes = new ArrayList<>();
+        List<StockChange> shardedTakes = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            // NOT_HOT covers a product leaving hot mode between isHot() and the take
+            TakeResult hotTake = hotInventoryService.isHot(productId)
+                    ? hotInventoryService.tryTake(productId, quantity)
+                    : TakeResult.NOT_HOT;
+            if (hotTake == TakeResult.TAKEN) {
+                hotTakes.add(StockChange.delta(productId, -quantity));
+            } else if (hotTake == TakeResult.INSUFFICIENT) {
+                insufficient.add(productId);
+            } else if (products.get(productId).getStockShards() > 0) {
+                if (shardedInventoryService.tryTake(productId, quantity)) {
+                    shardedTakes.add(StockChange.delta(productId, -quantity));
+                } else {
+                    insufficient.add(productId);
+                }
+            } else {
+                rowQuantities.put(productId, quantity);
+            }
+        });
+        if (insufficient.isEmpty() && !rowQuantities.isEmpty()) {
+            for (Long productId : productRepository.decrementStock(rowQuantities)) {
+                // The row refuses hot products; one that went hot since it was read takes from its counter
+                int quantity = rowQuantities.get(productId);
+                TakeResult hotTake = hotInventoryService.tryTake(productId, quantity);
+                if (hotTake == TakeResult.TAKEN) {
+                    hotTakes.add(StockChange.delta(productId, -quantity));
+                } else if (hotTake == TakeResult.NOT_HOT && products.get(productId).isHotInventory()) {
+                    // Hot when read but its counter is being drained: the row is back shortly, start over
+                    throw new OptimisticLockingFailureException(
+                            "Product " + productId + " is switching inventory mode");
+                } else {
+                    insufficient.add(productId);
+                }
+            }
+            hotTakes.forEach(change -> rowQuantities.remove(change.productId()));
+        }
+        if (!insufficient.isEmpty()) {
+            String names = insufficient.stream()
+                    .map(productId -> products.get(productId).getName())
+                    .collect(Collectors.joining(", "));
+            throw new InsufficientStockException("Not enough stock for product: " + names);
+        }
+        if (!rowQuantities.isEmpty()) {
+            eventPublisher.publishEvent(new StockChangedEvent(rowQuantities.entrySet().stream()
+                    .map(entry -> StockChange.delta(entry.getKey(), -entry.getValue()))
+                    .collect(Collectors.toList()), Source.ORDER));
+        }
+        if (!hotTakes.isEmpty()) {
+            eventPublisher.publishEvent(new StockChangedEvent(hotTakes, Source.HOT_ORDER));
+        }
+        if (!shardedTakes.isEmpty()) {
+            eventPublisher.publishEvent(new StockChangedEvent(shardedTakes, Source.SHARDED_ORDER));
+        }
+
+        // 3. Create the order and its items
         Order order = new Order();
         order.setUser(user);
         order.setOrderDate(LocalDateTime.now());
@@ -66,9 +176,8 @@ public class OrderServiceImpl implements OrderService {
         List<OrderItem> orderItems = new ArrayList<>();
         BigDecimal totalPrice = BigDecimal.ZERO;
 
-        // 3. Create OrderItems and decrement stock
-        for (com.muiyurocodes.ecommerc.dto.CartItemDTO cartItemDTO : cartDTO.getItems()) {
-            Product product = productRepository.findById(cartItemDTO.getProductId()).get(); // Already validated stock
+        for (CartItemDTO cartItemDTO : cartDTO.getItems()) {
+            Product product = products.get(cartItemDTO.getProductId());
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
             orderItem.setProduct(product);
@@ -77,20 +186,20 @@ public class OrderServiceImpl implements OrderService {
             orderItems.add(orderItem);
 
             totalPrice = totalPrice.add(product.getPrice().multiply(BigDecimal.valueOf(cartItemDTO.getQuantity())));
-
-            // Decrement stock
-            product.setStockQuantity(product.getStockQuantity() - cartItemDTO.getQuantity());
-            productRepository.save(product);
         }
 
         order.setOrderItems(orderItems);
         order.setTotalPrice(totalPrice);
 
+        // 4. Save the order
         Order savedOrder = orderRepository.save(order);
+        salesRollupService.recordOrder(savedOrder);
 
-        // 4. Clear the cart
+        // 5. Clear the cart
         cartService.clearCart(userId);
 
+        markDashboardStale();
+
         return convertToOrderDTO(savedOrder);
     }
 
@@ -111,58 +220,62 @@ public class OrderServiceImpl implements OrderService {
     }
 
     private OrderDTO convertToOrderDTO(Order order) {
-        OrderDTO orderDTO = modelMapper.map(order, OrderDTO.class);
-        orderDTO.setUserId(order.getUser().getId());
-        List<OrderItemDTO> itemDTOs = order.getOrderItems().stream()
-                .map(item -> modelMapper.map(item, OrderItemDTO.class))
-                .collect(Collectors.toList());
-        orderDTO.setOrderItems(itemDTOs);
-        return orderDTO;
+        return orderMapper.toOrderDTO(order);
     }
 
     // Admin dashboard and reporting methods
 
     @Override
     public DashboardDTO getDashboardStats() {
-        // Get total sales
-        BigDecimal totalSales = orderRepository.findAll().stream()
-                .map(Order::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Serve the last snapshot; only the very first request computes it inline
+        DashboardDTO snapshot = dashboardSnapshot.get();
+        if (snapshot == null) {
+            snapshot = computeDashboardStats();
+            dashboardSnapshot.set(snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Recomputes the dashboard snapshot when an order event marked it stale, or when it
+     * is older than the configured maximum age (new users and stock levels change outside
+     * the order flow).
+     */
+    @Scheduled(fixedDelayString = "${admin.dashboard.refresh-interval-ms:10000}")
+    @Transactional(readOnly = true)
+    public void refreshDashboardSnapshot() {
+        DashboardDTO current = dashboardSnapshot.get();
+        boolean expired = current == null
+                || current.getGeneratedAt().plus(Duration.ofMillis(dashboardMaxAgeMs)).isBefore(LocalDateTime.now());
+        if (dashboardStale.getAndSet(false) || expired) {
+            dashboardSnapshot.set(computeDashboardStats());
+        }
+    }
 
-        // Get order count
+    private DashboardDTO computeDashboardStats() {
+        LocalDateTime generatedAt = LocalDateTime.now();
+
+        // Sales statistics (database-side aggregates)
+        BigDecimal totalSales = orderRepository.sumTotalPrice();
         long orderCount = orderRepository.count();
 
-        // Calculate average order value
         BigDecimal averageOrderValue = orderCount > 0
-                ? totalSales.divide(BigDecimal.valueOf(orderCount), 2, BigDecimal.ROUND_HALF_UP)
+                ? totalSales.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP)
                 : BigDecimal.ZERO;
 
-        // Get user count
+        // User statistics
         long userCount = userRepository.count();
+        long newUsersToday = userRepository.countByCreatedAtGreaterThanEqual(generatedAt.toLocalDate().atStartOfDay());
 
-        // Get new users today
-        LocalDate today = LocalDate.now();
-        // This is a placeholder - in a real implementation, you would query users
-        // created today
-        long newUsersToday = 5; // Placeholder value
-
-        // Get product count
+        // Product statistics
         long productCount = productRepository.count();
+        List<ProductResponseDTO> lowStockProducts = productService.getLowStockProducts(null);
 
-        // Get low stock products
-        List<ProductResponseDTO> lowStockProducts = productService.getLowStockProducts(5);
-
-        // Get recent orders (last 5)
-        List<Order> recentOrders = orderRepository.findAll().stream()
-                .sorted(Comparator.comparing(Order::getOrderDate).reversed())
-                .limit(5)
-                .collect(Collectors.toList());
-
-        List<OrderDTO> recentOrderDTOs = recentOrders.stream()
+        // Recent orders (top-N query on order_date)
+        List<OrderDTO> recentOrderDTOs = orderRepository.findTop5ByOrderByOrderDateDesc().stream()
                 .map(this::convertToOrderDTO)
                 .collect(Collectors.toList());
 
-        // Build and return the dashboard DTO
         return DashboardDTO.builder()
                 .totalSales(totalSales)
                 .orderCount(orderCount)
@@ -172,9 +285,24 @@ public class OrderServiceImpl implements OrderService {
                 .productCount(productCount)
                 .lowStockProducts(lowStockProducts)
                 .recentOrders(recentOrderDTOs)
+                .generatedAt(generatedAt)
                 .build();
     }
 
+    // Marks the dashboard snapshot stale once the current transaction commits
+    private void markDashboardStale() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dashboardStale.set(true);
+                }
+            });
+        } else {
+            dashboardStale.set(true);
+        }
+    }
+
     @Override
     public SalesReportDTO getSalesReport(LocalDate startDate, LocalDate endDate, String groupBy) {
         // Validate input
@@ -182,37 +310,15 @@ public class OrderServiceImpl implements OrderService {
             throw new IllegalArgumentException("Start date must be before end date");
         }
 
-        // Get all orders in the date range
-        List<Order> orders = orderRepository.findAll().stream()
-                .filter(order -> {
-                    LocalDate orderDate = order.getOrderDate().toLocalDate();
-                    return !orderDate.isBefore(startDate) && !orderDate.isAfter(endDate);
-                })
-                .collect(Collectors.toList());
-
-        // Calculate total sales and orders
-        BigDecimal totalSales = orders.stream()
-                .map(Order::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        long totalOrders = orders.size();
-
-        // Calculate average order value
-        BigDecimal averageOrderValue = totalOrders > 0
-                ? totalSales.divide(BigDecimal.valueOf(totalOrders), 2, BigDecimal.ROUND_HALF_UP)
-                : BigDecimal.ZERO;
-
-        // Group sales by period (day, week, or month)
-        Map<String, BigDecimal> salesByPeriod = new LinkedHashMap<>();
-        Map<String, Long> ordersByPeriod = new LinkedHashMap<>();
-
         DateTimeFormatter formatter;
         switch (groupBy.toLowerCase()) {
             case "week":
                 formatter = DateTimeFormatter.ofPattern("yyyy-'W'w");
+                groupBy = "week";
                 break;
             case "month":
                 formatter = DateTimeFormatter.ofPattern("yyyy-MM");
+                groupBy = "month";
                 break;
             case "day":
             default:
@@ -220,6 +326,10 @@ public class OrderServiceImpl implements OrderService {
                 groupBy = "day"; // Default to day if invalid
         }
 
+        // Group sales by period (day, week, or month)
+        Map<String, BigDecimal> salesByPeriod = new LinkedHashMap<>();
+        Map<String, Long> ordersByPeriod = new LinkedHashMap<>();
+
         // Initialize periods
         LocalDate current = startDate;
         while (!current.isAfter(endDate)) {
@@ -240,65 +350,41 @@ public class OrderServiceImpl implements OrderService {
             }
         }
 
-        // Populate data
-        for (Order order : orders) {
-            String periodKey = order.getOrderDate().toLocalDate().format(formatter);
-
-            // Update sales for period
-            BigDecimal currentSales = salesByPeriod.get(periodKey);
-            salesByPeriod.put(periodKey, currentSales.add(order.getTotalPrice()));
-
-            // Update order count for period
-            Long currentOrders = ordersByPeriod.get(periodKey);
-            ordersByPeriod.put(periodKey, currentOrders + 1);
+        // Merge the day rollups into the requested buckets
+        BigDecimal totalSales = BigDecimal.ZERO;
+        long totalOrders = 0;
+        for (DailySalesRepository.DayTotal day : dailySalesRepository.findDayTotals(startDate, endDate)) {
+            String periodKey = day.getSalesDate().format(formatter);
+            salesByPeriod.merge(periodKey, day.getRevenue(), BigDecimal::add);
+            ordersByPeriod.merge(periodKey, day.getOrderCount(), Long::sum);
+            totalSales = totalSales.add(day.getRevenue());
+            totalOrders += day.getOrderCount();
         }
 
-        // Calculate top selling products
-        Map<Long, BigDecimal> productSales = new HashMap<>();
-        Map<Long, String> productNames = new HashMap<>();
-
-        for (Order order : orders) {
-            for (OrderItem item : order.getOrderItems()) {
-                Long productId = item.getProduct().getId();
-                String productName = item.getProduct().getName();
-                BigDecimal itemTotal = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-
-                productNames.put(productId, productName);
-                productSales.merge(productId, itemTotal, BigDecimal::add);
-            }
-        }
+        // Calculate average order value
+        BigDecimal averageOrderValue = totalOrders > 0
+                ? totalSales.divide(BigDecimal.valueOf(totalOrders), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
 
-        List<SalesReportDTO.ProductSalesDTO> topSellingProducts = productSales.entrySet().stream()
-                .map(entry -> new SalesReportDTO.ProductSalesDTO(
-                        entry.getKey(),
-                        productNames.get(entry.getKey()),
-                        1L, // Placeholder for quantity sold
-                        entry.getValue()))
-                .sorted(Comparator.comparing(SalesReportDTO.ProductSalesDTO::getTotalRevenue).reversed())
-                .limit(5)
+        // Top selling products and top spending customers over the same day rollups
+        Pageable topFive = PageRequest.of(0, 5);
+        List<SalesReportDTO.ProductSalesDTO> topSellingProducts = dailyProductSalesRepository
+                .findTopProducts(startDate, endDate, topFive).stream()
+                .map(total -> new SalesReportDTO.ProductSalesDTO(
+                        total.getProductId(),
+                        total.getProductName(),
+                        total.getUnitsSold(),
+                        total.getRevenue()))
                 .collect(Collectors.toList());
 
-        // Calculate top spending customers
-        Map<Long, BigDecimal> customerSales = new HashMap<>();
-        Map<Long, String> customerNames = new HashMap<>();
-
-        for (Order order : orders) {
-            Long userId = order.getUser().getId();
-            String userName = order.getUser().getFirstName() + " " + order.getUser().getLastName();
-
-            customerNames.put(userId, userName);
-            customerSales.merge(userId, order.getTotalPrice(), BigDecimal::add);
-        }
-
-        List<SalesReportDTO.CustomerSalesDTO> topSpendingCustomers = customerSales.entrySet().stream()
-                .map(entry -> new SalesReportDTO.CustomerSalesDTO(
-                        entry.getKey(),
-                        "", // Placeholder for user email
-                        customerNames.get(entry.getKey()),
-                        1L, // Placeholder for order count
-                        entry.getValue()))
-                .sorted(Comparator.comparing(SalesReportDTO.CustomerSalesDTO::getTotalSpent).reversed())
-                .limit(5)
+        List<SalesReportDTO.CustomerSalesDTO> topSpendingCustomers = dailyCustomerSalesRepository
+                .findTopCustomers(startDate, endDate, topFive).stream()
+                .map(total -> new SalesReportDTO.CustomerSalesDTO(
+                        total.getUserId(),
+                        total.getUserEmail(),
+                        total.getUserName(),
+                        total.getOrderCount(),
+                        total.getTotalSpent()))
                 .collect(Collectors.toList());
 
         // Build and return the sales report DTO
@@ -332,24 +418,32 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @RetryOnConflict
     public OrderDTO updateOrderStatus(Long orderId, String status) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
 
+        String previousStatus = order.getStatus();
         order.setStatus(status);
         Order updatedOrder = orderRepository.save(order);
+        salesRollupService.applyStatusChange(updatedOrder, previousStatus, status);
+        markDashboardStale();
 
         return convertToOrderDTO(updatedOrder);
     }
 
     @Override
+    @RetryOnConflict
     public void updateOrderStatusFromWebhook(Long orderId, String status) {
 
         Optional<Order> orderOpt = orderRepository.findById(orderId);
         if (orderOpt.isPresent()) {
             Order order = orderOpt.get();
+            String previousStatus = order.getStatus();
             order.setStatus(status);
             orderRepository.save(order);
+            salesRollupService.applyStatusChange(order, previousStatus, status);
+            markDashboardStale();
         } else {
             // better logging in order to track issues and prevent silent failures
             log.error("Could not find order with ID: {}", orderId);
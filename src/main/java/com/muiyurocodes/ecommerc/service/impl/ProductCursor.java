@@ -0,0 +1,51 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import com.muiyurocodes.ecommerc.exception.InvalidPageRequestException;
+import com.muiyurocodes.ecommerc.repository.ProductRepositoryCustom.SortKey;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Continuation token for keyset product listings: the sort settings plus the (sort value, id)
+ * of the last row served, base64url-encoded so clients treat it as opaque.
+ */
+record ProductCursor(SortKey sortKey, boolean descending, String value, long id) {
+
+    static ProductCursor after(SortKey sortKey, boolean descending, Object sortValue, long id) {
+        String value = sortValue instanceof BigDecimal decimal ? decimal.toPlainString() : String.valueOf(sortValue);
+        return new ProductCursor(sortKey, descending, value, id);
+    }
+
+    static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The value goes last since names may contain the separator
+            String[] parts = raw.split(":", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            ProductCursor cursor = new ProductCursor(SortKey.valueOf(parts[0]), "d".equals(parts[1]),
+                    parts[3], Long.parseLong(parts[2]));
+            cursor.typedValue(); // Rejects values that do not parse for the sort key
+            return cursor;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException("Invalid cursor");
+        }
+    }
+
+    String encode() {
+        String raw = sortKey.name() + ":" + (descending ? "d" : "a") + ":" + id + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // The sort value in the type the query compares against
+    Object typedValue() {
+        return switch (sortKey) {
+            case ID -> id;
+            case NAME -> value;
+            case PRICE -> new BigDecimal(value);
+        };
+    }
+}
@@ -0,0 +1,150 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.muiyurocodes.ecommerc.dto.HotInventoryStatusDTO;
+import com.muiyurocodes.ecommerc.repository.ProductRepository;
+import com.muiyurocodes.ecommerc.repository.ProductRepositoryCustom.CatalogRow;
+import com.muiyurocodes.ecommerc.service.CatalogFormat;
+import com.muiyurocodes.ecommerc.service.HotInventoryService;
+import com.muiyurocodes.ecommerc.service.ProductExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Rows go from the JDBC cursor straight to the output stream without being collected, so heap
+ * use does not depend on catalog size. Stock of hot-inventory products is taken from their
+ * in-memory counters as of the start of the export, as in the catalog reads.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductExportServiceImpl implements ProductExportService {
+
+    private static final String CSV_HEADER = "id,name,description,price,stockQuantity,categoryId,categoryName,imageUrl";
+
+    private final ProductRepository productRepository;
+    private final HotInventoryService hotInventoryService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public long exportProducts(OutputStream out, CatalogFormat format) {
+        long started = System.nanoTime();
+        long[] rows = new long[1];
+        // Few products are hot; one lookup map avoids a service call per row
+        Map<Long, Integer> hotStock = hotInventoryService.getHotProducts().stream()
+                .collect(Collectors.toMap(HotInventoryStatusDTO::getProductId, HotInventoryStatusDTO::getStockQuantity));
+        try {
+            if (format == CatalogFormat.CSV) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                stream(row -> {
+                    writeCsv(writer, row, hotStock);
+                    rows[0]++;
+                });
+                writer.flush();
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+                generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+                stream(row -> {
+                    writeJson(generator, row, hotStock);
+                    rows[0]++;
+                });
+                if (rows[0] > 0) {
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write product export", e);
+        }
+        log.info("Exported {} products as {} in {} ms", rows[0], format, (System.nanoTime() - started) / 1_000_000);
+        return rows[0];
+    }
+
+    private void stream(RowWriter writer) {
+        Consumer<CatalogRow> action = row -> {
+            try {
+                writer.write(row);
+            } catch (IOException e) {
+                // Usually the client went away; abandons the cursor
+                throw new UncheckedIOException(e);
+            }
+        };
+        productRepository.forEachCatalogRow(action);
+    }
+
+    private void writeJson(JsonGenerator generator, CatalogRow row, Map<Long, Integer> hotStock) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", row.id());
+        generator.writeStringField("name", row.name());
+        generator.writeStringField("description", row.description());
+        generator.writeFieldName("price");
+        if (row.price() != null) {
+            generator.writeNumber(row.price());
+        } else {
+            generator.writeNull();
+        }
+        generator.writeNumberField("stockQuantity", hotStock.getOrDefault(row.id(), row.stockQuantity()));
+        generator.writeFieldName("categoryId");
+        if (row.categoryId() != null) {
+            generator.writeNumber(row.categoryId());
+        } else {
+            generator.writeNull();
+        }
+        generator.writeStringField("categoryName", row.categoryName());
+        generator.writeStringField("imageUrl", row.imageUrl());
+        generator.writeEndObject();
+    }
+
+    private void writeCsv(Writer writer, CatalogRow row, Map<Long, Integer> hotStock) throws IOException {
+        writer.write(Long.toString(row.id()));
+        writer.write(',');
+        writeCsvField(writer, row.name());
+        writer.write(',');
+        writeCsvField(writer, row.description());
+        writer.write(',');
+        writer.write(row.price() != null ? row.price().toPlainString() : "");
+        writer.write(',');
+        writer.write(Integer.toString(hotStock.getOrDefault(row.id(), row.stockQuantity())));
+        writer.write(',');
+        writer.write(row.categoryId() != null ? row.categoryId().toString() : "");
+        writer.write(',');
+        writeCsvField(writer, row.categoryName());
+        writer.write(',');
+        writeCsvField(writer, row.imageUrl());
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(CatalogRow row) throws IOException;
+    }
+}
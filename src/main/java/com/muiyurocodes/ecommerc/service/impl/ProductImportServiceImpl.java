@@ -0,0 +1,313 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.muiyurocodes.ecommerc.dto.ProductImportErrorDTO;
+import com.muiyurocodes.ecommerc.dto.ProductImportResultDTO;
+import com.muiyurocodes.ecommerc.dto.ProductImportRowDTO;
+import com.muiyurocodes.ecommerc.event.CatalogImportedEvent;
+import com.muiyurocodes.ecommerc.exception.InvalidImportException;
+import com.muiyurocodes.ecommerc.model.Category;
+import com.muiyurocodes.ecommerc.repository.CategoryRepository;
+import com.muiyurocodes.ecommerc.repository.ProductRepository;
+import com.muiyurocodes.ecommerc.repository.ProductRepositoryCustom.ProductRow;
+import com.muiyurocodes.ecommerc.service.CatalogFormat;
+import com.muiyurocodes.ecommerc.service.ProductImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Reads the body one record at a time and writes products in JDBC batches of a configured size,
+ * each batch in its own transaction, so memory stays flat and a failure only costs one batch.
+ * Rows are validated and their categories resolved against a map loaded once per import;
+ * rejected rows are reported with their row number. If the database rejects a batch, its rows
+ * are retried one by one to pin the error on the offending rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${product.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${product.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Override
+    public ProductImportResultDTO importProducts(InputStream body, CatalogFormat format) {
+        long started = System.nanoTime();
+        CategoryLookup categories = new CategoryLookup(categoryRepository.findAll());
+        ProductImportResultDTO result = new ProductImportResultDTO();
+        List<ProductRow> batch = new ArrayList<>(batchSize);
+        List<Long> batchRowNumbers = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16)) {
+            RowSource rows = format == CatalogFormat.CSV ? csvRows(reader) : ndjsonRows(reader);
+            long rowNumber = 0;
+            while (true) {
+                ProductRow row;
+                try {
+                    ProductImportRowDTO parsed = rows.next();
+                    if (parsed == null) {
+                        break;
+                    }
+                    rowNumber++;
+                    row = toRow(parsed, categories);
+                } catch (RowException e) {
+                    rowNumber++;
+                    reject(result, rowNumber, e.getMessage());
+                    continue;
+                }
+                batch.add(row);
+                batchRowNumbers.add(rowNumber);
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, batchRowNumbers, result);
+                }
+            }
+            result.setRowsRead(rowNumber);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read product import body", e);
+        } finally {
+            // Rows parsed before a read failure are still written
+            if (!batch.isEmpty()) {
+                writeBatch(batch, batchRowNumbers, result);
+            }
+            if (result.getImported() + result.getPartial() > 0) {
+                eventPublisher.publishEvent(new CatalogImportedEvent(result.getImported() + result.getPartial()));
+            }
+        }
+
+        log.info("Imported {} of {} product rows ({} partly, {} failed) in {} batches, {} ms",
+                result.getImported(), result.getRowsRead(), result.getPartial(), result.getFailed(), result.getBatches(),
+                (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    private void writeBatch(List<ProductRow> batch, List<Long> rowNumbers, ProductImportResultDTO result) {
+        result.setBatches(result.getBatches() + 1);
+        Set<Long> stockManaged = stockManagedIds(batch);
+        try {
+            int[] counts = transactionTemplate.execute(status -> productRepository.writeProducts(batch));
+            for (int i = 0; i < batch.size(); i++) {
+                record(result, batch.get(i), rowNumbers.get(i), counts[i], stockManaged);
+            }
+        } catch (DataAccessException batchFailure) {
+            for (int i = 0; i < batch.size(); i++) {
+                List<ProductRow> single = List.of(batch.get(i));
+                try {
+                    int[] counts = transactionTemplate.execute(status -> productRepository.writeProducts(single));
+                    record(result, batch.get(i), rowNumbers.get(i), counts[0], stockManaged);
+                } catch (DataAccessException rowFailure) {
+                    reject(result, rowNumbers.get(i), NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+        batch.clear();
+        rowNumbers.clear();
+    }
+
+    // Existing products whose stock lives in hot or sharded inventory; the import leaves it alone
+    private Set<Long> stockManagedIds(List<ProductRow> batch) {
+        List<Long> ids = batch.stream().map(ProductRow::id).filter(Objects::nonNull).toList();
+        return ids.isEmpty() ? Set.of() : new HashSet<>(productRepository.findStockManagedIds(ids));
+    }
+
+    private void record(ProductImportResultDTO result, ProductRow row, long rowNumber, int updateCount,
+                        Set<Long> stockManaged) {
+        if (row.id() != null && updateCount == 0) {
+            reject(result, rowNumber, "Product not found with id: " + row.id() + "; omit the id to create a product");
+        } else if (row.id() != null && stockManaged.contains(row.id())) {
+            result.setPartial(result.getPartial() + 1);
+            if (result.getWarnings().size() < maxErrors) {
+                result.getWarnings().add(new ProductImportErrorDTO(rowNumber,
+                        "stockQuantity not imported: the product's stock is managed by hot or sharded inventory"));
+            }
+        } else {
+            result.setImported(result.getImported() + 1);
+        }
+    }
+
+    private void reject(ProductImportResultDTO result, long rowNumber, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new ProductImportErrorDTO(rowNumber, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private ProductRow toRow(ProductImportRowDTO row, CategoryLookup categories) throws RowException {
+        String name = trimToNull(row.getName());
+        if (name == null) {
+            throw new RowException("name is required");
+        }
+        // Same rule as ProductDTO
+        if (row.getPrice() == null || row.getPrice().signum() <= 0) {
+            throw new RowException("price is required and must be greater than zero");
+        }
+        int stockQuantity = row.getStockQuantity() != null ? row.getStockQuantity() : 0;
+        if (stockQuantity < 0) {
+            throw new RowException("stockQuantity must not be negative");
+        }
+        checkLength("name", name);
+        checkLength("description", row.getDescription());
+        checkLength("imageUrl", row.getImageUrl());
+        return new ProductRow(row.getId(), name, row.getDescription(), row.getPrice(), stockQuantity,
+                categories.resolve(row.getCategoryId(), row.getCategoryName()), trimToNull(row.getImageUrl()));
+    }
+
+    private static void checkLength(String field, String value) throws RowException {
+        if (value != null && value.length() > MAX_TEXT_LENGTH) {
+            throw new RowException(field + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+    }
+
+    private RowSource ndjsonRows(BufferedReader reader) {
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            try {
+                return objectMapper.readValue(line, ProductImportRowDTO.class);
+            } catch (JsonProcessingException e) {
+                throw new RowException("Invalid JSON: " + e.getOriginalMessage());
+            }
+        };
+    }
+
+    private RowSource csvRows(BufferedReader reader) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new InvalidImportException("CSV body is empty; expected a header row");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(columnKey(header.get(i)), i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")
+                || !(columns.containsKey("categoryid") || columns.containsKey("categoryname"))) {
+            throw new InvalidImportException("CSV header must contain name, price and categoryId or categoryName");
+        }
+        return () -> {
+            List<String> fields = csv.next();
+            if (fields == null) {
+                return null;
+            }
+            ProductImportRowDTO row = new ProductImportRowDTO();
+            try {
+                row.setId(parseLong(field(fields, columns, "id")));
+                row.setName(field(fields, columns, "name"));
+                row.setDescription(field(fields, columns, "description"));
+                String price = field(fields, columns, "price");
+                row.setPrice(price != null ? new BigDecimal(price) : null);
+                String stock = field(fields, columns, "stockquantity");
+                row.setStockQuantity(stock != null ? Integer.valueOf(stock) : null);
+                row.setCategoryId(parseLong(field(fields, columns, "categoryid")));
+                row.setCategoryName(field(fields, columns, "categoryname"));
+                row.setImageUrl(field(fields, columns, "imageurl"));
+            } catch (NumberFormatException e) {
+                throw new RowException("Invalid number: " + e.getMessage());
+            }
+            return row;
+        };
+    }
+
+    // "stock_quantity", "Stock Quantity" and "stockQuantity" all name the same column
+    private static String columnKey(String header) {
+        return header.replaceAll("[\\s_\\-]", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String key) {
+        Integer index = columns.get(key);
+        return index == null || index >= fields.size() ? null : trimToNull(fields.get(index));
+    }
+
+    private static Long parseLong(String value) {
+        return value != null ? Long.valueOf(value) : null;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        // Null at end of input
+        ProductImportRowDTO next() throws IOException, RowException;
+    }
+
+    private static final class RowException extends Exception {
+        RowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * All categories by id and by case-insensitive name, loaded once per import.
+     */
+    private static final class CategoryLookup {
+
+        private final Set<Long> ids = new HashSet<>();
+        private final Map<String, Long> idsByName = new HashMap<>();
+
+        CategoryLookup(List<Category> categories) {
+            for (Category category : categories) {
+                ids.add(category.getId());
+                if (category.getName() != null) {
+                    idsByName.putIfAbsent(category.getName().trim().toLowerCase(Locale.ROOT), category.getId());
+                }
+            }
+        }
+
+        Long resolve(Long categoryId, String categoryName) throws RowException {
+            if (categoryId != null) {
+                if (!ids.contains(categoryId)) {
+                    throw new RowException("Category not found with id: " + categoryId);
+                }
+                return categoryId;
+            }
+            String name = trimToNull(categoryName);
+            if (name == null) {
+                throw new RowException("categoryId or categoryName is required");
+            }
+            Long id = idsByName.get(name.toLowerCase(Locale.ROOT));
+            if (id == null) {
+                throw new RowException("Category not found with name: " + name);
+            }
+            return id;
+        }
+    }
+}
@@ -1,65 +1,101 @@
 package com.muiyurocodes.ecommerc.service.impl;
 
+import com.muiyurocodes.ecommerc.cache.CatalogCache;
+import com.muiyurocodes.ecommerc.cache.CatalogETags;
 import com.muiyurocodes.ecommerc.dto.*;
+import com.muiyurocodes.ecommerc.event.CategoryChangedEvent;
+import com.muiyurocodes.ecommerc.event.ProductChangedEvent;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent.Source;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent.StockChange;
 import com.muiyurocodes.ecommerc.exception.CategoryNotFoundException;
+import com.muiyurocodes.ecommerc.exception.InvalidLowStockThresholdException;
+import com.muiyurocodes.ecommerc.exception.InvalidPageRequestException;
 import com.muiyurocodes.ecommerc.exception.ProductNotFoundException;
+import com.muiyurocodes.ecommerc.inventory.LowStockIndex;
+import com.muiyurocodes.ecommerc.mapper.CatalogMapper;
 import com.muiyurocodes.ecommerc.model.Category;
 import com.muiyurocodes.ecommerc.model.Product;
 import com.muiyurocodes.ecommerc.repository.CategoryRepository;
 import com.muiyurocodes.ecommerc.repository.ProductRepository;
+import com.muiyurocodes.ecommerc.repository.ProductRepositoryCustom.SortKey;
+import com.muiyurocodes.ecommerc.repository.ProductRepositoryCustom.SortKeyRow;
+import com.muiyurocodes.ecommerc.search.FacetCounts;
+import com.muiyurocodes.ecommerc.search.ProductSearchIndex;
+import com.muiyurocodes.ecommerc.search.ProductSearchIndex.SearchResult;
+import com.muiyurocodes.ecommerc.service.HotInventoryService;
 import com.muiyurocodes.ecommerc.service.ProductService;
+import com.muiyurocodes.ecommerc.service.ShardedInventoryService;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final HotInventoryService hotInventoryService;
+    private final ShardedInventoryService shardedInventoryService;
+    private final CatalogCache catalogCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final LowStockIndex lowStockIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogMapper catalogMapper;
+    // Request DTO to entity only; responses go through the generated mappers
     private final ModelMapper modelMapper;
 
     @Override
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
         Category category = modelMapper.map(categoryDTO, Category.class);
         Category savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getId()));
+        return catalogMapper.toCategoryDTO(savedCategory);
     }
 
     @Override
     public List<CategoryDTO> getAllCategories() {
-        return categoryRepository.findAll().stream()
-                .map(category -> modelMapper.map(category, CategoryDTO.class))
-                .collect(Collectors.toList());
+        return catalogCache.allCategories(() -> catalogMapper.toCategoryDTOs(categoryRepository.findAll()));
     }
 
     @Override
     public CategoryDTO getCategoryById(Long categoryId) {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new CategoryNotFoundException("Category not found with id: " + categoryId));
-        return modelMapper.map(category, CategoryDTO.class);
+        CategoryDTO category = catalogCache.category(categoryId, this::loadCategoryDTO);
+        if (category == null) {
+            throw new CategoryNotFoundException("Category not found with id: " + categoryId);
+        }
+        return category;
     }
 
     @Override
-    public void deleteCategory(Long categoryId) {
-        if (!categoryRepository.existsById(categoryId)) {
+    public String getCategoryETag(Long categoryId) {
+        String eTag = catalogCache.categoryETag(categoryId, this::loadCategoryDTO);
+        if (eTag == null) {
             throw new CategoryNotFoundException("Category not found with id: " + categoryId);
         }
-        // Note: This logic might need adjustment based on desired behavior for products
-        // in a deleted category.
-        // Here, we are disassociating products from the category.
-        productRepository.findByCategoryId(categoryId).forEach(product -> {
-            product.setCategory(null);
-            productRepository.save(product);
-        });
-        categoryRepository.deleteById(categoryId);
+        return eTag;
     }
 
     @Override
@@ -72,56 +108,128 @@ public class ProductServiceImpl implements ProductService {
         product.setCategory(category);
 
         Product savedProduct = productRepository.save(product);
-        return modelMapper.map(savedProduct, ProductResponseDTO.class);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId(), category.getId(), null));
+        eventPublisher.publishEvent(new StockChangedEvent(
+                List.of(StockChange.set(savedProduct.getId(), savedProduct.getStockQuantity())), Source.PRODUCT_UPDATE));
+        return toResponseDTO(savedProduct);
     }
 
     @Override
     public ProductResponseDTO getProductById(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
-        return modelMapper.map(product, ProductResponseDTO.class);
+        ProductResponseDTO product = catalogCache.product(productId, this::loadCachedDTO);
+        if (product == null) {
+            throw new ProductNotFoundException("Product not found with id: " + productId);
+        }
+        return withLiveStock(product);
     }
 
     @Override
-    public List<ProductResponseDTO> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(product -> modelMapper.map(product, ProductResponseDTO.class))
-                .collect(Collectors.toList());
+    public String getProductETag(Long productId) {
+        String eTag = catalogCache.productETag(productId, this::loadCachedDTO, product -> {
+            Integer hotStock = hotInventoryService.hotStock(productId);
+            return CatalogETags.product(product, hotStock != null ? hotStock : product.getStockQuantity());
+        });
+        if (eTag == null) {
+            throw new ProductNotFoundException("Product not found with id: " + productId);
+        }
+        return eTag;
     }
 
     @Override
-    public List<ProductResponseDTO> getProductsByCategory(Long categoryId) {
-        if (!categoryRepository.existsById(categoryId)) {
-            throw new CategoryNotFoundException("Category not found with id: " + categoryId);
+    public CursorPageDTO<ProductResponseDTO> getProducts(String sortBy, String sortDir, String cursor, int limit) {
+        return productPage(null, sortBy, sortDir, cursor, limit);
+    }
+
+    @Override
+    public CursorPageDTO<ProductResponseDTO> getProductsByCategory(Long categoryId, String sortBy, String sortDir,
+                                                                   String cursor, int limit) {
+        getCategoryById(categoryId); // Throws when the category does not exist
+        return productPage(categoryId, sortBy, sortDir, cursor, limit);
+    }
+
+    @Override
+    public String getCategoriesETag() {
+        return "\"" + catalogCache.version("categories", key -> categoriesVersion()) + "\"";
+    }
+
+    @Override
+    public String getProductsETag(Long categoryId) {
+        String key = categoryId == null ? "products" : "products:" + categoryId;
+        String version = catalogCache.version(key, k -> {
+            ProductRepository.CatalogVersion products = productRepository.findCatalogVersion(categoryId);
+            // Listed products embed their category
+            return CatalogETags.version(products.getLastModified(), products.getCount()) + "." + categoriesVersion();
+        });
+        return "\"" + version + hotStockVersion() + "\"";
+    }
+
+    private String categoriesVersion() {
+        ProductRepository.CatalogVersion categories = categoryRepository.findCatalogVersion();
+        return CatalogETags.version(categories.getLastModified(), categories.getCount());
+    }
+
+    // Hot-inventory stock moves in memory without touching updated_at
+    private String hotStockVersion() {
+        int hash = 0;
+        for (HotInventoryStatusDTO hot : hotInventoryService.getHotProducts()) {
+            hash += Objects.hash(hot.getProductId(), hot.getStockQuantity());
         }
-        return productRepository.findByCategoryId(categoryId).stream()
-                .map(product -> modelMapper.map(product, ProductResponseDTO.class))
-                .collect(Collectors.toList());
+        return hash == 0 ? "" : "." + Integer.toHexString(hash);
     }
 
+    // Not retried on a conflict: a retry would re-apply the losing client's DTO over the winner's edit
     @Override
+    @Transactional
     public ProductResponseDTO updateProduct(Long productId, ProductDTO productDTO) {
         Product existingProduct = productRepository.findById(productId)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
+        // Edited since the client read it; a commit racing this check fails the save's own version check
+        if (productDTO.getVersion() != null && productDTO.getVersion() != existingProduct.getVersion()) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, productId);
+        }
 
         Category category = categoryRepository.findById(productDTO.getCategoryId())
                 .orElseThrow(() -> new CategoryNotFoundException(
                         "Category not found with id: " + productDTO.getCategoryId()));
 
+        Integer rowStock = existingProduct.getStockQuantity();
+        Integer hotStock = hotInventoryService.hotStock(productId);
+        Integer previousStock = hotStock != null ? hotStock : rowStock;
+        Long previousCategoryId = existingProduct.getCategory() == null ? null : existingProduct.getCategory().getId();
+
         // Use ModelMapper to map fields from DTO to existing entity, preserving the ID
         modelMapper.map(productDTO, existingProduct);
         existingProduct.setCategory(category); // Re-associate the category
 
+        if (hotStock != null) {
+            // Stock of a hot product moves through its in-memory counter, not the row
+            existingProduct.setStockQuantity(rowStock);
+            hotInventoryService.setStock(productId, productDTO.getStockQuantity());
+        } else if (existingProduct.getStockShards() > 0) {
+            // Spread over the shards; the row gets the new total as its cached aggregate
+            shardedInventoryService.setStock(productId, productDTO.getStockQuantity());
+        }
+
         Product updatedProduct = productRepository.save(existingProduct);
-        return modelMapper.map(updatedProduct, ProductResponseDTO.class);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, category.getId(),
+                Objects.equals(previousCategoryId, category.getId()) ? null : previousCategoryId));
+        if (!Objects.equals(previousStock, productDTO.getStockQuantity())) {
+            eventPublisher.publishEvent(new StockChangedEvent(
+                    List.of(StockChange.set(productId, productDTO.getStockQuantity())), Source.PRODUCT_UPDATE));
+        }
+        return toResponseDTO(updatedProduct);
     }
 
     @Override
     public void deleteProduct(Long productId) {
-        if (!productRepository.existsById(productId)) {
-            throw new ProductNotFoundException("Product not found with id: " + productId);
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
+        if (product.getStockShards() > 0) {
+            shardedInventoryService.disable(productId);
         }
-        productRepository.deleteById(productId);
+        productRepository.delete(product);
+        Long categoryId = product.getCategory() == null ? null : product.getCategory().getId();
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, null, categoryId));
     }
 
     @Override
@@ -134,46 +242,208 @@ public class ProductServiceImpl implements ProductService {
             Boolean inStock,
             Pageable pageable) {
 
+        // Text queries go to the in-memory index once it has been built
+        if ((StringUtils.hasText(name) || StringUtils.hasText(description)) && productSearchIndex.isReady()) {
+            Sort.Order order = pageable.getSort().stream().findFirst().orElse(Sort.Order.by("relevance"));
+            SearchResult result = productSearchIndex.search(name, description, minPrice, maxPrice, categoryId,
+                    inStock, order.getProperty(), order.isDescending(),
+                    (int) pageable.getOffset(), pageable.getPageSize(), false);
+            return toPage(result, pageable);
+        }
+
         // Use the repository method to search products with the given criteria
         Page<Product> productPage = productRepository.searchProducts(
-                name, description, minPrice, maxPrice, categoryId, inStock, pageable);
+                name, description, minPrice, maxPrice, categoryId, inStock, withoutRelevance(pageable));
 
         // Map the products to DTOs
-        return productPage.map(product -> modelMapper.map(product, ProductResponseDTO.class));
+        return productPage.map(this::toResponseDTO);
     }
 
     @Override
-    public List<ProductResponseDTO> getLowStockProducts(int threshold) {
-        // Find products with stock quantity less than or equal to the threshold
-        List<Product> lowStockProducts = productRepository.findAllByStockQuantityLessThanEqual(threshold);
+    public ProductSearchResultDTO searchProductsWithFacets(
+            String name,
+            String description,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Long categoryId,
+            Boolean inStock,
+            Pageable pageable) {
 
-        // Map the products to DTOs
-        return lowStockProducts.stream()
-                .map(product -> modelMapper.map(product, ProductResponseDTO.class))
+        // Facets need the index; until it is built, return the plain search without them
+        if (!productSearchIndex.isReady()) {
+            return new ProductSearchResultDTO(
+                    searchProducts(name, description, minPrice, maxPrice, categoryId, inStock, pageable), null);
+        }
+
+        // Without text every product matches with the same score, so relevance falls back to name
+        boolean hasText = StringUtils.hasText(name) || StringUtils.hasText(description);
+        Sort.Order order = pageable.getSort().stream().findFirst().orElse(Sort.Order.by("relevance"));
+        if (!hasText && "relevance".equals(order.getProperty())) {
+            order = order.withProperty("name");
+        }
+        SearchResult result = productSearchIndex.search(name, description, minPrice, maxPrice, categoryId,
+                inStock, order.getProperty(), order.isDescending(),
+                (int) pageable.getOffset(), pageable.getPageSize(), true);
+        return new ProductSearchResultDTO(toPage(result, pageable), toFacetsDTO(result.facets()));
+    }
+
+    @Override
+    public List<ProductSuggestionDTO> suggestProducts(String query, int limit) {
+        int size = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        if (!StringUtils.hasText(query)) {
+            return List.of();
+        }
+        if (productSearchIndex.isReady()) {
+            return productSearchIndex.suggest(query, size).stream()
+                    .map(suggestion -> new ProductSuggestionDTO(suggestion.productId(), suggestion.name()))
+                    .collect(Collectors.toList());
+        }
+        // Substring match only, until the index is built
+        return productRepository.findByNameContainingIgnoreCase(query.trim(), PageRequest.of(0, size, Sort.by("name")))
+                .map(product -> new ProductSuggestionDTO(product.getId(), product.getName()))
+                .getContent();
+    }
+
+    private Page<ProductResponseDTO> toPage(SearchResult result, Pageable pageable) {
+        Map<Long, ProductResponseDTO> products = catalogCache.products(result.productIds(), this::loadCachedDTOs);
+        List<ProductResponseDTO> content = result.productIds().stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(this::withLiveStock)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, result.total());
+    }
+
+    private SearchFacetsDTO toFacetsDTO(FacetCounts facets) {
+        Map<Long, String> categoryNames = getAllCategories().stream()
+                .collect(Collectors.toMap(CategoryDTO::getId, CategoryDTO::getName, (first, second) -> first));
+        List<CategoryFacetDTO> categories = facets.categories().entrySet().stream()
+                .map(entry -> new CategoryFacetDTO(entry.getKey(), categoryNames.get(entry.getKey()), entry.getValue()))
+                .sorted(Comparator.comparingLong(CategoryFacetDTO::getCount).reversed()
+                        .thenComparing(CategoryFacetDTO::getCategoryId))
                 .collect(Collectors.toList());
+
+        BigDecimal[] bounds = productSearchIndex.priceBandBounds();
+        List<PriceBandFacetDTO> priceBands = new ArrayList<>(bounds.length + 1);
+        for (int band = 0; band <= bounds.length; band++) {
+            priceBands.add(new PriceBandFacetDTO(
+                    band == 0 ? BigDecimal.ZERO : bounds[band - 1],
+                    band == bounds.length ? null : bounds[band],
+                    facets.priceBands()[band]));
+        }
+        return new SearchFacetsDTO(categories, priceBands, facets.inStock(), facets.outOfStock());
+    }
+
+    // Relevance has no column to sort on in the database fallback
+    private static Pageable withoutRelevance(Pageable pageable) {
+        Sort sort = Sort.by(pageable.getSort().stream()
+                .map(order -> "relevance".equals(order.getProperty()) ? order.withProperty("name") : order)
+                .collect(Collectors.toList()));
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
     }
 
     @Override
-    @Transactional
-    public List<ProductResponseDTO> updateProductStock(List<ProductStockUpdateDTO> stockUpdates) {
-        List<Product> updatedProducts = stockUpdates.stream()
-                .map(update -> {
-                    // Find the product by ID
-                    Product product = productRepository.findById(update.getProductId())
-                            .orElseThrow(() -> new ProductNotFoundException(
-                                    "Product not found with id: " + update.getProductId()));
-
-                    // Update the stock quantity
-                    product.setStockQuantity(update.getStockQuantity());
-
-                    // Save the updated product
-                    return productRepository.save(product);
-                })
+    public List<ProductResponseDTO> getLowStockProducts(Integer threshold) {
+        boolean indexed = threshold == null ? lowStockIndex.isReady() : lowStockIndex.covers(threshold);
+        if (!indexed) {
+            // Index still building, or the threshold is above what some category keeps indexed
+            List<Product> lowStockProducts = productRepository.findAllByStockQuantityLessThanEqual(
+                    threshold != null ? threshold : lowStockIndex.defaultThreshold());
+            return lowStockProducts.stream()
+                    .map(this::toResponseDTO)
+                    .collect(Collectors.toList());
+        }
+
+        List<Long> productIds = threshold == null
+                ? lowStockIndex.lowStockProductIds()
+                : lowStockIndex.productIdsAtOrBelow(threshold);
+        Map<Long, ProductResponseDTO> products = catalogCache.products(productIds, this::loadCachedDTOs);
+        return productIds.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(this::withLiveStock)
                 .collect(Collectors.toList());
+    }
+
+    @Override
+    public CategoryDTO updateLowStockThreshold(Long categoryId, Integer threshold) {
+        if (threshold != null && threshold < 0) {
+            throw new InvalidLowStockThresholdException("Low-stock threshold must not be negative");
+        }
+        Category category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new CategoryNotFoundException("Category not found with id: " + categoryId));
+        category.setLowStockThreshold(threshold);
+        Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
+        return catalogMapper.toCategoryDTO(savedCategory);
+    }
+
+    private CursorPageDTO<ProductResponseDTO> productPage(Long categoryId, String sortBy, String sortDir,
+                                                         String cursor, int limit) {
+        SortKey sortKey = Arrays.stream(SortKey.values())
+                .filter(key -> key.field().equalsIgnoreCase(sortBy))
+                .findFirst()
+                .orElseThrow(() -> new InvalidPageRequestException("Unsupported sort field: " + sortBy));
+        boolean descending = "desc".equalsIgnoreCase(sortDir);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
 
-        // Map the updated products to DTOs
-        return updatedProducts.stream()
-                .map(product -> modelMapper.map(product, ProductResponseDTO.class))
+        ProductCursor after = cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor);
+        if (after != null && (after.sortKey() != sortKey || after.descending() != descending)) {
+            throw new InvalidPageRequestException("Cursor does not match the requested sort order");
+        }
+
+        // One extra row tells whether another page exists, without a COUNT query
+        List<SortKeyRow> rows = productRepository.findIdsAfter(categoryId, sortKey, descending,
+                after == null ? null : after.typedValue(), after == null ? null : after.id(), pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<SortKeyRow> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+
+        List<Long> productIds = pageRows.stream().map(SortKeyRow::id).toList();
+        Map<Long, ProductResponseDTO> products = catalogCache.products(productIds, this::loadCachedDTOs);
+        List<ProductResponseDTO> items = productIds.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(this::withLiveStock)
                 .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasMore) {
+            SortKeyRow last = pageRows.get(pageRows.size() - 1);
+            nextCursor = ProductCursor.after(sortKey, descending, last.sortValue(), last.id()).encode();
+        }
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    // Cached form keeps the row stock; withLiveStock swaps in hot counters when serving
+    private ProductResponseDTO toCachedDTO(Product product) {
+        return catalogMapper.toProductResponseDTO(product);
+    }
+
+    private ProductResponseDTO loadCachedDTO(Long productId) {
+        return productRepository.findById(productId).map(this::toCachedDTO).orElse(null);
+    }
+
+    private CategoryDTO loadCategoryDTO(Long categoryId) {
+        return categoryRepository.findById(categoryId).map(catalogMapper::toCategoryDTO).orElse(null);
+    }
+
+    private Map<Long, ProductResponseDTO> loadCachedDTOs(Set<Long> productIds) {
+        return productRepository.findAllWithCategoryByIdIn(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, this::toCachedDTO));
+    }
+
+    private ProductResponseDTO withLiveStock(ProductResponseDTO product) {
+        Integer hotStock = hotInventoryService.hotStock(product.getId());
+        if (hotStock != null) {
+            product.setStockQuantity(hotStock);
+        }
+        return product;
+    }
+
+    private ProductResponseDTO toResponseDTO(Product product) {
+        ProductResponseDTO productResponseDTO = catalogMapper.toProductResponseDTO(product);
+        // Hot products report their live counter rather than the write-behind row value
+        productResponseDTO.setStockQuantity(hotInventoryService.effectiveStock(product));
+        return productResponseDTO;
     }
-}
\ No newline at end of file
+}
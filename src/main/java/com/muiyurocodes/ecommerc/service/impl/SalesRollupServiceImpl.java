@@ -0,0 +1,105 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import com.muiyurocodes.ecommerc.model.Order;
+import com.muiyurocodes.ecommerc.model.OrderItem;
+import com.muiyurocodes.ecommerc.model.User;
+import com.muiyurocodes.ecommerc.repository.DailyCustomerSalesRepository;
+import com.muiyurocodes.ecommerc.repository.DailyProductSalesRepository;
+import com.muiyurocodes.ecommerc.repository.DailySalesRepository;
+import com.muiyurocodes.ecommerc.service.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    // Orders in these statuses do not count towards sales
+    public static final Set<String> NON_REVENUE_STATUSES = Set.of("CANCELLED", "REFUNDED", "PAYMENT_FAILED");
+
+    private final DailySalesRepository dailySalesRepository;
+    private final DailyProductSalesRepository dailyProductSalesRepository;
+    private final DailyCustomerSalesRepository dailyCustomerSalesRepository;
+
+    @Value("${sales.rollup.buckets:8}")
+    private int buckets;
+
+    @Override
+    public void recordOrder(Order order) {
+        if (countsAsRevenue(order.getStatus())) {
+            accumulate(order, 1);
+        }
+    }
+
+    @Override
+    public void applyStatusChange(Order order, String previousStatus, String newStatus) {
+        boolean counted = countsAsRevenue(previousStatus);
+        boolean counts = countsAsRevenue(newStatus);
+        if (counted && !counts) {
+            accumulate(order, -1);
+        } else if (!counted && counts) {
+            accumulate(order, 1);
+        }
+    }
+
+    @Override
+    public void rebuild(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+        dailySalesRepository.deleteRange(startDate, endDate);
+        dailyProductSalesRepository.deleteRange(startDate, endDate);
+        dailyCustomerSalesRepository.deleteRange(startDate, endDate);
+
+        var from = startDate.atStartOfDay();
+        var to = endDate.plusDays(1).atStartOfDay();
+        dailySalesRepository.rebuildFromOrders(from, to, NON_REVENUE_STATUSES);
+        dailyProductSalesRepository.rebuildFromOrders(from, to, NON_REVENUE_STATUSES);
+        dailyCustomerSalesRepository.rebuildFromOrders(from, to, NON_REVENUE_STATUSES);
+        log.info("Rebuilt sales rollups from {} to {}", startDate, endDate);
+    }
+
+    private boolean countsAsRevenue(String status) {
+        return status == null || !NON_REVENUE_STATUSES.contains(status);
+    }
+
+    // sign is +1 to add the order to its day, -1 to take it out again
+    private void accumulate(Order order, int sign) {
+        LocalDate day = order.getOrderDate().toLocalDate();
+        // Spread writes for the same day over several rows to avoid a single hot row
+        int bucket = ThreadLocalRandom.current().nextInt(Math.max(buckets, 1));
+        BigDecimal signed = BigDecimal.valueOf(sign);
+
+        dailySalesRepository.accumulate(day, bucket, order.getTotalPrice().multiply(signed), sign);
+
+        Map<Long, OrderItem> linesByProduct = new LinkedHashMap<>();
+        Map<Long, Long> unitsByProduct = new LinkedHashMap<>();
+        Map<Long, BigDecimal> revenueByProduct = new LinkedHashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            Long productId = item.getProduct().getId();
+            linesByProduct.putIfAbsent(productId, item);
+            unitsByProduct.merge(productId, (long) item.getQuantity(), Long::sum);
+            revenueByProduct.merge(productId, item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())),
+                    BigDecimal::add);
+        }
+        linesByProduct.forEach((productId, item) -> dailyProductSalesRepository.accumulate(
+                day, productId, bucket, item.getProduct().getName(),
+                sign * unitsByProduct.get(productId), revenueByProduct.get(productId).multiply(signed)));
+
+        User user = order.getUser();
+        dailyCustomerSalesRepository.accumulate(day, user.getId(), bucket, user.getEmail(),
+                user.getFirstName() + " " + user.getLastName(), sign, order.getTotalPrice().multiply(signed));
+    }
+}
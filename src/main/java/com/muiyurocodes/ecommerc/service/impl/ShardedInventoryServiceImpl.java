@@ -0,0 +1,257 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import com.muiyurocodes.ecommerc.dto.ShardedInventoryStatusDTO;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent.Source;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent.StockChange;
+import com.muiyurocodes.ecommerc.exception.InvalidInventoryModeException;
+import com.muiyurocodes.ecommerc.exception.ProductNotFoundException;
+import com.muiyurocodes.ecommerc.model.Product;
+import com.muiyurocodes.ecommerc.repository.ProductRepository;
+import com.muiyurocodes.ecommerc.repository.StockShardRepository;
+import com.muiyurocodes.ecommerc.service.ShardedInventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Takes are guarded {@code UPDATE}s on one shard row, picked at random among the shards that
+ * held enough units when read, falling back to locking all of the product's shards in shard order.
+ * Callers take at READ COMMITTED: under REPEATABLE READ a guarded {@code UPDATE} that matched no
+ * row still keeps its lock, and the ordered fallback could then deadlock with another checkout
+ * holding a different shard the same way. Products changed here are rolled
+ * up after commit: their shard total is written to the products row, which is what catalog
+ * reads, caches and {@code stockQuantity}-based queries see, lagging the shards by at most
+ * one rollup interval. Each instance rolls up the products it changed itself.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class ShardedInventoryServiceImpl implements ShardedInventoryService {
+
+    private final ProductRepository productRepository;
+    private final StockShardRepository stockShardRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.sharded.max-shards:64}")
+    private int maxShards;
+
+    // Products whose shards changed since their row was last refreshed
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public boolean tryTake(Long productId, int quantity) {
+        int[] quantities = stockShardRepository.findQuantities(productId);
+        if (quantities.length == 0) {
+            throw new IllegalStateException("Product " + productId + " does not have sharded stock");
+        }
+
+        // Fast path: one shard covers the whole quantity; a random start spreads buyers over the rows
+        List<Integer> candidates = new ArrayList<>();
+        for (int shard = 0; shard < quantities.length; shard++) {
+            if (quantities[shard] >= quantity) {
+                candidates.add(shard);
+            }
+        }
+        int start = candidates.isEmpty() ? 0 : ThreadLocalRandom.current().nextInt(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            if (stockShardRepository.take(productId, candidates.get((start + i) % candidates.size()), quantity)) {
+                markDirty(productId);
+                return true;
+            }
+        }
+
+        // Slow path: lock every shard in shard order, so concurrent gatherers queue up rather than
+        // deadlock, and gather from what they hold now rather than from the first read
+        int[] locked = stockShardRepository.lockQuantities(productId);
+        int[] deltas = gather(locked, quantity);
+        if (deltas == null) {
+            return false;
+        }
+        stockShardRepository.addQuantities(productId, deltas);
+        markDirty(productId);
+        return true;
+    }
+
+    @Override
+    public void setStock(Long productId, int stockQuantity) {
+        // Lock the shards so takes in flight are counted before the level is replaced
+        int[] quantities = stockShardRepository.lockQuantities(productId);
+        if (quantities.length == 0) {
+            throw new IllegalStateException("Product " + productId + " does not have sharded stock");
+        }
+        int[] target = split(stockQuantity, quantities.length);
+        int[] deltas = new int[quantities.length];
+        for (int shard = 0; shard < quantities.length; shard++) {
+            deltas[shard] = target[shard] - quantities[shard];
+        }
+        stockShardRepository.addQuantities(productId, deltas);
+        // Admin writes are rare; refresh the row now rather than on the next rollup
+        stockShardRepository.refreshTotals(List.of(productId));
+    }
+
+    @Override
+    public boolean adjustStock(Long productId, int delta) {
+        if (delta < 0) {
+            return tryTake(productId, -delta);
+        }
+        int[] quantities = stockShardRepository.findQuantities(productId);
+        if (quantities.length == 0) {
+            throw new IllegalStateException("Product " + productId + " does not have sharded stock");
+        }
+        // Restocks are spread evenly so single-shard takes keep succeeding
+        stockShardRepository.addQuantities(productId, split(delta, quantities.length));
+        markDirty(productId);
+        return true;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${inventory.sharded.rollup-interval-ms:1000}")
+    public int rollup() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        List<Long> productIds = new ArrayList<>(dirty);
+        dirty.removeAll(productIds);
+        Map<Long, Integer> totals;
+        try {
+            totals = stockShardRepository.refreshTotals(productIds);
+        } catch (RuntimeException e) {
+            dirty.addAll(productIds);
+            throw e;
+        }
+        if (!totals.isEmpty()) {
+            eventPublisher.publishEvent(new StockChangedEvent(totals.entrySet().stream()
+                    .map(entry -> StockChange.set(entry.getKey(), entry.getValue()))
+                    .collect(Collectors.toList()), Source.SHARDED_INVENTORY));
+        }
+        log.debug("Rolled up shard totals of {} products, {} changed", productIds.size(), totals.size());
+        return totals.size();
+    }
+
+    @Override
+    public ShardedInventoryStatusDTO enable(Long productId, int shards) {
+        if (shards < 1 || shards > maxShards) {
+            throw new InvalidInventoryModeException("Shard count must be between 1 and " + maxShards);
+        }
+        // Lock the row so checkouts that already decremented it are visible before splitting it
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
+        if (product.isHotInventory()) {
+            throw new InvalidInventoryModeException(
+                    "Product " + productId + " is in hot inventory mode; disable it before sharding its stock");
+        }
+        int total = product.getStockQuantity();
+        if (product.getStockShards() > 0) {
+            // Resharding: redistribute what the current shards hold
+            total = sum(stockShardRepository.lockQuantities(productId));
+        }
+        stockShardRepository.replaceShards(productId, split(total, shards));
+        product.setStockShards(shards);
+        product.setStockQuantity(total);
+        productRepository.save(product);
+        eventPublisher.publishEvent(new StockChangedEvent(List.of(StockChange.set(productId, total)),
+                Source.SHARDED_INVENTORY));
+        log.info("Product {} stock split over {} shards", productId, shards);
+        return new ShardedInventoryStatusDTO(productId, shards, total);
+    }
+
+    @Override
+    public ShardedInventoryStatusDTO disable(Long productId) {
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
+        if (product.getStockShards() > 0) {
+            int total = sum(stockShardRepository.lockQuantities(productId));
+            stockShardRepository.deleteShards(productId);
+            product.setStockShards(0);
+            product.setStockQuantity(total);
+            productRepository.save(product);
+            eventPublisher.publishEvent(new StockChangedEvent(List.of(StockChange.set(productId, total)),
+                    Source.SHARDED_INVENTORY));
+            log.info("Product {} stock merged back into its row", productId);
+        }
+        return new ShardedInventoryStatusDTO(productId, 0, product.getStockQuantity());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ShardedInventoryStatusDTO> getShardedProducts() {
+        return productRepository.findByStockShardsGreaterThan(0).stream()
+                .map(product -> new ShardedInventoryStatusDTO(product.getId(), product.getStockShards(),
+                        product.getStockQuantity()))
+                .collect(Collectors.toList());
+    }
+
+    // Rows may be stale after a crash between a take and its rollup
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshOnStartup() {
+        List<Long> productIds = productRepository.findByStockShardsGreaterThan(0).stream()
+                .map(Product::getId)
+                .collect(Collectors.toList());
+        if (!productIds.isEmpty()) {
+            dirty.addAll(productIds);
+            log.info("Refreshing shard totals of {} sharded products", productIds.size());
+        }
+    }
+
+    // Marked once the take commits, so a rollup never reads the shards before it is visible
+    private void markDirty(Long productId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dirty.add(productId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dirty.add(productId);
+            }
+        });
+    }
+
+    // Negative per-shard deltas taking quantity from the lowest shards first; null when they hold less
+    static int[] gather(int[] quantities, int quantity) {
+        int[] deltas = new int[quantities.length];
+        int remaining = quantity;
+        for (int shard = 0; shard < quantities.length && remaining > 0; shard++) {
+            int take = Math.min(Math.max(quantities[shard], 0), remaining);
+            deltas[shard] = -take;
+            remaining -= take;
+        }
+        return remaining == 0 ? deltas : null;
+    }
+
+    static int[] split(int total, int shards) {
+        int[] quantities = new int[shards];
+        int base = total / shards;
+        int remainder = total % shards;
+        for (int shard = 0; shard < shards; shard++) {
+            quantities[shard] = base + (shard < remainder ? 1 : 0);
+        }
+        return quantities;
+    }
+
+    private static int sum(int[] quantities) {
+        int total = 0;
+        for (int quantity : quantities) {
+            total += quantity;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,192 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import com.muiyurocodes.ecommerc.exception.InsufficientStockException;
+import com.muiyurocodes.ecommerc.model.StockReservation;
+import com.muiyurocodes.ecommerc.repository.StockReservationRepository;
+import com.muiyurocodes.ecommerc.service.StockReservationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory reservation ledger with the stock_reservations table as durable backing.
+ * Every change to a hold goes through {@link #swapHold}, which updates the hold and the
+ * per-product total under the product's map entry, so check-and-reserve is atomic and
+ * available-to-promise is a single lookup.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private final StockReservationRepository stockReservationRepository;
+
+    @Value("${inventory.reservation.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    private final Map<HoldKey, Hold> holds = new ConcurrentHashMap<>();
+    // Sum of the holds per product
+    private final ConcurrentHashMap<Long, Integer> heldByProduct = new ConcurrentHashMap<>();
+    // Products each cart holds, for releasing a whole cart
+    private final Map<Long, Set<Long>> productsByCart = new ConcurrentHashMap<>();
+
+    @Override
+    @Transactional(readOnly = true)
+    public int availableToPromise(Long productId, int stockQuantity, Long cartId) {
+        int held = heldByProduct.getOrDefault(productId, 0);
+        int own = cartId == null ? 0 : quantityOf(holds.get(new HoldKey(cartId, productId)));
+        return stockQuantity - (held - own);
+    }
+
+    @Override
+    public void reserve(Long cartId, Long productId, int stockQuantity, int quantity) {
+        HoldKey key = new HoldKey(cartId, productId);
+        Instant expiresAt = Instant.now().plus(Duration.ofMinutes(ttlMinutes));
+        Hold previous = swapHold(key, new Hold(quantity, expiresAt), stockQuantity);
+        productsByCart.computeIfAbsent(cartId, id -> ConcurrentHashMap.newKeySet()).add(productId);
+
+        stockReservationRepository.upsert(cartId, productId, quantity, expiresAt);
+        restoreOnRollback(key, previous);
+    }
+
+    @Override
+    public void release(Long cartId, Long productId) {
+        HoldKey key = new HoldKey(cartId, productId);
+        Hold previous = swapHold(key, null, null);
+        Set<Long> products = productsByCart.get(cartId);
+        if (products != null) {
+            products.remove(productId);
+        }
+
+        stockReservationRepository.deleteByCartIdAndProductId(cartId, productId);
+        restoreOnRollback(key, previous);
+    }
+
+    @Override
+    public void releaseAll(Long cartId) {
+        Set<Long> products = productsByCart.remove(cartId);
+        if (products != null) {
+            for (Long productId : products) {
+                HoldKey key = new HoldKey(cartId, productId);
+                restoreOnRollback(key, swapHold(key, null, null));
+            }
+        }
+        stockReservationRepository.deleteByCartId(cartId);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:30000}")
+    public int sweepExpired() {
+        Instant now = Instant.now();
+        int released = 0;
+        for (Map.Entry<HoldKey, Hold> entry : holds.entrySet()) {
+            if (entry.getValue().expiresAt().isBefore(now) && expireHold(entry.getKey(), entry.getValue())) {
+                Set<Long> products = productsByCart.get(entry.getKey().cartId());
+                if (products != null) {
+                    products.remove(entry.getKey().productId());
+                }
+                released++;
+            }
+        }
+        int deleted = stockReservationRepository.deleteExpired(now);
+        if (released > 0 || deleted > 0) {
+            log.debug("Released {} expired stock holds ({} rows deleted)", released, deleted);
+        }
+        return released;
+    }
+
+    // Rebuilds the ledger from the durable rows after a restart
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadActiveHolds() {
+        int loaded = 0;
+        for (StockReservation reservation : stockReservationRepository.findByExpiresAtAfter(Instant.now())) {
+            HoldKey key = new HoldKey(reservation.getCartId(), reservation.getProductId());
+            swapHold(key, new Hold(reservation.getQuantity(), reservation.getExpiresAt()), null);
+            productsByCart.computeIfAbsent(key.cartId(), id -> ConcurrentHashMap.newKeySet()).add(key.productId());
+            loaded++;
+        }
+        log.info("Loaded {} active stock holds", loaded);
+    }
+
+    /**
+     * Replaces a cart's hold (null removes it) and adjusts the product total in one atomic step.
+     * When {@code stockQuantity} is given, fails if the other carts' holds leave too few units.
+     */
+    private Hold swapHold(HoldKey key, Hold replacement, Integer stockQuantity) {
+        Hold[] previous = new Hold[1];
+        heldByProduct.compute(key.productId(), (productId, held) -> {
+            Hold existing = holds.get(key);
+            int others = (held == null ? 0 : held) - quantityOf(existing);
+            if (stockQuantity != null && stockQuantity - others < quantityOf(replacement)) {
+                throw new InsufficientStockException("Not enough stock for product with id: " + productId);
+            }
+            if (replacement == null) {
+                holds.remove(key);
+            } else {
+                holds.put(key, replacement);
+            }
+            previous[0] = existing;
+            int total = others + quantityOf(replacement);
+            return total == 0 ? null : total;
+        });
+        return previous[0];
+    }
+
+    // Removes a hold only if it is still the expired one the sweeper saw
+    private boolean expireHold(HoldKey key, Hold expired) {
+        boolean[] removed = new boolean[1];
+        heldByProduct.computeIfPresent(key.productId(), (productId, held) -> {
+            if (!holds.remove(key, expired)) {
+                return held;
+            }
+            removed[0] = true;
+            int total = held - expired.quantity();
+            return total == 0 ? null : total;
+        });
+        return removed[0];
+    }
+
+    // The in-memory ledger changes immediately; put the old hold back if the caller's transaction fails
+    private void restoreOnRollback(HoldKey key, Hold previous) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    swapHold(key, previous, null);
+                    if (previous != null) {
+                        productsByCart.computeIfAbsent(key.cartId(), id -> ConcurrentHashMap.newKeySet())
+                                .add(key.productId());
+                    }
+                }
+            }
+        });
+    }
+
+    private static int quantityOf(Hold hold) {
+        return hold == null ? 0 : hold.quantity();
+    }
+
+    private record HoldKey(Long cartId, Long productId) {
+    }
+
+    private record Hold(int quantity, Instant expiresAt) {
+    }
+}
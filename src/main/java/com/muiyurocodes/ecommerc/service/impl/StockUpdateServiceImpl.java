@@ -0,0 +1,237 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.muiyurocodes.ecommerc.dto.ProductStockUpdateDTO;
+import com.muiyurocodes.ecommerc.dto.StockUpdateErrorDTO;
+import com.muiyurocodes.ecommerc.dto.StockUpdateResultDTO;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent.Source;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent.StockChange;
+import com.muiyurocodes.ecommerc.repository.ProductRepository;
+import com.muiyurocodes.ecommerc.repository.ProductRepositoryCustom.StockWrite;
+import com.muiyurocodes.ecommerc.service.HotInventoryService;
+import com.muiyurocodes.ecommerc.service.ShardedInventoryService;
+import com.muiyurocodes.ecommerc.service.StockUpdateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the body one update at a time and applies them in JDBC batches of a configured size,
+ * each batch in its own transaction, with one statement per update instead of a read and a
+ * save. Deltas are applied by the database ({@code stock = stock + ?}), so units sold while a
+ * sync runs are not overwritten. Hot and sharded products go through their own services. If the
+ * database rejects a batch, its updates are retried one by one to pin the error on them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockUpdateServiceImpl implements StockUpdateService {
+
+    private static final String NOT_ENOUGH_STOCK = "Not enough stock to apply a negative delta";
+
+    private final ProductRepository productRepository;
+    private final HotInventoryService hotInventoryService;
+    private final ShardedInventoryService shardedInventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${inventory.stock-update.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${inventory.stock-update.max-errors:1000}")
+    private int maxErrors;
+
+    @Override
+    public StockUpdateResultDTO updateStock(InputStream body) {
+        long started = System.nanoTime();
+        StockUpdateResultDTO result = new StockUpdateResultDTO();
+        List<PendingUpdate> batch = new ArrayList<>(batchSize);
+        long rowNumber = 0;
+
+        // A top-level JSON array is read element by element, like a stream of NDJSON values
+        try (MappingIterator<ProductStockUpdateDTO> updates =
+                     objectMapper.readerFor(ProductStockUpdateDTO.class).readValues(body)) {
+            while (true) {
+                ProductStockUpdateDTO update;
+                long row = rowNumber + 1;
+                try {
+                    if (!updates.hasNextValue()) {
+                        break;
+                    }
+                    rowNumber = row;
+                    update = updates.nextValue();
+                } catch (JsonParseException e) {
+                    // The body itself is broken, nothing after this point can be read
+                    reject(result, row, null, "Malformed JSON, later updates were not read: "
+                            + e.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException e) {
+                    reject(result, row, null, "Invalid update: " + e.getOriginalMessage());
+                    continue;
+                }
+
+                String problem = validate(update);
+                if (problem != null) {
+                    reject(result, row, update == null ? null : update.getProductId(), problem);
+                    continue;
+                }
+                batch.add(new PendingUpdate(row,
+                        new StockWrite(update.getProductId(), update.getStockQuantity(),
+                                update.getDelta() != null ? update.getDelta() : 0)));
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, result);
+                }
+            }
+            result.setRowsRead(rowNumber);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read stock update body", e);
+        } finally {
+            // Updates parsed before a read failure are still applied
+            if (!batch.isEmpty()) {
+                writeBatch(batch, result);
+            }
+        }
+
+        log.info("Applied {} of {} stock updates ({} failed) in {} batches, {} ms",
+                result.getUpdated(), result.getRowsRead(), result.getFailed(), result.getBatches(),
+                (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    private static String validate(ProductStockUpdateDTO update) {
+        if (update == null || update.getProductId() == null) {
+            return "productId is required";
+        }
+        if ((update.getStockQuantity() == null) == (update.getDelta() == null)) {
+            return "Exactly one of stockQuantity and delta is required";
+        }
+        if (update.getStockQuantity() != null && update.getStockQuantity() < 0) {
+            return "stockQuantity must not be negative";
+        }
+        return null;
+    }
+
+    private void writeBatch(List<PendingUpdate> batch, StockUpdateResultDTO result) {
+        result.setBatches(result.getBatches() + 1);
+        try {
+            record(batch, transactionTemplate.execute(status -> apply(batch)), result);
+        } catch (DataAccessException batchFailure) {
+            for (PendingUpdate update : batch) {
+                List<PendingUpdate> single = List.of(update);
+                try {
+                    record(single, transactionTemplate.execute(status -> apply(single)), result);
+                } catch (DataAccessException rowFailure) {
+                    reject(result, update.row(), update.write().productId(),
+                            NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    // Applies the updates and returns, per update, why it was not applied (null when it was)
+    private String[] apply(List<PendingUpdate> updates) {
+        String[] failures = new String[updates.size()];
+        List<StockChange> changes = new ArrayList<>();
+
+        Set<Long> sharded = new HashSet<>(productRepository.findShardedIds(
+                updates.stream().map(update -> update.write().productId()).collect(Collectors.toSet())));
+        List<Integer> rowUpdates = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            StockWrite write = updates.get(i).write();
+            boolean hot = hotInventoryService.isHot(write.productId());
+            if (!hot && !sharded.contains(write.productId())) {
+                rowUpdates.add(i);
+            } else if (write.stockQuantity() != null) {
+                if (hot) {
+                    hotInventoryService.setStock(write.productId(), write.stockQuantity());
+                } else {
+                    shardedInventoryService.setStock(write.productId(), write.stockQuantity());
+                }
+                changes.add(StockChange.set(write.productId(), write.stockQuantity()));
+            } else if (hot
+                    ? hotInventoryService.adjustStock(write.productId(), write.delta())
+                    : shardedInventoryService.adjustStock(write.productId(), write.delta())) {
+                changes.add(StockChange.delta(write.productId(), write.delta()));
+            } else {
+                failures[i] = NOT_ENOUGH_STOCK;
+            }
+        }
+
+        if (!rowUpdates.isEmpty()) {
+            // Ascending product-id order, like checkout, so the two never lock rows in opposite orders.
+            // The sort is stable, so repeated updates of one product keep their order.
+            rowUpdates.sort(Comparator.comparingLong(i -> updates.get(i).write().productId()));
+            List<StockWrite> writes = rowUpdates.stream().map(i -> updates.get(i).write()).toList();
+            int[] updateCounts = productRepository.updateStock(writes);
+
+            Set<Long> refused = new HashSet<>();
+            for (int j = 0; j < writes.size(); j++) {
+                StockWrite write = writes.get(j);
+                if (updateCounts[j] == 0) {
+                    refused.add(write.productId());
+                } else {
+                    changes.add(write.stockQuantity() != null
+                            ? StockChange.set(write.productId(), write.stockQuantity())
+                            : StockChange.delta(write.productId(), write.delta()));
+                }
+            }
+            if (!refused.isEmpty()) {
+                Set<Long> existing = new HashSet<>(productRepository.findExistingIds(refused));
+                for (int j = 0; j < writes.size(); j++) {
+                    StockWrite write = writes.get(j);
+                    if (updateCounts[j] == 0) {
+                        failures[rowUpdates.get(j)] = !existing.contains(write.productId())
+                                ? "Product not found"
+                                : write.stockQuantity() == null
+                                ? NOT_ENOUGH_STOCK
+                                : "Product switched inventory mode during the update; retry it";
+                    }
+                }
+            }
+        }
+
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new StockChangedEvent(changes, Source.STOCK_UPDATE));
+        }
+        return failures;
+    }
+
+    private void record(List<PendingUpdate> updates, String[] failures, StockUpdateResultDTO result) {
+        for (int i = 0; i < updates.size(); i++) {
+            if (failures[i] == null) {
+                result.setUpdated(result.getUpdated() + 1);
+            } else {
+                reject(result, updates.get(i).row(), updates.get(i).write().productId(), failures[i]);
+            }
+        }
+    }
+
+    private void reject(StockUpdateResultDTO result, long row, Long productId, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new StockUpdateErrorDTO(row, productId, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private record PendingUpdate(long row, StockWrite write) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stock split over several atomic cells so concurrent takes rarely CAS on the same one.
+ * Checkouts {@link #enter()} before taking and {@link #exit()} when their transaction ends;
+ * once the counter is closed no checkout can enter, so {@link #awaitIdle(long)} returning true
+ * means every take has been committed to the journal or rolled back.
+ */
+final class StripedCounter {
+
+    private final AtomicInteger[] cells;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean closed;
+
+    StripedCounter(int stripes, int initial) {
+        cells = new AtomicInteger[Math.max(stripes, 1)];
+        int base = Math.max(initial, 0) / cells.length;
+        int remainder = Math.max(initial, 0) % cells.length;
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new AtomicInteger(base + (i < remainder ? 1 : 0));
+        }
+        if (initial < 0) {
+            cells[0].addAndGet(initial);
+        }
+    }
+
+    int total() {
+        int total = 0;
+        for (AtomicInteger cell : cells) {
+            total += cell.get();
+        }
+        return total;
+    }
+
+    void add(int delta) {
+        cells[ThreadLocalRandom.current().nextInt(cells.length)].addAndGet(delta);
+    }
+
+    boolean tryTake(int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(cells.length);
+
+        // Fast path: a single cell covers the whole quantity
+        for (int i = 0; i < cells.length; i++) {
+            AtomicInteger cell = cells[(start + i) % cells.length];
+            int current;
+            while ((current = cell.get()) >= quantity) {
+                if (cell.compareAndSet(current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+
+        // Slow path: gather from several cells, giving everything back if the total is short
+        int[] takenFrom = new int[cells.length];
+        int taken = 0;
+        for (int i = 0; i < cells.length && taken < quantity; i++) {
+            int index = (start + i) % cells.length;
+            AtomicInteger cell = cells[index];
+            int current;
+            while ((current = cell.get()) > 0) {
+                int take = Math.min(current, quantity - taken);
+                if (cell.compareAndSet(current, current - take)) {
+                    takenFrom[index] = take;
+                    taken += take;
+                    break;
+                }
+            }
+        }
+        if (taken == quantity) {
+            return true;
+        }
+        for (int i = 0; i < cells.length; i++) {
+            if (takenFrom[i] > 0) {
+                cells[i].addAndGet(takenFrom[i]);
+            }
+        }
+        return false;
+    }
+
+    // Registers a checkout; false once the counter is closed
+    boolean enter() {
+        inFlight.incrementAndGet();
+        if (closed) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    void reopen() {
+        closed = false;
+    }
+
+    // Waits for checkouts that entered before close(); false on timeout
+    boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+}
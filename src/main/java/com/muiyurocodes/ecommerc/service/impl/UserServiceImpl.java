@@ -5,6 +5,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import com.muiyurocodes.ecommerc.exception.EmailAlreadyExistsException;
 import com.muiyurocodes.ecommerc.exception.UserNotFoundException;
+import com.muiyurocodes.ecommerc.mapper.UserMapper;
 import com.muiyurocodes.ecommerc.model.Address;
 import com.muiyurocodes.ecommerc.model.Role;
 import com.muiyurocodes.ecommerc.model.User;
@@ -35,6 +36,8 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
     private final UserRepository userRepository;
     private final AddressRepository addressRepository;
+    private final UserMapper userMapper;
+    // Request DTO to entity only; responses go through the generated mappers
     private final ModelMapper modelMapper;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
@@ -44,7 +47,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     @Override
     public UserResponseDTO getUserProfile(Long userId) {
         User user = findUserById(userId);
-        return modelMapper.map(user, UserResponseDTO.class);
+        return userMapper.toUserResponseDTO(user);
     }
 
     @Override
@@ -63,7 +66,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         }
 
         User updatedUser = userRepository.save(user);
-        return modelMapper.map(updatedUser, UserResponseDTO.class);
+        return userMapper.toUserResponseDTO(updatedUser);
     }
 
     // Address management methods
@@ -81,7 +84,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         }
 
         Address savedAddress = addressRepository.save(address);
-        return modelMapper.map(savedAddress, AddressDTO.class);
+        return userMapper.toAddressDTO(savedAddress);
     }
 
     @Override
@@ -105,7 +108,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         }
 
         Address updatedAddress = addressRepository.save(address);
-        return modelMapper.map(updatedAddress, AddressDTO.class);
+        return userMapper.toAddressDTO(updatedAddress);
     }
 
     @Override
@@ -122,7 +125,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         List<Address> addresses = addressRepository.findByUser(user);
 
         return addresses.stream()
-                .map(address -> modelMapper.map(address, AddressDTO.class))
+                .map(address -> userMapper.toAddressDTO(address))
                 .collect(Collectors.toList());
     }
 
@@ -132,7 +135,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         List<Address> addresses = addressRepository.findByUserAndAddressType(user, addressType);
 
         return addresses.stream()
-                .map(address -> modelMapper.map(address, AddressDTO.class))
+                .map(address -> userMapper.toAddressDTO(address))
                 .collect(Collectors.toList());
     }
 
@@ -140,7 +143,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     public AddressDTO getDefaultAddress(Long userId, String addressType) {
         User user = findUserById(userId);
         return addressRepository.findByUserAndIsDefaultAndAddressType(user, true, addressType)
-                .map(address -> modelMapper.map(address, AddressDTO.class))
+                .map(address -> userMapper.toAddressDTO(address))
                 .orElse(null);
     }
 
@@ -161,7 +164,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         address.setIsDefault(true);
         Address updatedAddress = addressRepository.save(address);
 
-        return modelMapper.map(updatedAddress, AddressDTO.class);
+        return userMapper.toAddressDTO(updatedAddress);
     }
 
     // Helper methods
@@ -197,7 +200,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
         User savedUser = userRepository.save(newUser);
 
-        return modelMapper.map(savedUser, UserResponseDTO.class);
+        return userMapper.toUserResponseDTO(savedUser);
     }
 
     @Override
@@ -211,7 +214,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         String accessToken = jwtTokenProvider.generateAccessToken(userDetails);
 
         User user = userRepository.findByEmail(userDetails.getUsername()).orElseThrow();
-        UserResponseDTO userResponseDTO = modelMapper.map(user, UserResponseDTO.class);
+        UserResponseDTO userResponseDTO = userMapper.toUserResponseDTO(user);
 
         return new LoginResponseDTO(accessToken, userResponseDTO);
     }
@@ -237,7 +240,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
             users = userRepository.findAll(pageable);
         }
 
-        return users.map(user -> modelMapper.map(user, UserResponseDTO.class));
+        return users.map(user -> userMapper.toUserResponseDTO(user));
     }
 
     @Override
@@ -254,7 +257,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
             Role newRole = Role.valueOf(role);
             user.setRole(newRole);
             User updatedUser = userRepository.save(user);
-            return modelMapper.map(updatedUser, UserResponseDTO.class);
+            return userMapper.toUserResponseDTO(updatedUser);
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid role: " + role);
         }
@@ -0,0 +1,118 @@
+package com.muiyurocodes.ecommerc.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BoundedCacheTest {
+
+    private final BoundedCache<Long, String> cache = new BoundedCache<>("test", 1000, 60_000, value -> 10);
+
+    @Test
+    void loadsAreStoredAndServedFromTheCache() {
+        assertEquals("v1", cache.get(1L, key -> "v" + key));
+        assertEquals("v1", cache.get(1L, key -> "other"));
+        assertNull(cache.get(2L, key -> null));
+
+        BoundedCache.Stats stats = cache.stats();
+        assertEquals(1, stats.entries());
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedOverTheWeightBudget() {
+        BoundedCache<Long, String> small = new BoundedCache<>("small", 30, 60_000, value -> 10);
+        small.get(1L, key -> "a");
+        small.get(2L, key -> "b");
+        small.get(3L, key -> "c");
+        small.get(1L, key -> "unused"); // 1 is now the most recently used
+        small.get(4L, key -> "d");
+
+        assertEquals(1, small.stats().evictions());
+        assertEquals("a", small.get(1L, key -> "reloaded"));
+        assertEquals("reloaded", small.get(2L, key -> "reloaded"));
+    }
+
+    @Test
+    void loadOverlappingAnInvalidationOfItsKeyIsNotStored() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> load = CompletableFuture.supplyAsync(
+                () -> cache.get(1L, blockingLoader("stale", loading, release)));
+        loading.await();
+
+        cache.invalidate(1L);
+        release.countDown();
+
+        assertEquals("stale", load.get());
+        assertEquals("fresh", cache.get(1L, key -> "fresh"));
+    }
+
+    @Test
+    void loadOverlappingAnInvalidationOfAnotherKeyIsStored() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> load = CompletableFuture.supplyAsync(
+                () -> cache.get(1L, blockingLoader("loaded", loading, release)));
+        loading.await();
+
+        cache.invalidate(2L);
+        release.countDown();
+
+        assertEquals("loaded", load.get());
+        assertEquals("loaded", cache.get(1L, key -> "reloaded"));
+    }
+
+    @Test
+    void loadOverlappingInvalidateAllIsNotStored() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Map<Long, String>> load = CompletableFuture.supplyAsync(
+                () -> cache.getAll(List.of(1L, 2L), keys -> {
+                    loading.countDown();
+                    await(release);
+                    return Map.of(1L, "stale", 2L, "stale");
+                }));
+        loading.await();
+
+        cache.invalidateAll();
+        release.countDown();
+
+        assertEquals(2, load.get().size());
+        assertEquals("fresh", cache.get(1L, key -> "fresh"));
+        assertEquals("fresh", cache.get(2L, key -> "fresh"));
+    }
+
+    @Test
+    void invalidationBeforeALoadStartsDoesNotBlockIt() {
+        cache.get(1L, key -> "old");
+        cache.invalidate(1L);
+
+        assertEquals("new", cache.get(1L, key -> "new"));
+        assertEquals("new", cache.get(1L, key -> "newer"));
+    }
+
+    private static Function<Long, String> blockingLoader(String value, CountDownLatch loading, CountDownLatch release) {
+        return key -> {
+            loading.countDown();
+            await(release);
+            return value;
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.muiyurocodes.ecommerc.inventory;
+
+import com.muiyurocodes.ecommerc.dto.InventoryEventDTO;
+import com.muiyurocodes.ecommerc.event.StockChangedEvent.Source;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventRingTest {
+
+    @Test
+    void offsetsContinueFromTheStartOffset() {
+        EventRing ring = new EventRing(4, 101);
+
+        assertEquals(100, ring.lastOffset());
+        assertEquals(101, ring.oldestOffset());
+        assertTrue(ring.after(100, 10).isEmpty());
+
+        assertEquals(101, ring.append(event(1L)));
+        assertEquals(102, ring.append(event(2L)));
+        assertEquals(102, ring.lastOffset());
+        assertEquals(101, ring.oldestOffset());
+        assertEquals(List.of(101L, 102L), offsets(ring.after(100, 10)));
+    }
+
+    @Test
+    void wrappingOverwritesTheOldestEvents() {
+        EventRing ring = new EventRing(4, 1);
+        for (long product = 1; product <= 10; product++) {
+            ring.append(event(product));
+        }
+
+        assertEquals(10, ring.lastOffset());
+        assertEquals(7, ring.oldestOffset());
+        List<InventoryEventDTO> events = ring.after(ring.oldestOffset() - 1, 10);
+        assertEquals(List.of(7L, 8L, 9L, 10L), offsets(events));
+        // Each slot holds the event that was last written to it, not an older one
+        assertEquals(List.of(7L, 8L, 9L, 10L), events.stream().map(InventoryEventDTO::getProductId).toList());
+    }
+
+    @Test
+    void readsAcrossTheWrapPointAreCappedAndOrdered() {
+        EventRing ring = new EventRing(4, 1);
+        for (long product = 1; product <= 6; product++) {
+            ring.append(event(product));
+        }
+
+        assertEquals(List.of(4L, 5L), offsets(ring.after(3, 2)));
+        assertEquals(List.of(5L, 6L), offsets(ring.after(4, 10)));
+        assertTrue(ring.after(6, 10).isEmpty());
+    }
+
+    private static InventoryEventDTO event(long productId) {
+        return new InventoryEventDTO(0, productId, -1, null, Source.ORDER, Instant.EPOCH);
+    }
+
+    private static List<Long> offsets(List<InventoryEventDTO> events) {
+        return events.stream().map(InventoryEventDTO::getOffset).toList();
+    }
+}
@@ -0,0 +1,186 @@
+package com.muiyurocodes.ecommerc.mapper;
+
+import com.muiyurocodes.ecommerc.dto.*;
+import com.muiyurocodes.ecommerc.model.*;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The generated mappers must produce exactly what the ModelMapper conversions (plus their
+ * hand-written fix-ups) produced before, field for field.
+ */
+class DtoMapperParityTest {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final CatalogMapper catalogMapper = Mappers.getMapper(CatalogMapper.class);
+    private final OrderMapper orderMapper = Mappers.getMapper(OrderMapper.class);
+    private final CartMapper cartMapper = Mappers.getMapper(CartMapper.class);
+    private final UserMapper userMapper = Mappers.getMapper(UserMapper.class);
+
+    @Test
+    void categoryMatchesModelMapper() {
+        Category category = category();
+
+        assertEquals(modelMapper.map(category, CategoryDTO.class), catalogMapper.toCategoryDTO(category));
+    }
+
+    @Test
+    void productMatchesModelMapper() {
+        Product product = product(category());
+
+        assertEquals(modelMapper.map(product, ProductResponseDTO.class), catalogMapper.toProductResponseDTO(product));
+    }
+
+    @Test
+    void productWithoutCategoryMatchesModelMapper() {
+        Product product = product(null);
+
+        assertEquals(modelMapper.map(product, ProductResponseDTO.class), catalogMapper.toProductResponseDTO(product));
+    }
+
+    @Test
+    void orderMatchesModelMapper() {
+        Order order = order();
+
+        OrderDTO expected = modelMapper.map(order, OrderDTO.class);
+        expected.setUserId(order.getUser().getId());
+        expected.setOrderItems(order.getOrderItems().stream()
+                .map(item -> modelMapper.map(item, OrderItemDTO.class))
+                .collect(Collectors.toList()));
+
+        assertEquals(expected, orderMapper.toOrderDTO(order));
+    }
+
+    @Test
+    void cartItemMatchesModelMapper() {
+        CartItem cartItem = cartItem(new BigDecimal("17.50"));
+
+        assertEquals(legacyCartItemDTO(cartItem), cartMapper.toCartItemDTO(cartItem));
+    }
+
+    @Test
+    void cartItemWithoutLockedPriceFallsBackToProductPrice() {
+        CartItem cartItem = cartItem(null);
+
+        CartItemDTO dto = cartMapper.toCartItemDTO(cartItem);
+
+        assertEquals(legacyCartItemDTO(cartItem), dto);
+        assertEquals(cartItem.getProduct().getPrice(), dto.getPrice());
+    }
+
+    @Test
+    void userMatchesModelMapper() {
+        User user = user();
+
+        assertEquals(modelMapper.map(user, UserResponseDTO.class), userMapper.toUserResponseDTO(user));
+    }
+
+    @Test
+    void addressMatchesModelMapper() {
+        Address address = address(user());
+
+        assertEquals(modelMapper.map(address, AddressDTO.class), userMapper.toAddressDTO(address));
+    }
+
+    private CartItemDTO legacyCartItemDTO(CartItem cartItem) {
+        CartItemDTO cartItemDTO = modelMapper.map(cartItem, CartItemDTO.class);
+        cartItemDTO.setProductId(cartItem.getProduct().getId());
+        cartItemDTO.setProductName(cartItem.getProduct().getName());
+        cartItemDTO.setPrice(cartItem.getPrice() != null ? cartItem.getPrice() : cartItem.getProduct().getPrice());
+        return cartItemDTO;
+    }
+
+    static Category category() {
+        Category category = new Category();
+        category.setId(3L);
+        category.setName("Electronics");
+        category.setUpdatedAt(LocalDateTime.of(2025, 3, 1, 12, 30, 15, 123456000));
+        return category;
+    }
+
+    static Product product(Category category) {
+        Product product = new Product();
+        product.setId(42L);
+        product.setName("Noise Cancelling Headphones");
+        product.setDescription("Over-ear, 30h battery");
+        product.setPrice(new BigDecimal("199.99"));
+        product.setStockQuantity(17);
+        product.setCategory(category);
+        product.setImageUrl("https://cdn.example.com/42.png");
+        product.setHotInventory(true);
+        product.setUpdatedAt(LocalDateTime.of(2025, 3, 2, 8, 0, 1, 500000000));
+        return product;
+    }
+
+    static User user() {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("jane@example.com");
+        user.setPassword("{bcrypt}hash");
+        user.setFirstName("Jane");
+        user.setLastName("Doe");
+        user.setRole(Role.ROLE_USER);
+        user.setCreatedAt(LocalDateTime.of(2024, 12, 24, 9, 15));
+        return user;
+    }
+
+    static Address address(User user) {
+        Address address = new Address();
+        address.setId(11L);
+        address.setStreetAddress("1 Main St");
+        address.setCity("Nairobi");
+        address.setState("Nairobi County");
+        address.setPostalCode("00100");
+        address.setCountry("Kenya");
+        address.setPhoneNumber("+254700000000");
+        address.setIsDefault(true);
+        address.setAddressType("SHIPPING");
+        address.setUser(user);
+        return address;
+    }
+
+    static Order order() {
+        Order order = new Order();
+        order.setId(100L);
+        order.setUser(user());
+        order.setTotalPrice(new BigDecimal("419.97"));
+        order.setStatus("PENDING");
+        order.setOrderDate(LocalDateTime.of(2025, 3, 3, 18, 45));
+        order.setShippingAddress("1 Main St, Nairobi");
+        order.setPaymentId("pi_123");
+        Product headphones = product(category());
+        Product cable = product(category());
+        cable.setId(43L);
+        cable.setName("USB-C Cable");
+        order.setOrderItems(List.of(orderItem(1000L, order, headphones, 2, new BigDecimal("199.99")),
+                orderItem(1001L, order, cable, 1, new BigDecimal("19.99"))));
+        return order;
+    }
+
+    private static OrderItem orderItem(Long id, Order order, Product product, int quantity, BigDecimal price) {
+        OrderItem item = new OrderItem();
+        item.setId(id);
+        item.setOrder(order);
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setPrice(price);
+        return item;
+    }
+
+    private static CartItem cartItem(BigDecimal price) {
+        CartItem cartItem = new CartItem();
+        cartItem.setId(5L);
+        cartItem.setProduct(product(category()));
+        cartItem.setQuantity(3);
+        cartItem.setPrice(price);
+        return cartItem;
+    }
+}
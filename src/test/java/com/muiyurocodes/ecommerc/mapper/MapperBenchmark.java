@@ -0,0 +1,94 @@
+package com.muiyurocodes.ecommerc.mapper;
+
+import com.muiyurocodes.ecommerc.dto.OrderDTO;
+import com.muiyurocodes.ecommerc.dto.OrderItemDTO;
+import com.muiyurocodes.ecommerc.dto.ProductResponseDTO;
+import com.muiyurocodes.ecommerc.model.Category;
+import com.muiyurocodes.ecommerc.model.Order;
+import com.muiyurocodes.ecommerc.model.Product;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * ModelMapper against the generated mappers on a product listing page and an order. Not a
+ * unit test, run it on demand from the test classpath:
+ * {@code java -cp target/test-classes:<test classpath> com.muiyurocodes.ecommerc.mapper.MapperBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final CatalogMapper catalogMapper = Mappers.getMapper(CatalogMapper.class);
+    private final OrderMapper orderMapper = Mappers.getMapper(OrderMapper.class);
+
+    private List<Product> products;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        Category category = DtoMapperParityTest.category();
+        products = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Product product = DtoMapperParityTest.product(category);
+            product.setId((long) i);
+            products.add(product);
+        }
+        order = DtoMapperParityTest.order();
+        // Let ModelMapper build and cache its type maps outside the measurement
+        modelMapper.map(products.get(0), ProductResponseDTO.class);
+        modelMapper.map(order, OrderDTO.class);
+    }
+
+    @Benchmark
+    public List<ProductResponseDTO> productPageModelMapper() {
+        return products.stream()
+                .map(product -> modelMapper.map(product, ProductResponseDTO.class))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ProductResponseDTO> productPageMapStruct() {
+        return products.stream()
+                .map(catalogMapper::toProductResponseDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public OrderDTO orderModelMapper() {
+        OrderDTO orderDTO = modelMapper.map(order, OrderDTO.class);
+        orderDTO.setUserId(order.getUser().getId());
+        orderDTO.setOrderItems(order.getOrderItems().stream()
+                .map(item -> modelMapper.map(item, OrderItemDTO.class))
+                .collect(Collectors.toList()));
+        return orderDTO;
+    }
+
+    @Benchmark
+    public OrderDTO orderMapStruct() {
+        return orderMapper.toOrderDTO(order);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MapperBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
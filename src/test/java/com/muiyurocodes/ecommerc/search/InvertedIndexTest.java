@@ -0,0 +1,157 @@
+package com.muiyurocodes.ecommerc.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    private static final BigDecimal[] BANDS = {new BigDecimal("25"), new BigDecimal("100")};
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void everyQueryTermMustMatch() {
+        index.add(document(1, "Red Desk Lamp", "LED lamp"));
+        index.add(document(2, "Blue Desk", "Oak desk"));
+
+        assertEquals(List.of(1L), ids(search(List.of("desk", "lamp"), List.of())));
+        assertEquals(List.of(2L), ids(search(List.of("desk"), List.of("oak"))));
+        assertEquals(List.of(1L, 2L), ids(search(List.of(), List.of())));
+    }
+
+    @Test
+    void nameMatchesOutrankDescriptionMatchesAndExactOutranksPrefix() {
+        index.add(document(1, "Lamp", "A lamp for the desk"));
+        index.add(document(2, "Desk", "Wooden"));
+        index.add(document(3, "Desktop Stand", "Metal"));
+
+        float[] scores = new float[index.size];
+        index.match(List.of("desk"), List.of(), scores);
+        assertTrue(scores[1] > scores[2], "exact name term beats a prefix of a longer one");
+
+        scores = new float[index.size];
+        index.match(List.of(), List.of("desk"), scores);
+        assertTrue(scores[0] > 0);
+
+        float[] nameScores = new float[index.size];
+        index.match(List.of("lamp"), List.of(), nameScores);
+        float[] descriptionScores = new float[index.size];
+        index.match(List.of(), List.of("lamp"), descriptionScores);
+        assertTrue(nameScores[0] > descriptionScores[0], "name terms are boosted");
+    }
+
+    @Test
+    void rarerTermsAndShorterNamesScoreHigher() {
+        index.add(document(1, "Chair", ""));
+        index.add(document(2, "Chair Cushion Cover Grey Large", ""));
+        index.add(document(3, "Stool", ""));
+        index.add(document(4, "Chair Mat", ""));
+
+        float[] scores = new float[index.size];
+        index.match(List.of("chair"), List.of(), scores);
+        assertTrue(scores[0] > scores[3] && scores[3] > scores[1], "length normalisation");
+
+        float[] rare = new float[index.size];
+        index.match(List.of("stool"), List.of(), rare);
+        assertTrue(rare[2] > scores[0], "a term in fewer documents weighs more");
+    }
+
+    @Test
+    void updatesAndRemovalsLeaveTombstones() {
+        index.add(document(1, "Old Name", ""));
+        index.add(document(2, "Other", ""));
+        index.add(document(1, "New Name", ""));
+
+        assertEquals(2, index.liveCount());
+        assertEquals(1, index.deletedCount());
+        assertTrue(search(List.of("old"), List.of()).isEmpty());
+        assertEquals(List.of(1L), ids(search(List.of("new"), List.of())));
+        assertEquals(List.of(1L), ids(search(List.of("name"), List.of())));
+
+        index.remove(1L);
+        assertEquals(1, index.liveCount());
+        assertEquals(2, index.deletedCount());
+        assertTrue(search(List.of("name"), List.of()).isEmpty());
+        assertEquals(List.of(2L), ids(search(List.of(), List.of())));
+    }
+
+    @Test
+    void shortPrefixesMatchEveryExpansion() {
+        // More distinct terms starting with "s" than expansions that are scored
+        for (long id = 1; id <= 100; id++) {
+            index.add(document(id, "s" + id + "x", ""));
+        }
+        index.add(document(101, "Table", ""));
+        index.remove(50L);
+
+        assertEquals(99, search(List.of("s"), List.of()).cardinality());
+    }
+
+    @Test
+    void filtersUseHotStockWhenGiven() {
+        index.add(document(1, "Mug", "", "10", 0, 7L));
+        index.add(document(2, "Cup", "", "30", 5, 8L));
+
+        BitSet matches = search(List.of(), List.of());
+        index.filter(matches, null, null, null, true, Map.of());
+        assertEquals(List.of(2L), ids(matches));
+
+        matches = search(List.of(), List.of());
+        index.filter(matches, null, null, null, true, Map.of(1L, 3, 2L, 0));
+        assertEquals(List.of(1L), ids(matches));
+
+        matches = search(List.of(), List.of());
+        index.filter(matches, new BigDecimal("20"), null, 8L, null, Map.of());
+        assertEquals(List.of(2L), ids(matches));
+    }
+
+    @Test
+    void eachFacetIgnoresItsOwnFilter() {
+        index.add(document(1, "A", "", "10", 1, 7L));
+        index.add(document(2, "B", "", "50", 0, 7L));
+        index.add(document(3, "C", "", "150", 2, 8L));
+        index.add(document(4, "D", "", "60", 3, 8L));
+
+        FacetCounts all = index.facets(search(List.of(), List.of()), null, null, null, null, BANDS, Map.of());
+        assertEquals(Map.of(7L, 2, 8L, 2), all.categories());
+        assertArrayEquals(new int[]{1, 2, 1}, all.priceBands());
+        assertEquals(3, all.inStock());
+        assertEquals(1, all.outOfStock());
+
+        // Category 7 and in stock: categories still count both, price bands and stock only category 7
+        FacetCounts filtered = index.facets(search(List.of(), List.of()), null, null, 7L, true, BANDS, Map.of());
+        assertEquals(Map.of(7L, 1, 8L, 2), filtered.categories());
+        assertArrayEquals(new int[]{1, 0, 0}, filtered.priceBands());
+        assertEquals(1, filtered.inStock());
+        assertEquals(1, filtered.outOfStock());
+    }
+
+    private BitSet search(List<String> nameTerms, List<String> descriptionTerms) {
+        return index.match(nameTerms, descriptionTerms, new float[index.size]);
+    }
+
+    private List<Long> ids(BitSet matches) {
+        List<Long> ids = new ArrayList<>();
+        matches.stream().forEach(doc -> ids.add(index.productIds[doc]));
+        ids.sort(null);
+        return ids;
+    }
+
+    private static ProductDocument document(long id, String name, String description) {
+        return document(id, name, description, "10", 1, 1L);
+    }
+
+    private static ProductDocument document(long id, String name, String description, String price, int stock,
+                                            Long categoryId) {
+        return new ProductDocument(id, name, description, new BigDecimal(price), stock, categoryId);
+    }
+}
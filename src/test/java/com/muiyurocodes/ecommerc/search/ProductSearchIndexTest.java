@@ -0,0 +1,150 @@
+package com.muiyurocodes.ecommerc.search;
+
+import com.muiyurocodes.ecommerc.event.ProductChangedEvent;
+import com.muiyurocodes.ecommerc.service.HotInventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Builds the index from an in-memory products table. Rows can change while the rebuild is
+ * streaming them, standing in for checkouts and admin edits committed during a build.
+ */
+class ProductSearchIndexTest {
+
+    private final Map<Long, ProductDocument> rows = new TreeMap<>();
+    // Runs once the rebuild has streamed half of the rows
+    private Runnable duringStream = () -> { };
+    private int largestLoadUnderLock;
+
+    private TestIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        HotInventoryService hotInventory = mock(HotInventoryService.class);
+        when(hotInventory.getHotProducts()).thenReturn(List.of());
+        searchIndex = new TestIndex(hotInventory);
+        ReflectionTestUtils.setField(searchIndex, "maxDeletedRatio", 0.25);
+        ReflectionTestUtils.setField(searchIndex, "priceBandBounds", new BigDecimal[]{new BigDecimal("50")});
+    }
+
+    @Test
+    void notReadyUntilTheFirstBuild() {
+        put(1, "Desk");
+        assertFalse(searchIndex.isReady());
+
+        searchIndex.rebuild();
+        assertTrue(searchIndex.isReady());
+        assertEquals(List.of(1L), search("desk"));
+    }
+
+    @Test
+    void changesCommittedDuringTheBuildAreReplayedBeforeTheSwap() {
+        put(1, "Oak Desk");
+        put(2, "Desk Lamp");
+        put(3, "Chair");
+        duringStream = () -> {
+            put(1, "Walnut Desk");
+            rows.remove(2L);
+            put(4, "Standing Desk");
+            for (long id : List.of(1L, 2L, 4L)) {
+                searchIndex.onProductChanged(new ProductChangedEvent(id, 1L, null));
+            }
+        };
+
+        searchIndex.rebuild();
+
+        assertEquals(List.of(1L, 4L), search("desk"));
+        assertEquals(List.of(), search("oak"));
+        assertEquals(List.of(1L), search("walnut"));
+        assertEquals(List.of(4L), suggest("standing"));
+    }
+
+    @Test
+    void manyChangesAreLoadedBeforeTakingTheWriteLock() {
+        for (long id = 1; id <= 500; id++) {
+            put(id, "Lamp " + id);
+        }
+        duringStream = () -> {
+            for (long id = 1; id <= 300; id++) {
+                put(id, "Bulb " + id);
+                searchIndex.onProductChanged(new ProductChangedEvent(id, 1L, null));
+            }
+        };
+
+        searchIndex.rebuild();
+
+        assertEquals(300, searchIndex.search("bulb", null, null, null, null, null, "id", false, 0, 1000, false).total());
+        assertEquals(200, searchIndex.search("lamp", null, null, null, null, null, "id", false, 0, 1000, false).total());
+        assertTrue(largestLoadUnderLock <= 64, "loaded " + largestLoadUnderLock + " products under the write lock");
+    }
+
+    @Test
+    void liveUpdatesApplyBetweenRebuilds() {
+        put(1, "Desk");
+        put(2, "Lamp");
+        searchIndex.rebuild();
+
+        put(2, "Desk Lamp");
+        searchIndex.onProductChanged(new ProductChangedEvent(2L, 1L, null));
+        rows.remove(1L);
+        searchIndex.onProductChanged(new ProductChangedEvent(1L, null, 1L));
+
+        assertEquals(List.of(2L), search("desk"));
+        assertEquals(List.of(2L), suggest("desk"));
+    }
+
+    private void put(long id, String name) {
+        rows.put(id, new ProductDocument(id, name, "", new BigDecimal("10"), 1, 1L));
+    }
+
+    private List<Long> search(String name) {
+        return searchIndex.search(name, null, null, null, null, null, "id", false, 0, 100, false).productIds();
+    }
+
+    private List<Long> suggest(String query) {
+        return searchIndex.suggest(query, 10).stream().map(ProductSearchIndex.Suggestion::productId).toList();
+    }
+
+    private class TestIndex extends ProductSearchIndex {
+
+        TestIndex(HotInventoryService hotInventoryService) {
+            super(null, null, hotInventoryService);
+        }
+
+        @Override
+        void streamDocuments(Consumer<ProductDocument> consumer) {
+            List<ProductDocument> snapshot = new ArrayList<>(rows.values());
+            for (int i = 0; i < snapshot.size(); i++) {
+                if (i == snapshot.size() / 2) {
+                    duringStream.run();
+                }
+                consumer.accept(snapshot.get(i));
+            }
+        }
+
+        @Override
+        List<ProductDocument> loadDocuments(Collection<Long> productIds) {
+            ReentrantReadWriteLock lock = (ReentrantReadWriteLock) ReflectionTestUtils.getField(this, "lock");
+            if (lock.isWriteLockedByCurrentThread()) {
+                largestLoadUnderLock = Math.max(largestLoadUnderLock, productIds.size());
+            }
+            return productIds.stream().map(rows::get).filter(document -> document != null).toList();
+        }
+    }
+}
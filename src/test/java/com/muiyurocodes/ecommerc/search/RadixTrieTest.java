@@ -0,0 +1,83 @@
+package com.muiyurocodes.ecommerc.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RadixTrieTest {
+
+    @Test
+    void prefixVisitsShorterKeysFirstThenSiblingsInOrder() {
+        RadixTrie trie = new RadixTrie();
+        trie.add("phone case", 3);
+        trie.add("phone", 1);
+        trie.add("photo frame", 2);
+        trie.add("pen", 4);
+
+        assertEquals(List.of(1L, 3L, 2L), collect(trie, "ph"));
+        assertEquals(List.of(1L, 3L), collect(trie, "phone"));
+        // A prefix ending inside an edge label still reaches everything below it
+        assertEquals(List.of(3L), collect(trie, "phone c"));
+        assertEquals(List.of(), collect(trie, "phones"));
+        assertEquals(List.of(4L, 1L, 3L, 2L), collect(trie, ""));
+    }
+
+    @Test
+    void visitStopsWhenTheConsumerSaysSo() {
+        RadixTrie trie = new RadixTrie();
+        for (long id = 1; id <= 5; id++) {
+            trie.add("lamp " + id, id);
+        }
+        List<Long> seen = new ArrayList<>();
+        trie.visitPrefix("lamp", id -> {
+            seen.add(id);
+            return seen.size() < 2;
+        });
+
+        assertEquals(List.of(1L, 2L), seen);
+    }
+
+    @Test
+    void keysSharingAPrefixSurviveRemovalOfTheirSibling() {
+        RadixTrie trie = new RadixTrie();
+        trie.add("team", 1);
+        trie.add("tea", 2);
+        trie.add("test", 3);
+
+        // Leaves "te" with one child, which is merged back into it
+        trie.remove("test", 3);
+        trie.remove("tea", 2);
+        assertEquals(List.of(1L), collect(trie, "te"));
+        assertEquals(List.of(1L), collect(trie, "team"));
+        assertEquals(List.of(), collect(trie, "tes"));
+
+        // The merged edge splits again for a new key
+        trie.add("tent", 4);
+        assertEquals(List.of(1L, 4L), collect(trie, "te"));
+        assertEquals(List.of(4L), collect(trie, "ten"));
+    }
+
+    @Test
+    void removingOneOfSeveralIdsKeepsTheKey() {
+        RadixTrie trie = new RadixTrie();
+        trie.add("desk", 1);
+        trie.add("desk", 2);
+
+        trie.remove("desk", 1);
+        trie.remove("desks", 2);
+        trie.remove("chair", 2);
+
+        assertEquals(List.of(2L), collect(trie, "desk"));
+        trie.remove("desk", 2);
+        assertEquals(List.of(), collect(trie, "d"));
+    }
+
+    private static List<Long> collect(RadixTrie trie, String prefix) {
+        List<Long> ids = new ArrayList<>();
+        trie.visitPrefix(prefix, ids::add);
+        return ids;
+    }
+}
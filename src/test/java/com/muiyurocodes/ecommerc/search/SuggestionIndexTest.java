@@ -0,0 +1,76 @@
+package com.muiyurocodes.ecommerc.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestionIndexTest {
+
+    private final SuggestionIndex index = new SuggestionIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.add(1, "iPhone 15 Pro");
+        index.add(2, "Phone Case");
+        index.add(3, "Wireless Charger");
+        index.add(4, "Café Table");
+    }
+
+    @Test
+    void completesFromAnyWordOfTheName() {
+        assertEquals(List.of(1L), index.suggest("iph", 10));
+        assertEquals(List.of(1L), index.suggest("15 pro", 10));
+        assertEquals(List.of(4L), index.suggest("cafe t", 10));
+        // Completions come before fuzzy matches ("cafe" is one edit from "case")
+        assertEquals(List.of(2L, 4L), index.suggest("case", 10));
+    }
+
+    @Test
+    void lastWordMayBeAMisspelledPrefix() {
+        assertEquals(List.of(3L), index.suggest("wireless chra", 10));
+        assertEquals(List.of(1L), index.suggest("iphone 15 pr", 10));
+        assertEquals(List.of(3L), index.suggest("wirelss charg", 10));
+    }
+
+    @Test
+    void transposedLettersAreOneEdit() {
+        // "pohne" shares a single trigram with "phone"; the suggestion must not depend on that count
+        assertEquals(List.of(2L), index.suggest("pohne case", 10));
+        assertEquals(List.of(3L), index.suggest("wirelses charger", 10));
+        assertEquals(1, SuggestionIndex.boundedDistance("pohne", "phone", 1));
+        assertEquals(1, SuggestionIndex.boundedPrefixDistance("pohn", "phone", 1));
+    }
+
+    @Test
+    void prefixDistanceOnlyLooksAtTheStartOfLongWords() {
+        assertEquals(0, SuggestionIndex.boundedPrefixDistance("electr", "electronics", 2));
+        assertEquals(1, SuggestionIndex.boundedPrefixDistance("elcetr", "electronics", 1));
+        assertEquals(3, SuggestionIndex.boundedPrefixDistance("xyzabc", "electronics", 2));
+    }
+
+    @Test
+    void removedAndRenamedProductsAreNoLongerSuggested() {
+        index.remove(2);
+        assertEquals(List.of(4L), index.suggest("case", 10));
+        assertTrue(index.suggest("pohne case", 10).isEmpty());
+        assertNull(index.name(2));
+
+        index.add(3, "Wireless Earbuds");
+        assertTrue(index.suggest("wireless ch", 10).isEmpty());
+        assertEquals(List.of(3L), index.suggest("wireless ear", 10));
+    }
+
+    @Test
+    void resultsAreCappedAtTheLimit() {
+        for (long id = 10; id < 30; id++) {
+            index.add(id, "Phone Stand " + id);
+        }
+        assertEquals(5, index.suggest("phone", 5).size());
+        assertEquals(5, index.suggest("phine stand", 5).size());
+    }
+}
@@ -0,0 +1,30 @@
+package com.muiyurocodes.ecommerc.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenizerTest {
+
+    @Test
+    void splitsOnAnythingButLettersAndDigits() {
+        assertEquals(List.of("usb", "c", "cable", "2m"), Tokenizer.tokenize("USB-C cable (2m)"));
+        assertEquals(List.of("a", "b"), Tokenizer.tokenize("  a,,b  "));
+    }
+
+    @Test
+    void foldsCaseAndAccents() {
+        assertEquals(List.of("creme", "brulee", "cafe"), Tokenizer.tokenize("Crème Brûlée CAFÉ"));
+        assertEquals("naive", Tokenizer.normalize("Naïve"));
+    }
+
+    @Test
+    void blankTextHasNoTokens() {
+        assertTrue(Tokenizer.tokenize(null).isEmpty());
+        assertTrue(Tokenizer.tokenize("  ").isEmpty());
+        assertTrue(Tokenizer.tokenize("--").isEmpty());
+    }
+}
@@ -0,0 +1,56 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void quotedFieldsKeepCommasLineBreaksAndDoubledQuotes() throws IOException {
+        CsvRecordReader csv = reader("name,description\n\"Mug, large\",\"Holds \"\"a lot\"\"\nof coffee\"\n");
+
+        assertEquals(List.of("name", "description"), csv.next());
+        assertEquals(List.of("Mug, large", "Holds \"a lot\"\nof coffee"), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void emptyFieldsAreKept() throws IOException {
+        CsvRecordReader csv = reader("a,,\"\",d\n,\n");
+
+        assertEquals(List.of("a", "", "", "d"), csv.next());
+        assertEquals(List.of("", ""), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void crlfBlankLinesAndAMissingFinalNewlineAreHandled() throws IOException {
+        CsvRecordReader csv = reader("a,b\r\n\r\n\nc,d");
+
+        assertEquals(List.of("a", "b"), csv.next());
+        assertEquals(List.of("c", "d"), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void quoteInsideAnUnquotedFieldIsLiteral() throws IOException {
+        CsvRecordReader csv = reader("12\" pizza,9.99\n");
+
+        assertEquals(List.of("12\" pizza", "9.99"), csv.next());
+    }
+
+    @Test
+    void emptyInputHasNoRecords() throws IOException {
+        assertNull(reader("").next());
+    }
+
+    private static CsvRecordReader reader(String text) {
+        return new CsvRecordReader(new StringReader(text));
+    }
+}
@@ -0,0 +1,209 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import com.muiyurocodes.ecommerc.model.InventoryJournalEntry;
+import com.muiyurocodes.ecommerc.model.Product;
+import com.muiyurocodes.ecommerc.repository.InventoryJournalRepository;
+import com.muiyurocodes.ecommerc.repository.ProductRepository;
+import com.muiyurocodes.ecommerc.service.HotInventoryService.TakeResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the service against an in-memory products row and journal. The row lock taken by
+ * {@code findByIdForUpdate} is held until the product is saved, standing in for the commit.
+ * Checkouts run with transaction synchronization, so they stay in the counter until they
+ * complete, and wait on the row lock before completing, like the order_items foreign key check.
+ */
+class HotInventoryServiceImplTest {
+
+    private static final long PRODUCT = 1L;
+    private static final int STOCK = 1_000_000;
+
+    private final ReentrantLock rowLock = new ReentrantLock();
+    private final AtomicInteger rowStock = new AtomicInteger(STOCK);
+    private final AtomicBoolean rowHot = new AtomicBoolean();
+    private final List<InventoryJournalEntry> journal = new ArrayList<>();
+    private final AtomicLong journalIds = new AtomicLong();
+
+    private HotInventoryServiceImpl hotInventory;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository products = mock(ProductRepository.class);
+        when(products.existsById(anyLong())).thenReturn(true);
+        when(products.findByIdForUpdate(anyLong())).thenAnswer(invocation -> {
+            rowLock.lock();
+            Product product = new Product();
+            product.setId(PRODUCT);
+            product.setStockQuantity(rowStock.get());
+            product.setHotInventory(rowHot.get());
+            return Optional.of(product);
+        });
+        when(products.save(any(Product.class))).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            rowHot.set(product.isHotInventory());
+            rowLock.unlock();
+            return product;
+        });
+        doAnswer(invocation -> {
+            Map<Long, Integer> deltas = invocation.getArgument(0);
+            deltas.values().forEach(rowStock::addAndGet);
+            return null;
+        }).when(products).adjustStock(any());
+
+        InventoryJournalRepository journalRepository = mock(InventoryJournalRepository.class);
+        when(journalRepository.save(any(InventoryJournalEntry.class))).thenAnswer(invocation -> {
+            InventoryJournalEntry entry = invocation.getArgument(0);
+            // The insert round trip, during which the take is in memory only
+            LockSupport.parkNanos(100_000);
+            entry.setId(journalIds.incrementAndGet());
+            synchronized (journal) {
+                journal.add(entry);
+            }
+            return entry;
+        });
+        when(journalRepository.sumPendingByProductId(anyLong())).thenAnswer(invocation -> {
+            synchronized (journal) {
+                return journal.stream().mapToLong(InventoryJournalEntry::getQuantity).sum();
+            }
+        });
+        when(journalRepository.lockPendingByProductId(anyLong())).thenAnswer(invocation -> {
+            synchronized (journal) {
+                return new ArrayList<>(journal);
+            }
+        });
+        doAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            synchronized (journal) {
+                journal.removeIf(entry -> ids.contains(entry.getId()));
+            }
+            return null;
+        }).when(journalRepository).deleteAllByIdInBatch(any());
+        when(journalRepository.lockPending(anyInt())).thenAnswer(invocation -> {
+            synchronized (journal) {
+                return new ArrayList<>(journal);
+            }
+        });
+
+        hotInventory = new HotInventoryServiceImpl(products, journalRepository, mock(ApplicationEventPublisher.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(hotInventory, "stripes", 4);
+        ReflectionTestUtils.setField(hotInventory, "disableTimeoutMs", 5000L);
+    }
+
+    @Test
+    void takesAreJournaledAndWrittenBackOnDisable() {
+        assertEquals(TakeResult.NOT_HOT, hotInventory.tryTake(PRODUCT, 1));
+
+        hotInventory.enable(PRODUCT);
+        assertEquals(TakeResult.TAKEN, hotInventory.tryTake(PRODUCT, 5));
+        assertEquals(TakeResult.INSUFFICIENT, hotInventory.tryTake(PRODUCT, STOCK));
+        assertEquals(STOCK, rowStock.get());
+        assertEquals(1, journal.size());
+
+        hotInventory.disable(PRODUCT);
+        assertEquals(STOCK - 5, rowStock.get());
+        assertTrue(journal.isEmpty());
+        assertEquals(TakeResult.NOT_HOT, hotInventory.tryTake(PRODUCT, 1));
+    }
+
+    @Test
+    void switchingModesDuringCheckoutsNeverOversells() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> checkouts = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                checkouts.add(pool.submit(() -> {
+                    int sold = 0;
+                    while (running.get()) {
+                        int quantity = ThreadLocalRandom.current().nextInt(1, 4);
+                        TakeResult result = checkout(quantity);
+                        if (result == TakeResult.TAKEN || result == TakeResult.NOT_HOT && takeFromRow(quantity)) {
+                            sold += quantity;
+                        }
+                    }
+                    return sold;
+                }));
+            }
+            for (int i = 0; i < 50; i++) {
+                hotInventory.enable(PRODUCT);
+                Thread.sleep(1);
+                hotInventory.disable(PRODUCT);
+            }
+            running.set(false);
+
+            int sold = 0;
+            for (Future<Integer> checkout : checkouts) {
+                sold += checkout.get();
+            }
+            assertTrue(journal.isEmpty());
+            assertTrue(rowStock.get() >= 0);
+            assertEquals(STOCK, sold + rowStock.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // A checkout transaction taking from the counter, which needs a shared lock on the row before it commits
+    private TakeResult checkout(int quantity) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            TakeResult result = hotInventory.tryTake(PRODUCT, quantity);
+            if (result == TakeResult.TAKEN) {
+                rowLock.lock();
+                rowLock.unlock();
+            }
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+            return result;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // The guarded row decrement: waits on the row lock and refuses hot rows
+    private boolean takeFromRow(int quantity) {
+        rowLock.lock();
+        try {
+            if (rowHot.get() || rowStock.get() < quantity) {
+                return false;
+            }
+            rowStock.addAndGet(-quantity);
+            return true;
+        } finally {
+            rowLock.unlock();
+        }
+    }
+}
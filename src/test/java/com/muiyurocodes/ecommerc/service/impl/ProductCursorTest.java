@@ -0,0 +1,59 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import com.muiyurocodes.ecommerc.exception.InvalidPageRequestException;
+import com.muiyurocodes.ecommerc.repository.ProductRepositoryCustom.SortKey;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductCursorTest {
+
+    @Test
+    void nameCursorSurvivesSeparatorsAndNonAsciiNames() {
+        ProductCursor cursor = ProductCursor.after(SortKey.NAME, true, "Mug: café edition", 42L);
+
+        ProductCursor decoded = ProductCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+        assertEquals("Mug: café edition", decoded.typedValue());
+    }
+
+    @Test
+    void priceCursorKeepsThePlainDecimal() {
+        ProductCursor cursor = ProductCursor.after(SortKey.PRICE, false, new BigDecimal("1E+2"), 7L);
+
+        ProductCursor decoded = ProductCursor.decode(cursor.encode());
+
+        assertEquals("100", decoded.value());
+        assertEquals(new BigDecimal("100"), decoded.typedValue());
+        assertEquals(7L, decoded.id());
+        assertFalse(decoded.descending());
+    }
+
+    @Test
+    void idCursorComparesOnTheId() {
+        ProductCursor decoded = ProductCursor.decode(ProductCursor.after(SortKey.ID, false, 15L, 15L).encode());
+
+        assertEquals(SortKey.ID, decoded.sortKey());
+        assertEquals(15L, decoded.typedValue());
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertThrows(InvalidPageRequestException.class, () -> ProductCursor.decode("not base64!"));
+        assertThrows(InvalidPageRequestException.class, () -> ProductCursor.decode(token("NAME:a:1")));
+        assertThrows(InvalidPageRequestException.class, () -> ProductCursor.decode(token("STOCK:a:1:5")));
+        assertThrows(InvalidPageRequestException.class, () -> ProductCursor.decode(token("NAME:a:x:Mug")));
+        assertThrows(InvalidPageRequestException.class, () -> ProductCursor.decode(token("PRICE:a:1:cheap")));
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,118 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import com.muiyurocodes.ecommerc.repository.ProductRepository;
+import com.muiyurocodes.ecommerc.repository.StockShardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs takes against in-memory shard rows. The first read can be made stale, standing in for
+ * checkouts that took from the shards between it and the guarded updates.
+ */
+class ShardedInventoryServiceImplTest {
+
+    private static final long PRODUCT = 1L;
+
+    private int[] shards;
+    private int[] firstRead;
+    private final AtomicInteger locks = new AtomicInteger();
+
+    private ShardedInventoryServiceImpl shardedInventory;
+
+    @BeforeEach
+    void setUp() {
+        StockShardRepository repository = mock(StockShardRepository.class);
+        when(repository.findQuantities(anyLong())).thenAnswer(invocation -> firstRead.clone());
+        when(repository.lockQuantities(anyLong())).thenAnswer(invocation -> {
+            locks.incrementAndGet();
+            return shards.clone();
+        });
+        when(repository.take(anyLong(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int shard = invocation.getArgument(1);
+            int quantity = invocation.getArgument(2);
+            if (shards[shard] < quantity) {
+                return false;
+            }
+            shards[shard] -= quantity;
+            return true;
+        });
+        doAnswer(invocation -> {
+            int[] deltas = invocation.getArgument(1);
+            for (int shard = 0; shard < deltas.length; shard++) {
+                shards[shard] += deltas[shard];
+            }
+            return null;
+        }).when(repository).addQuantities(anyLong(), any());
+
+        shardedInventory = new ShardedInventoryServiceImpl(mock(ProductRepository.class), repository,
+                mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void splitSpreadsTheRemainderOverTheFirstShards() {
+        assertArrayEquals(new int[]{3, 3, 2, 2}, ShardedInventoryServiceImpl.split(10, 4));
+        assertArrayEquals(new int[]{0, 0, 0}, ShardedInventoryServiceImpl.split(0, 3));
+    }
+
+    @Test
+    void gatherTakesFromTheLowestShardsFirst() {
+        assertArrayEquals(new int[]{-2, 0, -3, 0}, ShardedInventoryServiceImpl.gather(new int[]{2, 0, 4, 1}, 5));
+        assertNull(ShardedInventoryServiceImpl.gather(new int[]{2, 0, 1}, 4));
+    }
+
+    @Test
+    void oneShardCoveringTheQuantityIsTakenWithoutLocking() {
+        stock(1, 0, 6, 0);
+
+        assertTrue(shardedInventory.tryTake(PRODUCT, 4));
+        assertArrayEquals(new int[]{1, 0, 2, 0}, shards);
+        assertEquals(0, locks.get());
+    }
+
+    @Test
+    void takeSpanningShardsLocksThemAndGathers() {
+        stock(2, 2, 2, 2);
+
+        assertTrue(shardedInventory.tryTake(PRODUCT, 5));
+        assertArrayEquals(new int[]{0, 0, 1, 2}, shards);
+        assertEquals(1, locks.get());
+    }
+
+    @Test
+    void failedFastTakeFallsBackToWhatTheShardsHoldNow() {
+        stock(0, 2, 3, 0);
+        firstRead = new int[]{5, 0, 5, 0};
+
+        assertTrue(shardedInventory.tryTake(PRODUCT, 4));
+        assertArrayEquals(new int[]{0, 0, 1, 0}, shards);
+        assertEquals(1, locks.get());
+    }
+
+    @Test
+    void shortTakeChangesNothing() {
+        stock(1, 2, 1, 0);
+
+        assertFalse(shardedInventory.tryTake(PRODUCT, 5));
+        assertArrayEquals(new int[]{1, 2, 1, 0}, shards);
+    }
+
+    private void stock(int... quantities) {
+        shards = quantities.clone();
+        firstRead = quantities.clone();
+    }
+}
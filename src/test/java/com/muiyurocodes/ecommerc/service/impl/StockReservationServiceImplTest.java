@@ -0,0 +1,102 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import com.muiyurocodes.ecommerc.exception.InsufficientStockException;
+import com.muiyurocodes.ecommerc.repository.StockReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class StockReservationServiceImplTest {
+
+    private static final long PRODUCT = 1L;
+
+    private StockReservationServiceImpl reservations;
+
+    @BeforeEach
+    void setUp() {
+        reservations = new StockReservationServiceImpl(mock(StockReservationRepository.class));
+        ReflectionTestUtils.setField(reservations, "ttlMinutes", 15L);
+    }
+
+    @Test
+    void holdsOfOtherCartsReduceWhatCanBePromised() {
+        reservations.reserve(10L, PRODUCT, 10, 6);
+
+        assertThrows(InsufficientStockException.class, () -> reservations.reserve(20L, PRODUCT, 10, 5));
+        reservations.reserve(20L, PRODUCT, 10, 4);
+
+        assertEquals(6, reservations.availableToPromise(PRODUCT, 10, 10L));
+        assertEquals(4, reservations.availableToPromise(PRODUCT, 10, 20L));
+        assertEquals(0, reservations.availableToPromise(PRODUCT, 10, null));
+    }
+
+    @Test
+    void reservingAgainReplacesTheCartsHold() {
+        reservations.reserve(10L, PRODUCT, 10, 6);
+        reservations.reserve(10L, PRODUCT, 10, 8);
+
+        assertEquals(2, reservations.availableToPromise(PRODUCT, 10, null));
+    }
+
+    @Test
+    void releasedHoldsFreeTheirUnits() {
+        reservations.reserve(10L, PRODUCT, 10, 6);
+        reservations.reserve(10L, 2L, 10, 3);
+        reservations.release(10L, PRODUCT);
+
+        assertEquals(10, reservations.availableToPromise(PRODUCT, 10, null));
+        assertEquals(7, reservations.availableToPromise(2L, 10, null));
+
+        reservations.releaseAll(10L);
+        assertEquals(10, reservations.availableToPromise(2L, 10, null));
+    }
+
+    @Test
+    void sweepReleasesExpiredHolds() {
+        ReflectionTestUtils.setField(reservations, "ttlMinutes", -1L);
+        reservations.reserve(10L, PRODUCT, 10, 6);
+
+        assertEquals(1, reservations.sweepExpired());
+        assertEquals(10, reservations.availableToPromise(PRODUCT, 10, null));
+    }
+
+    @Test
+    void concurrentReservationsNeverPromiseMoreThanTheStock() throws Exception {
+        int stock = 100;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> attempts = new ArrayList<>();
+            for (long cart = 1; cart <= 400; cart++) {
+                long cartId = cart;
+                attempts.add(() -> {
+                    try {
+                        reservations.reserve(cartId, PRODUCT, stock, 1);
+                        return true;
+                    } catch (InsufficientStockException e) {
+                        return false;
+                    }
+                });
+            }
+            int reserved = 0;
+            for (Future<Boolean> attempt : pool.invokeAll(attempts)) {
+                reserved += attempt.get() ? 1 : 0;
+            }
+
+            assertEquals(stock, reserved);
+            assertEquals(0, reservations.availableToPromise(PRODUCT, stock, null));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
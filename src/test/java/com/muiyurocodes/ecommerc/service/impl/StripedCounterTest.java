@@ -0,0 +1,89 @@
+package com.muiyurocodes.ecommerc.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedCounterTest {
+
+    @Test
+    void stockIsSpreadOverTheCells() {
+        assertEquals(10, new StripedCounter(4, 10).total());
+        assertEquals(-3, new StripedCounter(4, -3).total());
+        assertEquals(7, new StripedCounter(0, 7).total());
+    }
+
+    @Test
+    void takeGathersFromSeveralCells() {
+        StripedCounter counter = new StripedCounter(4, 10);
+
+        assertTrue(counter.tryTake(10));
+        assertEquals(0, counter.total());
+        assertFalse(counter.tryTake(1));
+    }
+
+    @Test
+    void shortTakeGivesEverythingBack() {
+        StripedCounter counter = new StripedCounter(4, 10);
+
+        assertFalse(counter.tryTake(11));
+        assertEquals(10, counter.total());
+    }
+
+    @Test
+    void closedCounterWaitsForCheckoutsThatEnteredBefore() throws Exception {
+        StripedCounter counter = new StripedCounter(4, 10);
+        assertTrue(counter.enter());
+
+        counter.close();
+        assertFalse(counter.enter());
+        assertFalse(counter.awaitIdle(20));
+
+        counter.exit();
+        assertTrue(counter.awaitIdle(20));
+
+        counter.reopen();
+        assertTrue(counter.enter());
+    }
+
+    @Test
+    void concurrentTakesNeverTakeMoreThanTheStock() throws Exception {
+        int stock = 1000;
+        StripedCounter counter = new StripedCounter(8, stock);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Callable<Integer>> takers = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                takers.add(() -> {
+                    int taken = 0;
+                    for (int attempt = 0; attempt < 500; attempt++) {
+                        int quantity = ThreadLocalRandom.current().nextInt(1, 6);
+                        if (counter.tryTake(quantity)) {
+                            taken += quantity;
+                        }
+                    }
+                    return taken;
+                });
+            }
+            int taken = 0;
+            for (Future<Integer> result : pool.invokeAll(takers)) {
+                taken += result.get();
+            }
+
+            assertEquals(stock, taken + counter.total());
+            assertTrue(counter.total() >= 0);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}